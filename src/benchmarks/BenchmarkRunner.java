@@ -0,0 +1,20 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Runs benchmarks of page-object layer with allocation profiling. Optional argument is regular 
+ * expression of benchmarks to run ("MoviesPage", "Convert.parseRunTime").
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(args.length > 0 ? args[0] :
+            "benchmarks\\..*Benchmark").addProfiler(GCProfiler.class).build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,40 @@
+package benchmarks;
+
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import lib.mates.pom.utils.Convert;
+
+
+/**
+ * Parsing of texts of movie rows; runs on every row read from device or snapshot.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvertBenchmark {
+    // Fields rather than constants, so JIT cannot fold the result
+    private String runTimeText = "2hr 34min";
+    private String peopleCountText = "12 interested";
+
+    @Benchmark
+    public LocalTime parseRunTime() {
+        return Convert.parseRunTime(this.runTimeText);
+    }
+
+    @Benchmark
+    public int parsePeopleCount() {
+        return Convert.parsePeopleCount(this.peopleCountText);
+    }
+}
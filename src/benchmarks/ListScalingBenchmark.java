@@ -0,0 +1,231 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import javax.json.JsonObject;
+import lib.mates.pom.DeviceRegistry;
+import lib.mates.pom.PlatformDriver;
+import lib.mates.pom.components.DatePicker;
+import lib.mates.pom.components.DateTile;
+import lib.mates.pom.components.MovieDetails;
+import lib.mates.pom.components.MoviePicker;
+import lib.mates.pom.simulator.CommandHandler;
+import lib.mates.pom.simulator.InMemoryHttpClient;
+import lib.mates.pom.simulator.SimulatedDevice;
+import lib.mates.pom.simulator.SyntheticScreens;
+
+
+/**
+ * Measures how list navigation scales with length of list. For each size, movie, date and cinema
+ * lists of simulated device (SIMULATOR-01) are generated by SyntheticScreens, then searches are
+ * run in fresh app: movies and cinemas in the middle and at the end of list, dates to the end of
+ * line. Swipes, commands and wall time of every search are written to
+ * benchmarks/list-scaling.csv along with gnuplot script plotting them against size.
+ * Optional arguments are comma separated sizes ("10,100,1000,10000") and latency (milliseconds)
+ * of every command.
+ * <p>
+ * Every target is generated, so a search not finding it is a bug rather than a result (ex.
+ * UiScrollable giving up after its max number of swipes was once taken as end of list): such
+ * rows are reported on stderr, kept in the CSV with found=false but left out of the plot, and
+ * the benchmark exits with status 1.
+ */
+public class ListScalingBenchmark {
+    private static final String DEVICE_ID = SimulatedSession.DEVICE_ID;
+    private static final String HEADER = "list,size,target,found,swipes,commands,wallTimeMs";
+    // Timeout (seconds) of cinema search, long enough for the longest list
+    private static final int CINEMA_TIMEOUT = 600;
+    private Path manifestPath;
+    private int port;
+    private int latency;
+    private CommandHandler commandHandler;
+    private PlatformDriver platformDriver;
+    private List<String> rows = new ArrayList<>();
+    // Rows of searches that have not found their target
+    private List<String> failures = new ArrayList<>();
+
+    /**
+     * @param latency  Delay (milliseconds) of every command.
+     * @throws IOException
+     */
+    public ListScalingBenchmark(int latency) throws IOException {
+        JsonObject deviceInfo = DeviceRegistry.getInstance().getDeviceInfo(ListScalingBenchmark.
+            DEVICE_ID);
+        this.port = deviceInfo.getInt("appiumPort");
+        this.manifestPath = Paths.get(System.getProperty("user.dir"), deviceInfo.getString(
+            "simulator"));
+        this.latency = latency;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String sizes = args.length > 0 ? args[0] : "10,100,1000,10000";
+        int latency = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        ListScalingBenchmark benchmark = new ListScalingBenchmark(latency);
+        for (String size : sizes.split(",")) {
+            benchmark.run(Integer.parseInt(size.trim()));
+        }
+        Path directory = Paths.get(System.getProperty("mates.benchmarkDir", Paths.get(System.
+            getProperty("user.dir"), "benchmarks").toString()));
+        benchmark.write(directory);
+        System.out.println("Results written to " + directory.resolve("list-scaling.csv"));
+        if (! benchmark.failures.isEmpty()) {
+            System.err.println(String.format("FAILED: %d searches have not found their target; " +
+                "their swipes and commands are those of a failed search:", benchmark.failures.
+                size()));
+            for (String row : benchmark.failures) {
+                System.err.println("  " + row);
+            }
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs searches on lists of given size.
+     * @param size  Number of movies, dates and cinemas.
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public void run(int size) throws IOException, InterruptedException {
+        this.commandHandler = new CommandHandler(SyntheticScreens.create(this.manifestPath, size,
+            size, size), this.latency);
+        // Session created below picks up handler of generated screens
+        InMemoryHttpClient.setCommandHandler(ListScalingBenchmark.DEVICE_ID, this.commandHandler);
+        System.setProperty("mates.inProcess", "true");
+        this.platformDriver = new PlatformDriver(ListScalingBenchmark.DEVICE_ID, "http",
+            "127.0.0.1", this.port, "/wd/hub", 0);
+        try {
+            for (int index : new int[] {size / 2, size - 1}) {
+                String title = String.format(SyntheticScreens.MOVIE_TITLE, index);
+                this.measure("movies", size, index, () -> new MoviePicker(this.platformDriver).
+                    findMovie(title) != null);
+            }
+            this.measure("dates", size, size - 1, () -> this.scrollDatesToEnd());
+            for (int index : new int[] {size / 2, size - 1}) {
+                String name = String.format(SyntheticScreens.CINEMA_NAME, index);
+                this.measure("cinemas", size, index, () -> {
+                    new MoviePicker(this.platformDriver).getMovies().get(0).select();
+                    MovieDetails movieDetails = new MovieDetails(this.platformDriver);
+                    movieDetails.timesSection.locate();
+                    return movieDetails.timesSection.findCinema(name, ListScalingBenchmark.
+                        CINEMA_TIMEOUT) != null;
+                });
+            }
+        }
+        finally {
+            this.platformDriver.quit();
+        }
+    }
+
+    /**
+     * Writes results as CSV, and gnuplot script plotting swipes, commands and wall time of each
+     * search against list size.
+     * @param directory  Directory of result files.
+     * @throws IOException
+     */
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (Writer writer = Files.newBufferedWriter(directory.resolve("list-scaling.csv"))) {
+            PrintWriter printWriter = new PrintWriter(writer);
+            printWriter.println(ListScalingBenchmark.HEADER);
+            for (String row : this.rows) {
+                printWriter.println(row);
+            }
+            printWriter.flush();
+        }
+        try (Writer writer = Files.newBufferedWriter(directory.resolve("list-scaling.gp"))) {
+            PrintWriter printWriter = new PrintWriter(writer);
+            printWriter.println("set datafile separator ','");
+            printWriter.println("set terminal png size 1800,500");
+            printWriter.println("set output 'list-scaling.png'");
+            printWriter.println("set logscale xy");
+            printWriter.println("set key top left");
+            printWriter.println("set xlabel 'Items in list'");
+            printWriter.println("set multiplot layout 1,3");
+            String[][] searches = {{"movies", "middle"}, {"movies", "last"}, {"dates", "last"},
+                {"cinemas", "middle"}, {"cinemas", "last"}};
+            String[] columns = {"swipes", "commands", "wallTimeMs"};
+            for (int column = 0; column < columns.length; column++) {
+                printWriter.println(String.format("set ylabel '%s'", columns[column]));
+                List<String> plots = new ArrayList<>();
+                for (String[] search : searches) {
+                    // Rows of other searches and of failed ones are undefined and dropped by 
+                    // "smooth unique"
+                    plots.add(String.format("'list-scaling.csv' using ((strcol(1) eq '%s' && " +
+                        "strcol(3) eq '%s' && strcol(4) eq 'true') ? $2 : 1/0):%d smooth unique " +
+                        "with linespoints title '%s %s'", search[0], search[1], column + 5, 
+                        search[0], search[1]));
+                }
+                printWriter.println("plot " + String.join(", ", plots));
+            }
+            printWriter.println("unset multiplot");
+            printWriter.flush();
+        }
+    }
+
+    /**
+     * Runs search in freshly launched app and records its cost.
+     * @param list  Name of list ("movies", "dates", "cinemas").
+     * @param size  Number of items in list.
+     * @param index  Index of target item.
+     * @param search  Search returning true if target is found.
+     */
+    private void measure(String list, int size, int index, Search search) {
+        this.platformDriver.reset();
+        this.platformDriver.setSnapshotMode(true);
+        SimulatedDevice device = this.commandHandler.getDevice(this.platformDriver.getDriver().
+            getSessionId().toString());
+        int startSwipeCount = device.getSwipeCount();
+        long startCommandCount = this.commandHandler.getCommandCount();
+        long startTime = System.nanoTime();
+        boolean found = search.run();
+        long wallTime = (System.nanoTime() - startTime) / 1000000;
+        String target = index == size - 1 ? "last" : "middle";
+        String row = String.format("%s,%d,%s,%b,%d,%d,%d", list, size, target, found, device.
+            getSwipeCount() - startSwipeCount, this.commandHandler.getCommandCount() -
+            startCommandCount, wallTime);
+        this.rows.add(row);
+        System.out.println(row);
+        if (! found) {
+            this.failures.add(row);
+            System.err.println(String.format("WARNING: %s target %d of %d exists but has not " +
+                "been found; row is left out of the plot.", list, index, size));
+        }
+    }
+
+    /**
+     * Scrolls line of dates rightward until last visible date stays the same.
+     * @return  True if line has been scrolled to the end.
+     */
+    private boolean scrollDatesToEnd() {
+        DatePicker datePicker = new DatePicker(this.platformDriver);
+        // Calendar dates repeat every year, so end of line is detected rather than searched
+        String lastDate = null;
+        while (true) {
+            List<DateTile> tiles = datePicker.getDateLine().getTiles();
+            if (tiles.size() < 2) {
+                return false;
+            }
+            DateTile tile = tiles.get(tiles.size() - 1);
+            String date = tile.getMonthName() + " " + tile.getDay();
+            if (Objects.equals(date, lastDate)) {
+                return true;
+            }
+            lastDate = date;
+            datePicker.scrollLeft(tiles.size() - 1);
+        }
+    }
+
+
+    /**
+     * Interface of search measured by benchmark.
+     */
+    private interface Search {
+        boolean run();
+    }
+}
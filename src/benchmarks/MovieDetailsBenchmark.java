@@ -0,0 +1,53 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import lib.mates.pom.components.Cinema;
+import lib.mates.pom.components.MovieDetails;
+import lib.mates.pom.components.MoviePicker;
+
+
+/**
+ * Times section of movie details page against simulated device. Trial starts on details of 
+ * "Fifty Shades Darker" with section located.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovieDetailsBenchmark {
+    private MovieDetails movieDetails;
+
+    @Setup(Level.Trial)
+    public void setUp(SimulatedSession session) {
+        new MoviePicker(session.platformDriver).findMovie("Fifty Shades Darker").select();
+        this.movieDetails = new MovieDetails(session.platformDriver);
+        this.movieDetails.timesSection.locate();
+    }
+
+    @Benchmark
+    public List<Cinema> timesSectionGetCinemas(SimulatedSession session) {
+        session.countOperation();
+        session.platformDriver.advanceUiEpoch();
+        return this.movieDetails.timesSection.getCinemas();
+    }
+
+    @Benchmark
+    public Cinema timesSectionFindCinema(SimulatedSession session) {
+        session.countOperation();
+        return this.movieDetails.timesSection.findCinema("AMC Saratoga 14", 20);
+    }
+}
@@ -0,0 +1,98 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import lib.mates.pom.components.DatePicker;
+import lib.mates.pom.components.Element;
+import lib.mates.pom.components.MoviePicker;
+import lib.mates.pom.components.MovieRow;
+
+
+/**
+ * Components of "Movies" page against simulated device. Each trial starts with freshly launched 
+ * app showing top of movie list.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoviesPageBenchmark {
+    private MoviePicker moviePicker;
+    private DatePicker datePicker;
+    // Title of first movie, resolved through chain of three locators
+    private Element titleElement;
+
+    @Setup(Level.Trial)
+    public void setUp(SimulatedSession session) {
+        this.moviePicker = new MoviePicker(session.platformDriver);
+        this.datePicker = new DatePicker(session.platformDriver);
+        this.titleElement = this.buildTitleElement(session);
+    }
+
+    /**
+     * Builds chain of locators; no command is sent.
+     */
+    @Benchmark
+    public Element elementFindElement(SimulatedSession session) {
+        session.countOperation();
+        return this.buildTitleElement(session);
+    }
+
+    /**
+     * Reads text of element from fresh snapshot of screen.
+     */
+    @Benchmark
+    public String elementGetText(SimulatedSession session) {
+        session.countOperation();
+        session.platformDriver.advanceUiEpoch();
+        return this.titleElement.getText();
+    }
+
+    @Benchmark
+    public List<MoviePicker.MovieItem> moviePickerGetMovies(SimulatedSession session) {
+        session.countOperation();
+        return this.moviePicker.getMovies();
+    }
+
+    @Benchmark
+    public List<MovieRow> moviePickerGetMovieRows(SimulatedSession session) {
+        session.countOperation();
+        session.platformDriver.advanceUiEpoch();
+        return this.moviePicker.getMovieRows();
+    }
+
+    /**
+     * Finds movie in the middle of list, starting from wherever previous search left the list.
+     */
+    @Benchmark
+    public MoviePicker.MovieItem moviePickerFindMovie(SimulatedSession session) {
+        session.countOperation();
+        return this.moviePicker.findMovie("Fifty Shades Darker");
+    }
+
+    @Benchmark
+    public List<DatePicker.DateItem> datePickerGetDates(SimulatedSession session) {
+        session.countOperation();
+        return this.datePicker.getDates();
+    }
+
+    private Element buildTitleElement(SimulatedSession session) {
+        return new Element(session.platformDriver, new By.ById(
+            "us.moviemates:id/pagerAdapterFromMovies")).findElement(new By.ById(
+            "us.moviemates:id/rlItemFilm")).findElement(new By.ById("us.moviemates:id/tvTitle"));
+    }
+}
@@ -0,0 +1,117 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import lib.mates.pom.snapshot.UiTree;
+import lib.mates.pom.snapshot.UiXPath;
+
+
+/**
+ * Page source snapshot as UiTree with UiXPath compared with DOM with javax.xml.xpath, on recorded
+ * screens of src/data/screens. "Read" benchmarks parse page source and read text of every item of
+ * screen's list (movie rows or cinema cards), as components do after each swipe.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageSnapshotBenchmark {
+    @Param({"movies", "details"})
+    public String screen;
+    private String pageSource;
+    // Items of list of screen and their text elements, relative to item
+    private String itemExpression;
+    private String textExpression;
+    private DocumentBuilderFactory documentBuilderFactory;
+    private XPathExpression itemXPath;
+    private XPathExpression textXPath;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, XPathExpressionException {
+        this.pageSource = new String(Files.readAllBytes(Paths.get(System.getProperty("user.dir"),
+            "src", "data", "screens", this.screen + ".xml")), "UTF-8");
+        if ("movies".equals(this.screen)) {
+            this.itemExpression = "//android.widget.ListView[@resource-id='us.moviemates:id/" +
+                "listView']/android.widget.RelativeLayout";
+            this.textExpression = ".//*[@resource-id='us.moviemates:id/tvTitle']";
+        }
+        else {
+            this.itemExpression = "//*[@resource-id='us.moviemates:id/rlCard']";
+            this.textExpression = ".//*[@resource-id='us.moviemates:id/tvAddress']";
+        }
+        this.documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        XPath xpath = XPathFactory.newInstance().newXPath();
+        this.itemXPath = xpath.compile(this.itemExpression);
+        this.textXPath = xpath.compile(this.textExpression);
+    }
+
+    @Benchmark
+    public Document domParse() throws ParserConfigurationException, SAXException, IOException {
+        return this.documentBuilderFactory.newDocumentBuilder().parse(new InputSource(new
+            StringReader(this.pageSource)));
+    }
+
+    @Benchmark
+    public UiTree uiTreeParse() throws XMLStreamException {
+        return UiTree.parse(this.pageSource);
+    }
+
+    @Benchmark
+    public int domRead() throws ParserConfigurationException, SAXException, IOException,
+        XPathExpressionException {
+        Document document = this.domParse();
+        int length = 0;
+        NodeList items = (NodeList) this.itemXPath.evaluate(document, XPathConstants.NODESET);
+        for (int index = 0; index < items.getLength(); index++) {
+            NodeList texts = (NodeList) this.textXPath.evaluate(items.item(index), XPathConstants.
+                NODESET);
+            if (texts.getLength() > 0) {
+                length += texts.item(0).getAttributes().getNamedItem("text").getNodeValue().
+                    length();
+            }
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int uiTreeRead() throws XMLStreamException {
+        UiTree tree = this.uiTreeParse();
+        int length = 0;
+        for (int item : UiXPath.compile(this.itemExpression).evaluate(tree, UiTree.DOCUMENT)) {
+            int[] texts = UiXPath.compile(this.textExpression).evaluate(tree, item);
+            if (texts.length > 0) {
+                length += tree.getText(texts[0]).length();
+            }
+        }
+        return length;
+    }
+}
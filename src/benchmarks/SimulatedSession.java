@@ -0,0 +1,117 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.json.JsonObject;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import lib.mates.pom.DeviceRegistry;
+import lib.mates.pom.PlatformDriver;
+import lib.mates.pom.simulator.CommandHandler;
+import lib.mates.pom.simulator.FakeAppiumServer;
+import lib.mates.pom.simulator.InMemoryHttpClient;
+
+
+/**
+ * Session of simulated device (SIMULATOR-01 of src/data/devices.json), either handled in memory or 
+ * served by fake Appium Server in the same JVM. Counts commands issued by benchmark operations and 
+ * prints number of commands per operation at the end of trial.
+ */
+@State(Scope.Thread)
+public class SimulatedSession {
+    public static final String DEVICE_ID = "SIMULATOR-01";
+    // Delay (milliseconds) of every command; 0 leaves client overhead alone
+    @Param({"0", "40"})
+    public int latency;
+    // "memory" hands commands to simulator directly, "http" sends them through loopback socket
+    @Param({"memory", "http"})
+    public String transport;
+    public PlatformDriver platformDriver;
+    private FakeAppiumServer server;
+    private CommandHandler commandHandler;
+    // Number of operations and of commands they issued, measured iterations only
+    private long operations = 0;
+    private long commands = 0;
+    // Commands by name, measured iterations only
+    private Map<String, Integer> commandCounts = new TreeMap<>();
+    // Counts of handler at start of iteration
+    private long iterationCommandCount;
+    private Map<String, Integer> iterationCommandCounts;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException, InterruptedException {
+        JsonObject deviceInfo = DeviceRegistry.getInstance().getDeviceInfo(SimulatedSession.
+            DEVICE_ID);
+        int port = deviceInfo.getInt("appiumPort");
+        Path manifestPath = Paths.get(System.getProperty("user.dir"), deviceInfo.getString(
+            "simulator"));
+        // Simulator is set up before session, so PlatformDriver finds it with given latency
+        if ("memory".equals(this.transport)) {
+            System.setProperty("mates.inProcess", "true");
+            this.commandHandler = InMemoryHttpClient.getCommandHandler(SimulatedSession.DEVICE_ID, 
+                manifestPath, this.latency);
+        }
+        else {
+            System.setProperty("mates.inProcess", "false");
+            this.server = FakeAppiumServer.start(port, manifestPath, this.latency);
+            this.commandHandler = this.server.getCommandHandler();
+        }
+        this.platformDriver = new PlatformDriver(SimulatedSession.DEVICE_ID, "http", "127.0.0.1", 
+            port, "/wd/hub", 0);
+        // Lookups are resolved against page source snapshot, as in MoviesPageBasicTest
+        this.platformDriver.setSnapshotMode(true);
+    }
+
+    @Setup(Level.Iteration)
+    public void startIteration() {
+        // Events of previous iterations are not needed; keep tracer from growing
+        this.platformDriver.getTracer().reset();
+        this.iterationCommandCount = this.commandHandler.getCommandCount();
+        this.iterationCommandCounts = this.commandHandler.getCommandCounts();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopIteration() {
+        this.commands += this.commandHandler.getCommandCount() - this.iterationCommandCount;
+        for (Map.Entry<String, Integer> entry : this.commandHandler.getCommandCounts().
+            entrySet()) {
+            Integer startCount = this.iterationCommandCounts.get(entry.getKey());
+            int count = entry.getValue() - (startCount != null ? startCount : 0);
+            if (count > 0) {
+                this.commandCounts.merge(entry.getKey(), count, Integer::sum);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (this.operations > 0) {
+            Map<String, String> perOperation = new HashMap<>();
+            for (Map.Entry<String, Integer> entry : this.commandCounts.entrySet()) {
+                perOperation.put(entry.getKey(), String.format("%.2f", (double) entry.getValue() / 
+                    this.operations));
+            }
+            System.out.println(String.format("%nCommands per operation: %.2f %s", (double) this.
+                commands / this.operations, new TreeMap<>(perOperation)));
+        }
+        this.platformDriver.quit();
+        if (this.server != null) {
+            this.server.stop();
+        }
+    }
+
+    /**
+     * Counts operation of benchmark. Each benchmark method calls it once per invocation.
+     */
+    public void countOperation() {
+        this.operations++;
+    }
+}
@@ -0,0 +1,340 @@
+package lib.mates.pom;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+import javax.json.JsonWriter;
+
+
+/**
+ * Registry of devices shared by all instances of PlatformDriver. Holds parsed device data sheet
+ * (src/data/devices.json) and keeps mount state of devices current by single long-lived
+ * "adb track-devices" process, so checks of mount state do not spawn processes or block. Swipe
+ * profiles measured on local devices are kept out of the source tree in
+ * ~/.mates/swipe-profiles.json (path is overridden by property mates.swipeProfileStore), keyed by
+ * UDID.
+ */
+public class DeviceRegistry {
+    private static DeviceRegistry instance;
+    // Path to device data sheet
+    private Path deviceSheetPath;
+    // Device info keyed by UDID, in order of data sheet
+    private Map<String, JsonObject> devices = new LinkedHashMap<>();
+    // State reported by adb ("device", "offline", "unauthorized"...) keyed by UDID
+    private Map<String, String> deviceStates = new HashMap<>();
+    // Set when first device list is received from adb
+    private boolean isTracking = false;
+    // Max time (milliseconds) to wait for first device list from adb
+    private int trackingTimeout = 5000;
+    private Process trackingProcess;
+    // Path to swipe profiles of devices
+    private Path swipeProfilesPath;
+    // Swipe profiles keyed by UDID, read on first use
+    private Map<String, SwipeProfile> swipeProfiles;
+
+    /**
+     * @param deviceSheetPath  Path to JSON data sheet of devices.
+     * @throws IOException
+     */
+    DeviceRegistry(Path deviceSheetPath) throws IOException {
+        this.deviceSheetPath = deviceSheetPath;
+        String storePath = System.getProperty("mates.swipeProfileStore");
+        this.swipeProfilesPath = storePath != null ? Paths.get(storePath) : Paths.get(System.
+            getProperty("user.home"), ".mates", "swipe-profiles.json");
+        JsonReader jsonReader = Json.createReader(new StringReader(new String(Files.
+            readAllBytes(deviceSheetPath))));
+        JsonObject jsonObject = jsonReader.readObject();
+        jsonReader.close();
+        for (String deviceId : jsonObject.keySet()) {
+            this.devices.put(deviceId, jsonObject.getJsonObject(deviceId));
+        }
+    }
+
+    /**
+     * Returns registry of devices of src/data/devices.json. Data sheet is read and tracking of
+     * devices is started on first call.
+     * @return  Instance of DeviceRegistry.
+     * @throws IOException
+     */
+    public static synchronized DeviceRegistry getInstance() throws IOException {
+        if (DeviceRegistry.instance == null) {
+            DeviceRegistry registry = new DeviceRegistry(Paths.get(System.getProperty("user.dir"),
+                "src", "data", "devices.json"));
+            registry.startTracking();
+            DeviceRegistry.instance = registry;
+        }
+        return DeviceRegistry.instance;
+    }
+
+    /**
+     * Returns IDs of all devices of data sheet.
+     * @return  Set of UDIDs, in order of data sheet.
+     */
+    public Set<String> getDeviceIds() {
+        return Collections.unmodifiableSet(this.devices.keySet());
+    }
+
+    /**
+     * Returns device info from data sheet.
+     * @param deviceId  Universal Device ID.
+     * @return  JSON object with info relevant to specified UDID, null if not found.
+     */
+    public JsonObject getDeviceInfo(String deviceId) {
+        return this.devices.get(deviceId);
+    }
+
+    /**
+     * Returns path to device data sheet.
+     * @return  Path to JSON file.
+     */
+    public Path getDeviceSheetPath() {
+        return this.deviceSheetPath;
+    }
+
+    /**
+     * Returns swipe profile of device measured by SwipeCalibrator.
+     * @param deviceId  Universal Device ID.
+     * @return  Instance of SwipeProfile, SwipeProfile.DEFAULT if device is not calibrated.
+     */
+    public synchronized SwipeProfile getSwipeProfile(String deviceId) {
+        SwipeProfile swipeProfile = this.getSwipeProfiles().get(deviceId);
+        return swipeProfile != null ? swipeProfile : SwipeProfile.DEFAULT;
+    }
+
+    /**
+     * Stores swipe profile of device, replacing the previous one.
+     * @param deviceId  Universal Device ID.
+     * @param swipeProfile  Measured swipe profile.
+     */
+    public synchronized void saveSwipeProfile(String deviceId, SwipeProfile swipeProfile) {
+        this.getSwipeProfiles().put(deviceId, swipeProfile);
+        JsonObjectBuilder builder = Json.createObjectBuilder();
+        for (Map.Entry<String, SwipeProfile> entry : this.swipeProfiles.entrySet()) {
+            builder.add(entry.getKey(), entry.getValue().toJson());
+        }
+        try {
+            Files.createDirectories(this.swipeProfilesPath.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(this.swipeProfilesPath)) {
+                JsonWriter jsonWriter = Json.createWriter(writer);
+                jsonWriter.writeObject(builder.build());
+                jsonWriter.close();
+            }
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Swipe profiles cannot be saved.", e);
+        }
+    }
+
+    private Map<String, SwipeProfile> getSwipeProfiles() {
+        if (this.swipeProfiles == null) {
+            this.swipeProfiles = new LinkedHashMap<>();
+            if (Files.exists(this.swipeProfilesPath)) {
+                try (Reader reader = Files.newBufferedReader(this.swipeProfilesPath)) {
+                    JsonReader jsonReader = Json.createReader(reader);
+                    JsonObject jsonObject = jsonReader.readObject();
+                    jsonReader.close();
+                    for (String deviceId : jsonObject.keySet()) {
+                        this.swipeProfiles.put(deviceId, SwipeProfile.fromJson(jsonObject.
+                            getJsonObject(deviceId)));
+                    }
+                }
+                catch (IOException e) {
+                    throw new RuntimeException("Swipe profiles cannot be read.", e);
+                }
+            }
+        }
+        return this.swipeProfiles;
+    }
+
+    /**
+     * Checks if device is simulated by FakeAppiumServer rather than attached to host.
+     * @param deviceId  Universal Device ID.
+     * @return  True if data sheet gives manifest of recorded screens ("simulator") for device.
+     */
+    public boolean isSimulated(String deviceId) {
+        JsonObject deviceInfo = this.devices.get(deviceId);
+        return deviceInfo != null && deviceInfo.containsKey("simulator");
+    }
+
+    /**
+     * Checks if device is discoverable by adb at the moment.
+     * @param deviceId  Universal Device ID.
+     * @return  True if device is in "device" state, false if not.
+     * @throws InterruptedException
+     */
+    public boolean isMounted(String deviceId) throws InterruptedException {
+        return this.awaitDevice(deviceId, 0);
+    }
+
+    /**
+     * Waits for device to become discoverable by adb. Simulated device is always mounted.
+     * @param deviceId  Universal Device ID.
+     * @param timeout  Max time (milliseconds) to wait.
+     * @return  True if device is mounted, false if timeout elapsed.
+     * @throws InterruptedException
+     */
+    public synchronized boolean awaitDevice(String deviceId, long timeout) throws
+        InterruptedException {
+        if (this.isSimulated(deviceId)) {
+            return true;
+        }
+        long deadline = System.currentTimeMillis() + timeout;
+        // First device list is awaited regardless of timeout, otherwise every device is unmounted
+        long trackingDeadline = System.currentTimeMillis() + this.trackingTimeout;
+        while (true) {
+            if ("device".equals(this.deviceStates.get(deviceId))) {
+                return true;
+            }
+            long now = System.currentTimeMillis();
+            long waitTime = Math.max(deadline, this.isTracking ? 0 : trackingDeadline) - now;
+            if (waitTime <= 0) {
+                return false;
+            }
+            this.wait(waitTime);
+        }
+    }
+
+    /**
+     * Returns current state of device as reported by adb.
+     * @param deviceId  Universal Device ID.
+     * @return  State ("device", "offline", "unauthorized"...), null if device is not attached.
+     */
+    public synchronized String getDeviceState(String deviceId) {
+        return this.deviceStates.get(deviceId);
+    }
+
+    /**
+     * Starts daemon thread reading "adb track-devices". adb reports full device list on start and
+     * on every change; the process is restarted if adb server goes down.
+     */
+    private void startTracking() {
+        Thread trackingThread = new Thread("adb-track-devices") {
+            @Override
+            public void run() {
+                while (! Thread.currentThread().isInterrupted()) {
+                    try {
+                        DeviceRegistry.this.track();
+                        // adb server restarted or killed, give it time to come up
+                        Thread.sleep(1000);
+                    }
+                    catch (IOException e) {
+                        DeviceRegistry.this.updateStates(new HashMap<String, String>());
+                        try {
+                            Thread.sleep(5000);
+                        }
+                        catch (InterruptedException interruption) {
+                            return;
+                        }
+                    }
+                    catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        };
+        trackingThread.setDaemon(true);
+        trackingThread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                Process process = DeviceRegistry.this.trackingProcess;
+                if (process != null) {
+                    process.destroy();
+                }
+            }
+        });
+    }
+
+    /**
+     * Reads device lists from adb until the stream ends. Each list is sent as 4 hex digits of
+     * length followed by lines "UDID\tstate". Diagnostics of adb go to stderr, which is left to
+     * console rather than merged into the framed stream.
+     */
+    private void track() throws IOException {
+        this.trackingProcess = new ProcessBuilder("adb", "track-devices").redirectError(
+            ProcessBuilder.Redirect.INHERIT).start();
+        try (InputStream input = new BufferedInputStream(this.trackingProcess.getInputStream())) {
+            int length;
+            while ((length = DeviceRegistry.readLength(input)) >= 0) {
+                byte[] listBytes = new byte[length];
+                if (! DeviceRegistry.readFully(input, listBytes)) {
+                    break;
+                }
+                Map<String, String> states = new HashMap<>();
+                for (String line : new String(listBytes, StandardCharsets.UTF_8).split("\n")) {
+                    String[] deviceDetails = line.trim().split("\\s+");
+                    if (deviceDetails.length == 2) {
+                        states.put(deviceDetails[0], deviceDetails[1]);
+                    }
+                }
+                this.updateStates(states);
+            }
+        }
+        finally {
+            this.trackingProcess.destroy();
+        }
+    }
+
+    private synchronized void updateStates(Map<String, String> states) {
+        this.deviceStates = states;
+        this.isTracking = true;
+        this.notifyAll();
+    }
+
+    /**
+     * Reads 4 hex digits of length of next device list. Line of other output (ex. "* daemon
+     * started successfully" printed to stdout by older adb versions) is skipped whole, so next
+     * length is read from start of next line rather than from the middle of text.
+     * @return  Length of device list, -1 if stream has ended.
+     */
+    private static int readLength(InputStream input) throws IOException {
+        StringBuilder digits = new StringBuilder();
+        while (digits.length() < 4) {
+            int character = input.read();
+            if (character < 0) {
+                return -1;
+            }
+            if (Character.digit(character, 16) >= 0) {
+                digits.append((char) character);
+                continue;
+            }
+            // Not a length; resynchronise at next line
+            while (character != '\n') {
+                character = input.read();
+                if (character < 0) {
+                    return -1;
+                }
+            }
+            digits.setLength(0);
+        }
+        return Integer.parseInt(digits.toString(), 16);
+    }
+
+    private static boolean readFully(InputStream input, byte[] buffer) throws IOException {
+        int offset = 0;
+        while (offset < buffer.length) {
+            int count = input.read(buffer, offset, buffer.length - offset);
+            if (count < 0) {
+                return false;
+            }
+            offset += count;
+        }
+        return true;
+    }
+}
@@ -1,19 +1,12 @@
 package lib.mates.pom;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.StringReader;
 import java.net.URL;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.TimeUnit;
-import javax.json.Json;
 import javax.json.JsonObject;
-import javax.json.JsonReader;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.remote.CapabilityType;
 import org.openqa.selenium.remote.DesiredCapabilities;
 import io.appium.java_client.AppiumDriver;
@@ -22,6 +15,12 @@ import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.android.AndroidElement;
 import io.appium.java_client.ios.IOSDriver;
 import io.appium.java_client.ios.IOSElement;
+import lib.mates.pom.exceptions.DeviceNotFoundException;
+import lib.mates.pom.simulator.FakeAppiumServer;
+import lib.mates.pom.simulator.InMemoryHttpClient;
+import lib.mates.pom.snapshot.PageSnapshot;
+import lib.mates.pom.trace.Tracer;
+import lib.mates.pom.trace.TracingHttpClient;
 
 
 /**
@@ -36,6 +35,26 @@ public class PlatformDriver {
     private String file;
     public int implicitWait;
     private AppiumDriver<? extends MobileElement> driver;
+    // Durations of phases of session start
+    private StartupTimings startupTimings = new StartupTimings();
+    // Records commands sent to Appium Server and spans of component methods
+    private Tracer tracer = new Tracer();
+    // Max time (milliseconds) to wait for device to be mounted
+    private int mountTimeout = 10000;
+    // Implicit wait time (milliseconds) currently set on Appium Server, -1 if not set yet
+    private int currentImplicitWait = -1;
+    // If set, Element resolves its locators against page source snapshot instead of device
+    private boolean snapshotMode = false;
+    // Snapshot of current screen, null if not taken yet
+    private PageSnapshot snapshot;
+    // Counter of UI changes, advanced by every gesture (swipe, tap) or context switch
+    private long uiEpoch = 0;
+    // Swipe velocity and scale of device, read from swipe profiles on session start
+    private SwipeProfile swipeProfile = SwipeProfile.DEFAULT;
+    // UI epoch at which snapshot has been taken
+    private long snapshotEpoch = -1;
+    // Max age (milliseconds) of snapshot; screen may change by itself (async load, spinner)
+    private int snapshotMaxAge = 500;
 
     /**
      * @param deviceId  Universal Device ID of device under test.
@@ -58,30 +77,15 @@ public class PlatformDriver {
     }
 
     /**
-     * Checks if device with specified ID is discoverable by adb.
+     * Checks if device with specified ID is discoverable by adb. Waits for device to appear if it 
+     * is not mounted at the moment (ex. reconnecting).
      * @return  True if device is found mounted, false if not.
      * @throws IOException
      * @throws InterruptedException
      */
     private boolean isDeviceMounted() throws IOException, InterruptedException {
-        // Get list of IDs of mounted devices.
-        Process process = Runtime.getRuntime().exec("adb devices");
-        process.waitFor();
-        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-        List<String> commandOutput = new ArrayList<>();
-        String outputLine;
-        while ((outputLine = reader.readLine()) != null) {
-            commandOutput.add(outputLine);
-        }
-        boolean isDeviceMounted = false;
-        if (commandOutput.size() > 1 && commandOutput.get(0).contains("List of devices attached")) {
-            String[] deviceDetails = commandOutput.get(1).trim().split("\\s+");
-            // If specified UDID is presented in adb's output.
-            if (deviceDetails.length == 2 && deviceDetails[0].equals(PlatformDriver.this.deviceId) && deviceDetails[1].equals("device")) {
-                isDeviceMounted = true;
-            }
-        }
-        return isDeviceMounted;
+        return DeviceRegistry.getInstance().awaitDevice(PlatformDriver.this.deviceId, 
+            PlatformDriver.this.mountTimeout);
     }
     
     /**
@@ -90,12 +94,7 @@ public class PlatformDriver {
      * @throws IOException
      */
     private JsonObject getDeviceInfo() throws IOException {
-        Path deviceInfoFilePath = Paths.get(System.getProperty("user.dir"), "src", "data", "devices.json");
-        JsonReader jsonReader = Json.createReader(new StringReader(new String(Files.readAllBytes(deviceInfoFilePath))));
-        JsonObject jsonObject = jsonReader.readObject();
-        jsonReader.close();
-        JsonObject deviceInfo = jsonObject.getJsonObject(PlatformDriver.this.deviceId);
-        return deviceInfo;
+        return DeviceRegistry.getInstance().getDeviceInfo(PlatformDriver.this.deviceId);
     }
     
     /**
@@ -104,9 +103,15 @@ public class PlatformDriver {
      * @throws InterruptedException
      */
     private void createDriver() throws IOException, InterruptedException {
-        if (PlatformDriver.this.isDeviceMounted()) {
+        long phaseStartTime = System.currentTimeMillis();
+        boolean isDeviceMounted = PlatformDriver.this.isDeviceMounted();
+        PlatformDriver.this.startupTimings.adbCheck = System.currentTimeMillis() - phaseStartTime;
+        if (isDeviceMounted) {
+            phaseStartTime = System.currentTimeMillis();
             JsonObject deviceInfo = PlatformDriver.this.getDeviceInfo();
             if (deviceInfo != null) {
+                PlatformDriver.this.swipeProfile = DeviceRegistry.getInstance().
+                    getSwipeProfile(PlatformDriver.this.deviceId);
                 DesiredCapabilities capabilities = new DesiredCapabilities();
                 // "Appium"
                 capabilities.setCapability("automationName", deviceInfo.getString("automationName"));
@@ -120,6 +125,8 @@ public class PlatformDriver {
                 capabilities.setCapability("platformVersion", deviceInfo.getString("platformVersion"));
                 // Mobile device name
                 capabilities.setCapability("deviceName", deviceInfo.getString("deviceName"));
+                // Device to run session on when several devices are mounted
+                capabilities.setCapability("udid", PlatformDriver.this.deviceId);
                 // How long Appium Server will wait for new command from client before session end (seconds)
                 capabilities.setCapability("newCommandTimeout", 300);
                 // "Android", "iOS"
@@ -134,23 +141,58 @@ public class PlatformDriver {
 //                    capabilities.setCapability("appPackage", "com.webview.mm.webviewtest");
                     capabilities.setCapability(CapabilityType.PLATFORM, "ANDROID");
                     capabilities.setCapability("useKeystore", false);
-                    PlatformDriver.this.driver = new AndroidDriver<AndroidElement>(new URL(PlatformDriver.this.protocol, PlatformDriver.this.host, PlatformDriver.this.port, PlatformDriver.this.file), capabilities);
+                    // Port of UiAutomator2 server on host; must be unique per device in parallel runs
+                    if (deviceInfo.containsKey("systemPort")) {
+                        capabilities.setCapability("systemPort", deviceInfo.getInt("systemPort"));
+                    }
                 }
-                else if (platformName.equals("iOS")) {
-                    PlatformDriver.this.driver = new IOSDriver<IOSElement>(new URL(PlatformDriver.this.protocol, PlatformDriver.this.host, PlatformDriver.this.port, PlatformDriver.this.file), capabilities);
+                else if (! platformName.equals("iOS")) {
+                    throw new RuntimeException("Invalid platform name: " + platformName);
+                }
+                PlatformDriver.this.startupTimings.capabilityBuild = System.currentTimeMillis() - 
+                    phaseStartTime;
+                phaseStartTime = System.currentTimeMillis();
+                // Every command of the session is recorded by tracer
+                TracingHttpClient.Factory clientFactory;
+                if (deviceInfo.containsKey("simulator")) {
+                    Path manifestPath = Paths.get(System.getProperty("user.dir"), deviceInfo.
+                        getString("simulator"));
+                    int latency = deviceInfo.getInt("latency", 0);
+                    if (Boolean.getBoolean("mates.inProcess")) {
+                        // Commands are handled in memory by simulated device, no server involved
+                        clientFactory = new TracingHttpClient.Factory(new InMemoryHttpClient.
+                            Factory(InMemoryHttpClient.getCommandHandler(PlatformDriver.this.
+                            deviceId, manifestPath, latency)), PlatformDriver.this.tracer);
+                    }
+                    else {
+                        // Simulated device is served by fake Appium Server on port of session
+                        FakeAppiumServer.start(PlatformDriver.this.port, manifestPath, latency);
+                        clientFactory = new TracingHttpClient.Factory(PlatformDriver.this.tracer);
+                    }
                 }
                 else {
-                    throw new RuntimeException("Invalid platform name: " + platformName);
+                    clientFactory = new TracingHttpClient.Factory(PlatformDriver.this.tracer);
                 }
+                if (platformName.equals("Android")) {
+                    PlatformDriver.this.driver = new AndroidDriver<AndroidElement>(PlatformDriver.this.getServerUrl(), clientFactory, capabilities);
+                }
+                else {
+                    PlatformDriver.this.driver = new IOSDriver<IOSElement>(PlatformDriver.this.getServerUrl(), clientFactory, capabilities);
+                }
+                PlatformDriver.this.startupTimings.sessionCreate = System.currentTimeMillis() - 
+                    phaseStartTime;
+                phaseStartTime = System.currentTimeMillis();
                 // Set default implicit wait time
-                PlatformDriver.this.driver.manage().timeouts().implicitlyWait(PlatformDriver.this.implicitWait, TimeUnit.MILLISECONDS);
+                PlatformDriver.this.setImplicitWait(PlatformDriver.this.implicitWait);
+                PlatformDriver.this.startupTimings.implicitWaitSet = System.currentTimeMillis() - 
+                    phaseStartTime;
             }
             else {
-                throw new RuntimeException("Target device info not found: " + PlatformDriver.this.deviceId);
+                throw new DeviceNotFoundException("Target device info not found: " + PlatformDriver.this.deviceId);
             }
         }
         else {
-            throw new RuntimeException("Target device not mounted: " + PlatformDriver.this.deviceId);
+            throw new DeviceNotFoundException("Target device not mounted: " + PlatformDriver.this.deviceId);
         }
     }
 
@@ -162,10 +204,223 @@ public class PlatformDriver {
         return PlatformDriver.this.driver;
     }
 
+    /**
+     * Returns ID of device the session runs on.
+     * @return  Universal Device ID.
+     */
+    public String getDeviceId() {
+        return PlatformDriver.this.deviceId;
+    }
+
+    /**
+     * Returns address of Appium Server the session is created on.
+     * @return  URL of Appium Server ("http://127.0.0.1:4723/wd/hub").
+     * @throws IOException
+     */
+    public URL getServerUrl() throws IOException {
+        return new URL(PlatformDriver.this.protocol, PlatformDriver.this.host, PlatformDriver.this.
+            port, PlatformDriver.this.file);
+    }
+
+    /**
+     * Checks if session runs on Android device.
+     * @return  True if Android, false if iOS.
+     */
+    public boolean isAndroid() {
+        return PlatformDriver.this.driver instanceof AndroidDriver;
+    }
+
+    /**
+     * Returns durations of phases of session start.
+     * @return  Instance of StartupTimings.
+     */
+    public StartupTimings getStartupTimings() {
+        return PlatformDriver.this.startupTimings;
+    }
+
+    /**
+     * Returns tracer of the session.
+     * @return  Instance of Tracer.
+     */
+    public Tracer getTracer() {
+        return PlatformDriver.this.tracer;
+    }
+
+    /**
+     * Checks if session is still alive on Appium Server and device responds.
+     * @return  True if session is usable, false if not.
+     */
+    public boolean isAlive() {
+        boolean isAlive = false;
+        try {
+            isAlive = PlatformDriver.this.driver.getSessionId() != null && PlatformDriver.this.
+                driver.getContext() != null;
+        }
+        catch (WebDriverException e) {
+        }
+        return isAlive;
+    }
+
+    /**
+     * Brings session to the state of freshly created one without creating new session: switches 
+     * to native context, restarts app under test and restores default settings.
+     */
+    public void reset() {
+        if (! "NATIVE_APP".equals(PlatformDriver.this.driver.getContext())) {
+            PlatformDriver.this.driver.context("NATIVE_APP");
+        }
+        PlatformDriver.this.driver.closeApp();
+        PlatformDriver.this.driver.launchApp();
+        PlatformDriver.this.advanceUiEpoch();
+        PlatformDriver.this.snapshotMode = false;
+        PlatformDriver.this.snapshot = null;
+        PlatformDriver.this.setImplicitWait(PlatformDriver.this.implicitWait);
+    }
+
+    /**
+     * Sets implicit wait time for find... family of methods. Command is sent to Appium Server 
+     * only if requested time differs from the one already set.
+     * @param implicitWait  Implicit wait time (milliseconds).
+     */
+    public void setImplicitWait(int implicitWait) {
+        if (implicitWait != PlatformDriver.this.currentImplicitWait) {
+            PlatformDriver.this.driver.manage().timeouts().implicitlyWait(implicitWait, TimeUnit.
+                MILLISECONDS);
+            PlatformDriver.this.currentImplicitWait = implicitWait;
+        }
+    }
+
+    /**
+     * Returns implicit wait time currently set on Appium Server.
+     * @return  Implicit wait time (milliseconds).
+     */
+    public int getImplicitWait() {
+        return PlatformDriver.this.currentImplicitWait;
+    }
+
+    /**
+     * Sets implicit wait time for the scope of try-with-resources block. Previous time is 
+     * restored when scope is closed. Scopes may nest; nested scope requesting the same time as 
+     * enclosing one sends no commands.
+     * <pre>
+     * try (PlatformDriver.ImplicitWait wait = platformDriver.withImplicitWait(0)) {
+     *     ...
+     * }
+     * </pre>
+     * @param implicitWait  Implicit wait time (milliseconds) within scope.
+     * @return  Scope to be closed.
+     */
+    public ImplicitWait withImplicitWait(int implicitWait) {
+        return new ImplicitWait(implicitWait);
+    }
+
+    /**
+     * Enables or disables resolving of Element locators against page source snapshot.
+     * @param snapshotMode  True to resolve locally, false to query device for each locator.
+     */
+    public void setSnapshotMode(boolean snapshotMode) {
+        PlatformDriver.this.snapshotMode = snapshotMode;
+        PlatformDriver.this.snapshot = null;
+    }
+
+    /**
+     * Sets max age of page source snapshot, after which it is taken again even if no gesture has
+     * been made.
+     * @param snapshotMaxAge  Max age (milliseconds); 0 takes snapshot on every lookup.
+     */
+    public void setSnapshotMaxAge(int snapshotMaxAge) {
+        PlatformDriver.this.snapshotMaxAge = snapshotMaxAge;
+    }
+
+    /**
+     * Checks if snapshot mode is enabled.
+     * @return  True if enabled, false if not.
+     */
+    public boolean isSnapshotMode() {
+        return PlatformDriver.this.snapshotMode;
+    }
+
+    /**
+     * Returns snapshot of current screen. Page source is fetched from device only if UI epoch has
+     * advanced since previous snapshot, or previous snapshot is older than max age, so that
+     * content changing without gesture (ex. list loaded after app launch) is seen on retry.
+     * @return  Instance of PageSnapshot.
+     */
+    @SuppressWarnings("try")
+    public PageSnapshot getSnapshot() {
+        if (PlatformDriver.this.snapshot == null || PlatformDriver.this.snapshotEpoch != 
+            PlatformDriver.this.uiEpoch || System.currentTimeMillis() - PlatformDriver.this.
+            snapshot.getCaptureTime() > PlatformDriver.this.snapshotMaxAge) {
+            try (Tracer.Span span = PlatformDriver.this.tracer.span("PlatformDriver.getSnapshot")) {
+                PlatformDriver.this.snapshot = new PageSnapshot(PlatformDriver.this.driver.
+                    getPageSource());
+                PlatformDriver.this.snapshotEpoch = PlatformDriver.this.uiEpoch;
+            }
+        }
+        return PlatformDriver.this.snapshot;
+    }
+
+    /**
+     * Returns swipe profile of device, used by scrolling to pick swipe duration and length.
+     * @return  Instance of SwipeProfile, SwipeProfile.DEFAULT if device is not calibrated.
+     */
+    public SwipeProfile getSwipeProfile() {
+        return PlatformDriver.this.swipeProfile;
+    }
+
+    /**
+     * Sets swipe profile for the rest of session (ex. right after calibration).
+     * @param swipeProfile  Instance of SwipeProfile.
+     */
+    public void setSwipeProfile(SwipeProfile swipeProfile) {
+        PlatformDriver.this.swipeProfile = swipeProfile;
+    }
+
+    /**
+     * Returns UI epoch: number of UI changes made through framework. Snapshot and elements 
+     * resolved at earlier epoch are stale.
+     * @return  Current UI epoch.
+     */
+    public long getUiEpoch() {
+        return PlatformDriver.this.uiEpoch;
+    }
+
+    /**
+     * Advances UI epoch, so that snapshot and elements cached by Element are looked up again. 
+     * Must be called after every gesture (swipe, tap) or context switch as they re-render XML 
+     * tree.
+     */
+    public void advanceUiEpoch() {
+        PlatformDriver.this.uiEpoch++;
+    }
+
     /**
      * Quits current session.
      */
     public void quit() {
         PlatformDriver.this.driver.quit();
     }
+
+
+    /**
+     * Scope of implicit wait time. Restores implicit wait time of enclosing scope when closed.
+     */
+    public class ImplicitWait implements AutoCloseable {
+        // Implicit wait time of enclosing scope
+        private int previousImplicitWait;
+        private boolean closed = false;
+
+        private ImplicitWait(int implicitWait) {
+            ImplicitWait.this.previousImplicitWait = PlatformDriver.this.currentImplicitWait;
+            PlatformDriver.this.setImplicitWait(implicitWait);
+        }
+
+        @Override
+        public void close() {
+            if (! ImplicitWait.this.closed && ImplicitWait.this.previousImplicitWait >= 0) {
+                ImplicitWait.this.closed = true;
+                PlatformDriver.this.setImplicitWait(ImplicitWait.this.previousImplicitWait);
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package lib.mates.pom;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openqa.selenium.WebDriverException;
+
+
+/**
+ * Creates instances of PlatformDriver asynchronously, so sessions on several devices start at 
+ * the same time. Number of simultaneous session starts is bounded by size of the pool.
+ */
+public class PlatformDriverFactory {
+    private ExecutorService executor;
+    // Fires timeouts of pending session starts
+    private ScheduledExecutorService timer;
+
+    /**
+     * @param poolSize  Max number of sessions being started at the same time.
+     */
+    public PlatformDriverFactory(int poolSize) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "platform-driver-" + threadNumber.
+                    incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        this.executor = Executors.newFixedThreadPool(poolSize, threadFactory);
+        this.timer = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    /**
+     * Starts creation of PlatformDriver. Future completes with TimeoutException if session is not 
+     * started within timeout; session start is then interrupted, and session that is created 
+     * anyway is quit. Cancelling the future has the same effect.
+     * @param deviceId  Universal Device ID of device under test.
+     * @param protocol  Protocol ("http", "https", "ftp")
+     * @param host  Running Appium Server's host name.
+     * @param port  Appium Server's port.
+     * @param file  File name on the host ("wd/hub").
+     * @param implicitWait  Default implicit wait time (milliseconds) for find... family of methods.
+     * @param timeout  Max time (milliseconds) of session start.
+     * @return  Future of PlatformDriver; its getStartupTimings() reports durations of phases.
+     */
+    public CompletableFuture<PlatformDriver> create(final String deviceId, final String protocol, 
+        final String host, final int port, final String file, final int implicitWait, long timeout) {
+        final CompletableFuture<PlatformDriver> result = new CompletableFuture<>();
+        final Future<?> task = this.executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    PlatformDriver platformDriver = new PlatformDriver(deviceId, protocol, host, 
+                        port, file, implicitWait);
+                    if (! result.complete(platformDriver)) {
+                        // Timed out or cancelled while session was being created
+                        PlatformDriverFactory.quietlyQuit(platformDriver);
+                    }
+                }
+                catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        final Future<?> timeoutTask = this.timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                result.completeExceptionally(new TimeoutException(String.format(
+                    "Session on %s is not started within %d ms.", deviceId, timeout)));
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+        result.whenComplete((platformDriver, exception) -> {
+            timeoutTask.cancel(false);
+            if (exception != null) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Stops accepting new session starts and interrupts pending ones.
+     */
+    public void shutdown() {
+        this.executor.shutdownNow();
+        this.timer.shutdownNow();
+    }
+
+    private static void quietlyQuit(PlatformDriver platformDriver) {
+        try {
+            platformDriver.quit();
+        }
+        catch (WebDriverException e) {
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package lib.mates.pom;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import org.openqa.selenium.WebDriverException;
+
+
+/**
+ * Keeps Appium sessions alive between test classes. Session of device is leased by test class 
+ * and returned to pool after it; next lease of the same device gets warm session with app 
+ * restarted instead of creating new session (installing helper APKs, launching activity etc.)
+ */
+public class SessionPool {
+    private static final SessionPool instance = new SessionPool();
+    // Idle sessions keyed by device ID and server address
+    private Map<String, Deque<PlatformDriver>> idleSessions = new ConcurrentHashMap<>();
+    // All sessions created by pool, leased or idle
+    private Set<PlatformDriver> sessions = ConcurrentHashMap.newKeySet();
+    // Durations (milliseconds) of leases keyed by device ID
+    private Map<String, List<Long>> leaseTimes = new ConcurrentHashMap<>();
+    // Number of leases served by new session keyed by device ID
+    private Map<String, Integer> coldLeases = new ConcurrentHashMap<>();
+    // Durations of phases of last session start keyed by device ID
+    private Map<String, StartupTimings> startupTimings = new ConcurrentHashMap<>();
+    // Starts new sessions of different devices concurrently
+    private PlatformDriverFactory factory;
+    // Max time (milliseconds) of new session start
+    private long sessionStartTimeout = 180000;
+
+    private SessionPool() {
+        // Sessions are not quit by test classes, so quit them when tests are over
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                System.out.print(SessionPool.this.getSummary());
+                SessionPool.this.shutdown();
+            }
+        });
+    }
+
+    /**
+     * Returns pool shared by all test classes.
+     * @return  Instance of SessionPool.
+     */
+    public static SessionPool getInstance() {
+        return SessionPool.instance;
+    }
+
+    /**
+     * Leases session on specified device. Idle session is health-checked and reset before 
+     * returning; if none is usable, new session is created.
+     * @param deviceId  Universal Device ID of device under test.
+     * @param protocol  Protocol ("http", "https", "ftp")
+     * @param host  Running Appium Server's host name.
+     * @param port  Appium Server's port.
+     * @param file  File name on the host ("wd/hub").
+     * @param implicitWait  Default implicit wait time (milliseconds) for find... family of methods.
+     * @return  Instance of PlatformDriver to be returned by release().
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public PlatformDriver lease(String deviceId, String protocol, String host, int port, String 
+        file, int implicitWait) throws IOException, InterruptedException {
+        long startTime = System.currentTimeMillis();
+        String key = String.format("%s@%s://%s:%d%s", deviceId, protocol, host, port, file);
+        Deque<PlatformDriver> deviceSessions = this.getIdleSessions(key);
+        PlatformDriver platformDriver = null;
+        while (platformDriver == null) {
+            PlatformDriver idleDriver;
+            synchronized (deviceSessions) {
+                idleDriver = deviceSessions.poll();
+            }
+            if (idleDriver == null) {
+                break;
+            }
+            if (this.restore(idleDriver, implicitWait)) {
+                platformDriver = idleDriver;
+            }
+            else {
+                this.discard(idleDriver);
+            }
+        }
+        if (platformDriver == null) {
+            platformDriver = this.start(deviceId, protocol, host, port, file, implicitWait);
+            this.sessions.add(platformDriver);
+            this.startupTimings.put(deviceId, platformDriver.getStartupTimings());
+            this.coldLeases.merge(deviceId, 1, Integer::sum);
+        }
+        this.getLeaseTimes(deviceId).add(System.currentTimeMillis() - startTime);
+        return platformDriver;
+    }
+
+    /**
+     * Returns leased session to pool for reuse by next test class.
+     * @param platformDriver  Instance of PlatformDriver obtained by lease().
+     */
+    public void release(PlatformDriver platformDriver) {
+        if (! this.sessions.contains(platformDriver)) {
+            throw new IllegalArgumentException("Session is not leased from pool: " + 
+                platformDriver.getDeviceId());
+        }
+        String key;
+        try {
+            key = String.format("%s@%s", platformDriver.getDeviceId(), platformDriver.
+                getServerUrl());
+        }
+        catch (IOException e) {
+            this.discard(platformDriver);
+            return;
+        }
+        Deque<PlatformDriver> deviceSessions = this.getIdleSessions(key);
+        synchronized (deviceSessions) {
+            deviceSessions.push(platformDriver);
+        }
+    }
+
+    /**
+     * Quits all sessions created by pool.
+     */
+    public void shutdown() {
+        for (PlatformDriver platformDriver : new ArrayList<>(this.sessions)) {
+            this.discard(platformDriver);
+        }
+        this.idleSessions.clear();
+        if (this.factory != null) {
+            this.factory.shutdown();
+        }
+    }
+
+    /**
+     * Returns durations of all leases of device, in order of leasing.
+     * @param deviceId  Universal Device ID.
+     * @return  List of durations (milliseconds).
+     */
+    public List<Long> getLeaseTimes(String deviceId) {
+        return this.leaseTimes.computeIfAbsent(deviceId, id -> Collections.
+            synchronizedList(new ArrayList<Long>()));
+    }
+
+    /**
+     * Returns summary of lease times, one line per device.
+     * @return  Text of summary.
+     */
+    public String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (Map.Entry<String, List<Long>> entry : this.leaseTimes.entrySet()) {
+            List<Long> times;
+            synchronized (entry.getValue()) {
+                times = new ArrayList<>(entry.getValue());
+            }
+            long total = 0;
+            for (long time : times) {
+                total += time;
+            }
+            summary.append(String.format("%s: %d leases (%d cold), %d ms total%n", entry.getKey(), 
+                times.size(), this.coldLeases.getOrDefault(entry.getKey(), 0), total));
+            StartupTimings timings = this.startupTimings.get(entry.getKey());
+            if (timings != null) {
+                summary.append(String.format("    last session start: %s%n", timings));
+            }
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Starts new session through factory shared by all devices.
+     */
+    private PlatformDriver start(String deviceId, String protocol, String host, int port, String 
+        file, int implicitWait) throws IOException, InterruptedException {
+        synchronized (this) {
+            if (this.factory == null) {
+                this.factory = new PlatformDriverFactory(Math.max(1, DeviceRegistry.getInstance().
+                    getDeviceIds().size()));
+            }
+        }
+        try {
+            return this.factory.create(deviceId, protocol, host, port, file, implicitWait, this.
+                sessionStartTimeout).get();
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("Session cannot be started: " + deviceId, cause);
+        }
+    }
+
+    private Deque<PlatformDriver> getIdleSessions(String key) {
+        return this.idleSessions.computeIfAbsent(key, id -> new ArrayDeque<PlatformDriver>());
+    }
+
+    /**
+     * Health-checks idle session and resets it.
+     * @return  True if session is ready for use, false if it is to be discarded.
+     */
+    private boolean restore(PlatformDriver platformDriver, int implicitWait) {
+        boolean isRestored = false;
+        if (platformDriver.isAlive()) {
+            try {
+                platformDriver.implicitWait = implicitWait;
+                platformDriver.reset();
+                isRestored = true;
+            }
+            catch (WebDriverException e) {
+            }
+        }
+        return isRestored;
+    }
+
+    private void discard(PlatformDriver platformDriver) {
+        this.sessions.remove(platformDriver);
+        try {
+            platformDriver.quit();
+        }
+        catch (WebDriverException e) {
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package lib.mates.pom;
+
+
+/**
+ * Durations (milliseconds) of phases of PlatformDriver session start.
+ */
+public class StartupTimings {
+    // Check of device mount state
+    long adbCheck;
+    // Reading of device info and building of desired capabilities
+    long capabilityBuild;
+    // Handshake of new session with Appium Server
+    long sessionCreate;
+    // Setting of default implicit wait time
+    long implicitWaitSet;
+
+    public long getAdbCheck() {
+        return this.adbCheck;
+    }
+
+    public long getCapabilityBuild() {
+        return this.capabilityBuild;
+    }
+
+    public long getSessionCreate() {
+        return this.sessionCreate;
+    }
+
+    public long getImplicitWaitSet() {
+        return this.implicitWaitSet;
+    }
+
+    /**
+     * Returns total duration of session start.
+     * @return  Sum of all phases (milliseconds).
+     */
+    public long getTotal() {
+        return this.adbCheck + this.capabilityBuild + this.sessionCreate + this.implicitWaitSet;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("adb check %d ms, capabilities %d ms, session %d ms, implicit wait %d ms", 
+            this.adbCheck, this.capabilityBuild, this.sessionCreate, this.implicitWaitSet);
+    }
+}
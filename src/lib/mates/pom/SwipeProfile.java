@@ -0,0 +1,85 @@
+package lib.mates.pom;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+
+
+/**
+ * Swipe characteristics of device measured by SwipeCalibrator: fastest finger velocity that does
+ * not start momentum scrolling (fling), and distance content actually moves per pixel of swipe.
+ * Devices not calibrated yet get DEFAULT, which leaves durations given by callers as they are.
+ */
+public final class SwipeProfile {
+    // Profile of device not calibrated yet
+    public static final SwipeProfile DEFAULT = new SwipeProfile(0, 1);
+    // Shortest swipe (milliseconds) Appium performs as drag rather than tap
+    private static final int MIN_DURATION = 100;
+    // Fastest non-fling velocity (pixels per millisecond), 0 if not measured
+    private final double velocity;
+    // Pixels content moves per pixel of swipe
+    private final double scale;
+
+    /**
+     * @param velocity  Fastest non-fling swipe velocity (px/ms), 0 if not measured.
+     * @param scale  Pixels content moves per pixel of swipe.
+     */
+    public SwipeProfile(double velocity, double scale) {
+        this.velocity = velocity;
+        this.scale = scale;
+    }
+
+    /**
+     * Reads profile from its JSON form ({"velocity": 1.2, "scale": 0.98}).
+     * @param jsonObject  JSON object written by toJson().
+     * @return  Instance of SwipeProfile.
+     */
+    public static SwipeProfile fromJson(JsonObject jsonObject) {
+        return new SwipeProfile(jsonObject.getJsonNumber("velocity").doubleValue(), jsonObject.
+            getJsonNumber("scale").doubleValue());
+    }
+
+    public JsonObject toJson() {
+        return Json.createObjectBuilder().add("velocity", this.velocity).add("scale", this.scale).
+            build();
+    }
+
+    public double getVelocity() {
+        return this.velocity;
+    }
+
+    public double getScale() {
+        return this.scale;
+    }
+
+    public boolean isCalibrated() {
+        return this.velocity > 0;
+    }
+
+    /**
+     * Returns duration of swipe over given distance at fastest non-fling velocity of device.
+     * @param distance  Length of swipe (pixels).
+     * @param defaultDuration  Duration (milliseconds) used if device is not calibrated.
+     * @return  Duration of swipe (milliseconds).
+     */
+    public int getDuration(int distance, int defaultDuration) {
+        if (! this.isCalibrated()) {
+            return defaultDuration;
+        }
+        return Math.max(SwipeProfile.MIN_DURATION, (int) Math.ceil(Math.abs(distance) / this.
+            velocity));
+    }
+
+    /**
+     * Returns length of swipe moving content by given distance.
+     * @param distance  Distance (pixels) content is to move, negative for opposite direction.
+     * @return  Length of swipe (pixels), of the same sign.
+     */
+    public int getSwipeDistance(int distance) {
+        return (int) Math.round(distance / this.scale);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SwipeProfile[%.3f px/ms, %.3f]", this.velocity, this.scale);
+    }
+}
@@ -0,0 +1,145 @@
+package lib.mates.pom.budget;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.junit.rules.TestRule;
+import lib.mates.pom.PlatformDriver;
+import lib.mates.pom.trace.Tracer;
+
+
+/**
+ * Counts Appium commands, XPath queries and swipes of test recorded by session's Tracer and 
+ * checks them against CommandBudget of test method or class. Counts do not depend on device speed, 
+ * so they reveal components issuing more commands than before. Swipes made by device itself 
+ * (UiScrollable) are not counted.
+ */
+public class BudgetRule implements TestRule {
+    private PlatformDriver platformDriver;
+
+    /**
+     * @param platformDriver  Session the test runs on.
+     */
+    public BudgetRule(PlatformDriver platformDriver) {
+        this.platformDriver = platformDriver;
+    }
+
+    @Override
+    public Statement apply(final Statement base, final Description description) {
+        final CommandBudget budget = BudgetRule.getBudget(description);
+        if (budget == null) {
+            return base;
+        }
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                Tracer tracer = BudgetRule.this.platformDriver.getTracer();
+                int firstEvent = tracer.getEvents().size();
+                long startTime = System.currentTimeMillis();
+                base.evaluate();
+                long wallTime = System.currentTimeMillis() - startTime;
+                List<Tracer.Event> events = tracer.getEvents();
+                String report = BudgetRule.check(budget, events.subList(Math.min(firstEvent, 
+                    events.size()), events.size()), wallTime);
+                if (report != null) {
+                    report = String.format("%s is over budget:%n%s", description.getDisplayName(), 
+                        report);
+                    if (budget.action() == CommandBudget.Action.FAIL) {
+                        throw new AssertionError(report);
+                    }
+                    System.err.println(report);
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns budget of test method, or of its class if method has none.
+     */
+    private static CommandBudget getBudget(Description description) {
+        CommandBudget budget = description.getAnnotation(CommandBudget.class);
+        if (budget == null && description.getTestClass() != null) {
+            budget = description.getTestClass().getAnnotation(CommandBudget.class);
+        }
+        return budget;
+    }
+
+    /**
+     * Compares counts of test with budget.
+     * @param budget  Limits of test.
+     * @param events  Events recorded during test.
+     * @param wallTime  Duration of test (milliseconds).
+     * @return  Exceeded limits followed by breakdown of commands, null if test is within budget.
+     */
+    public static String check(CommandBudget budget, List<Tracer.Event> events, long wallTime) {
+        int commandCount = 0;
+        int xpathCount = 0;
+        int swipeCount = 0;
+        // Number and total time (nanoseconds) of commands keyed by command name
+        Map<String, long[]> commands = new HashMap<>();
+        // Number of commands keyed by innermost span they were sent from
+        Map<String, long[]> spans = new HashMap<>();
+        for (Tracer.Event event : events) {
+            if (! Tracer.COMMAND.equals(event.getCategory())) {
+                continue;
+            }
+            commandCount++;
+            if ("xpath".equals(event.getArguments().get("using"))) {
+                xpathCount++;
+            }
+            if ("swipe".equals(event.getArguments().get("gesture"))) {
+                swipeCount++;
+            }
+            BudgetRule.add(commands, event.getName(), event.getDuration());
+            String stack = event.getStack();
+            String parentStack = stack.contains(";") ? stack.substring(0, stack.lastIndexOf(';')) : 
+                "";
+            BudgetRule.add(spans, parentStack.substring(parentStack.lastIndexOf(';') + 1), event.
+                getDuration());
+        }
+        StringBuilder report = new StringBuilder();
+        BudgetRule.compare(report, "commands", commandCount, budget.max());
+        BudgetRule.compare(report, "XPath queries", xpathCount, budget.xpath());
+        BudgetRule.compare(report, "swipes", swipeCount, budget.swipes());
+        BudgetRule.compare(report, "wall time (ms)", wallTime, budget.wallTime());
+        if (report.length() == 0) {
+            return null;
+        }
+        report.append(String.format("Commands by name:%n"));
+        BudgetRule.appendBreakdown(report, commands);
+        report.append(String.format("Commands by component method:%n"));
+        BudgetRule.appendBreakdown(report, spans);
+        return report.toString();
+    }
+
+    private static void add(Map<String, long[]> counts, String key, long duration) {
+        long[] count = counts.get(key);
+        if (count == null) {
+            count = new long[2];
+            counts.put(key, count);
+        }
+        count[0]++;
+        count[1] += duration;
+    }
+
+    private static void compare(StringBuilder report, String name, long actual, long limit) {
+        if (limit >= 0 && actual > limit) {
+            report.append(String.format("  %s: %d > %d%n", name, actual, limit));
+        }
+    }
+
+    /**
+     * Appends counts and total times, most frequent first.
+     */
+    private static void appendBreakdown(StringBuilder report, Map<String, long[]> counts) {
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort((first, second) -> Long.compare(second.getValue()[0], first.getValue()[0]));
+        for (Map.Entry<String, long[]> entry : entries) {
+            report.append(String.format("  %5d  %8d ms  %s%n", entry.getValue()[0], entry.getValue()
+                [1] / 1000000, entry.getKey().isEmpty() ? "(test)" : entry.getKey()));
+        }
+    }
+}
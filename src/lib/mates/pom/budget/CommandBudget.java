@@ -0,0 +1,41 @@
+package lib.mates.pom.budget;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Limits Appium commands and wall time of test method (or of every method of test class if put on 
+ * class). Limits are checked by BudgetRule; negative value means no limit.
+ * <pre>
+ * &#64;Test
+ * &#64;CommandBudget(max = 120, xpath = 10, swipes = 20)
+ * public void verifyMovieTime() {...}
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface CommandBudget {
+    // Max number of Appium commands
+    int max() default -1;
+    // Max number of find commands using XPath strategy
+    int xpath() default -1;
+    // Max number of swipes sent by client
+    int swipes() default -1;
+    // Max wall time of test (milliseconds)
+    long wallTime() default -1;
+    // What to do when test goes over budget
+    Action action() default Action.FAIL;
+
+    /**
+     * Reaction to exceeded budget.
+     */
+    enum Action {
+        // Test fails with AssertionError
+        FAIL,
+        // Breakdown is printed to stderr, test result is kept
+        WARN
+    }
+}
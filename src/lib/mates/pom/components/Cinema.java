@@ -2,19 +2,45 @@ package lib.mates.pom.components;
 
 import java.util.ArrayList;
 import java.util.List;
-import io.appium.java_client.MobileElement;
+import java.util.Objects;
+import org.openqa.selenium.NoSuchElementException;
+import lib.mates.pom.PlatformDriver;
+import lib.mates.pom.snapshot.Bounds;
 
 
 /**
- * Models separate theater on movie details page.
+ * Models separate theater on movie details page. Holds card of theater as read from screen in one 
+ * query: name, bounds and start times. Coordinates are valid until next gesture.
  */
 public class Cinema {
-    // Element enclosing all child elements
-    public MobileElement headElement;
+    // Wrapper of AppiumDriver
+    private PlatformDriver platformDriver;
+    // Name of theater, null if card is rendered partially
+    private String name;
+    // android.widget.RelativeLayout[@resource-id="us.moviemates:id/rlCard"]
+    private Bounds bounds;
+    // android.widget.TextView[@resource-id="us.moviemates:id/tvAddress"]
+    private Bounds nameBounds;
+    // Start times of movie and their bounds, in order of card
+    private List<String> times;
+    private List<Bounds> timeBounds;
 
-    public Cinema(MobileElement headElement) {
-        // android.widget.LinearLayout[@resource-id="us.moviemates:id/rlBigLayout"]
-        this.headElement = headElement;
+    /**
+     * @param platformDriver  Tailored wrapper of AppiumDriver.
+     * @param name  Name of theater, null if not rendered.
+     * @param bounds  Location and size of card.
+     * @param nameBounds  Location and size of name of theater, null if not rendered.
+     * @param times  Start times of movie ("8:40PM").
+     * @param timeBounds  Location and size of each start time.
+     */
+    public Cinema(PlatformDriver platformDriver, String name, Bounds bounds, Bounds nameBounds, 
+        List<String> times, List<Bounds> timeBounds) {
+        this.platformDriver = platformDriver;
+        this.name = name;
+        this.bounds = bounds;
+        this.nameBounds = nameBounds;
+        this.times = new ArrayList<>(times);
+        this.timeBounds = new ArrayList<>(timeBounds);
     }
 
     /**
@@ -22,14 +48,34 @@ public class Cinema {
      * @return  Name of theater.
      */
     public String getName() {
-        return this.headElement.findElementById("us.moviemates:id/tvAddress").getText();
+        return this.name;
+    }
+
+    /**
+     * Returns location and size of theater card.
+     * @return  Bounds of card.
+     */
+    public Bounds getBounds() {
+        return this.bounds;
+    }
+
+    /**
+     * Checks if name of theater contains given name, case insensitive.
+     * @param name  Name of theater, full or partial.
+     * @return  True if name matches, false if not or card has no name.
+     */
+    public boolean matches(String name) {
+        return this.name != null && this.name.toLowerCase().contains(name.toLowerCase());
     }
 
     /**
      * Opens a map app with location of theater.
      */
     public void openLocation() {
-        this.headElement.findElementById("us.moviemates:id/tvAddress").tap(1, 0);
+        if (this.nameBounds == null) {
+            throw new NoSuchElementException("Address of theater is not rendered.");
+        }
+        this.tap(this.nameBounds);
     }
 
     /**
@@ -37,11 +83,7 @@ public class Cinema {
      * @return  List of times.
      */
     public List<String> getTimes() {
-        List<String> times = new ArrayList<String>();
-        for (MobileElement containerElement : this.headElement.findElementsById("us.moviemates:id/llItemTime")) {
-            times.add(containerElement.findElementById("us.moviemates:id/tvTime").getText());
-        }
-        return times;
+        return new ArrayList<>(this.times);
     }
 
     /**
@@ -49,13 +91,9 @@ public class Cinema {
      * @param time  Time to select.
      */
     public void selectTime(String time) {
-        time = time.toUpperCase();
-        for (MobileElement containerElement : this.headElement.findElementsById("us.moviemates:id/llItemTime")) {
-            MobileElement itemElement = containerElement.findElementById("us.moviemates:id/tvTime");
-            if (itemElement.getText().equals(time)) {
-                itemElement.tap(1, 0);
-                break;
-            }
+        int index = this.times.indexOf(time.toUpperCase());
+        if (index >= 0) {
+            this.tap(this.timeBounds.get(index));
         }
     }
 
@@ -68,4 +106,29 @@ public class Cinema {
         // (red) or not (green)
         return false;
     }
+
+    private void tap(Bounds bounds) {
+        this.platformDriver.getDriver().tap(1, bounds.getCenterX(), bounds.getCenterY(), 0);
+        this.platformDriver.advanceUiEpoch();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Cinema)) {
+            return false;
+        }
+        Cinema cinema = (Cinema) other;
+        return Objects.equals(this.name, cinema.name) && Objects.equals(this.bounds, cinema.
+            bounds) && this.times.equals(cinema.times);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.name, this.bounds, this.times);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Cinema[%s, %s, %s]", this.name, this.bounds, this.times);
+    }
 }
@@ -0,0 +1,146 @@
+package lib.mates.pom.components;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Collections;
+import java.util.List;
+import lib.mates.pom.snapshot.Bounds;
+
+
+/**
+ * Immutable state of visible portion of date line, read by DatePicker.getDateLine() in one query
+ * of the viewport. Dates of line are consecutive, so calendar date of every tile is computed from
+ * single complete tile (anchor) instead of being read tile by tile.
+ */
+public final class DateLine {
+    // Years searched forward for anchor date (February 29 recurs every 4 to 8 years)
+    private static final int ANCHOR_YEARS = 8;
+    private final List<DateTile> tiles;
+    private final Bounds bounds;
+    private final int tileWidth;
+
+    /**
+     * @param tiles  Visible tiles, left to right.
+     * @param bounds  Location and size of date line on screen.
+     * @param tileWidth  Width of completely rendered tile, 0 if line has no tiles.
+     */
+    public DateLine(List<DateTile> tiles, Bounds bounds, int tileWidth) {
+        this.tiles = Collections.unmodifiableList(tiles);
+        this.bounds = bounds;
+        this.tileWidth = tileWidth;
+    }
+
+    public List<DateTile> getTiles() {
+        return this.tiles;
+    }
+
+    public Bounds getBounds() {
+        return this.bounds;
+    }
+
+    public int getTileWidth() {
+        return this.tileWidth;
+    }
+
+    /**
+     * Returns first completely rendered tile, which dates of other tiles are computed from.
+     * @return  Instance of DateTile, null if no tile is complete.
+     */
+    public DateTile getAnchor() {
+        for (DateTile tile : this.tiles) {
+            if (tile.isComplete()) {
+                return tile;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Computes calendar date of tile. Date of anchor is the first date since given one having
+     * anchor's day and month; dates of other tiles follow it day by day.
+     * @param tile  Tile of this line, complete or not.
+     * @param from  Earliest date line may show (ex. today).
+     * @return  Date of tile, null if line has no anchor or its day and month make no date.
+     */
+    public LocalDate getDate(DateTile tile, LocalDate from) {
+        LocalDate anchorDate = this.getAnchorDate(from);
+        if (anchorDate == null) {
+            return null;
+        }
+        return anchorDate.plusDays(tile.getIndex() - this.getAnchor().getIndex());
+    }
+
+    /**
+     * Checks that every complete tile shows date computed from anchor, i.e. line has no gaps or
+     * repeated dates.
+     * @param from  Earliest date line may show (ex. today).
+     * @return  True if consistent, false if not or line has no anchor.
+     */
+    public boolean isConsistent(LocalDate from) {
+        LocalDate anchorDate = this.getAnchorDate(from);
+        if (anchorDate == null) {
+            return false;
+        }
+        int anchorIndex = this.getAnchor().getIndex();
+        for (DateTile tile : this.tiles) {
+            if (tile.isComplete() && ! DateLine.matches(tile, anchorDate.plusDays(tile.getIndex() -
+                anchorIndex))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if tile shows given date. Names of days and months are compared by their first
+     * letters, case insensitive ("MON", "Monday"; "JAN").
+     * @param tile  Tile of date line.
+     * @param date  Calendar date.
+     * @return  True if day, day name and month name of tile match date.
+     */
+    public static boolean matches(DateTile tile, LocalDate date) {
+        return tile.getDay() == date.getDayOfMonth() && DateLine.isPrefix(tile.getMonthName(),
+            date.getMonth().toString()) && DateLine.isPrefix(tile.getDayName(), date.
+            getDayOfWeek().toString());
+    }
+
+    private LocalDate getAnchorDate(LocalDate from) {
+        DateTile anchor = this.getAnchor();
+        if (anchor == null) {
+            return null;
+        }
+        Month month = DateLine.parseMonth(anchor.getMonthName());
+        if (month == null) {
+            return null;
+        }
+        for (int year = from.getYear(); year <= from.getYear() + DateLine.ANCHOR_YEARS; year++) {
+            try {
+                LocalDate date = LocalDate.of(year, month, anchor.getDay());
+                if (! date.isBefore(from)) {
+                    return date;
+                }
+            }
+            catch (DateTimeException e) {
+            }
+        }
+        return null;
+    }
+
+    private static Month parseMonth(String monthName) {
+        for (Month month : Month.values()) {
+            if (DateLine.isPrefix(monthName, month.toString())) {
+                return month;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks if name shown on tile starts full name (at least 3 letters), case insensitive.
+     */
+    private static boolean isPrefix(String shortName, String fullName) {
+        return shortName != null && shortName.length() >= 3 && fullName.regionMatches(true, 0,
+            shortName, 0, shortName.length());
+    }
+}
@@ -1,33 +1,48 @@
 package lib.mates.pom.components;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import org.openqa.selenium.By;
 import org.openqa.selenium.NoSuchElementException;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.MobileElement;
 import io.appium.java_client.SwipeElementDirection;
 import lib.mates.pom.PlatformDriver;
+import lib.mates.pom.SwipeProfile;
+import lib.mates.pom.locators.Locators;
+import lib.mates.pom.snapshot.Bounds;
+import lib.mates.pom.snapshot.PageSnapshot;
+import lib.mates.pom.snapshot.UiTree;
+import lib.mates.pom.trace.Tracer;
+import lib.mates.pom.utils.Waits;
 
 
 /**
  * Models date picker line above movie list on "Movies" page. Stores date objects in collection and 
- * performs scrolling.
+ * performs scrolling. Visible portion of line is also read at once as DateLine.
  */
 public class DatePicker {
+    // Duration (milliseconds) of swipe moving line by one tile on uncalibrated device
+    private static final int TILE_SWIPE_DURATION = 500;
+    // Swipes correcting position of date line after the first one in selectDate()
+    private static final int MAX_CORRECTIONS = 2;
     // Wrapper of AppiumDriver
     private PlatformDriver platformDriver;
     private AppiumDriver<? extends MobileElement> driver;
     // Head element of date picker container
-    private MobileElement pickerHeadElement;
+    @Locate(id = "us.moviemates:id/date_list")
+    private Element pickerHeadElement;
     // XPath workaround. When possible, elements are found by resource ID, though finding 
     // ImageViews by ID gives wrong results within element's context.
     private String dateItemHeadElementSelector = 
         "//android.support.v7.widget.RecyclerView/android.widget.RelativeLayout[@index=%d]";
     // Collection of date objects visible on date line
     private ArrayList<DateItem> dates = new ArrayList<>();
-    // Shorten wait time for better performance when applicable
-    private int fastImplicitWait = 1000;
+    // Date line read last, null if line has been scrolled since
+    private DateLine dateLine;
 
     /**
      * @param platformDriver  Tailored wrapper of AppiumDriver.
@@ -36,25 +51,104 @@ public class DatePicker {
         DatePicker.this.platformDriver = platformDriver;
         // Instance of AndroidDriver or IOSDriver
         DatePicker.this.driver = platformDriver.getDriver();
-        DatePicker.this.getDates();
+        ElementFactory.initElements(DatePicker.this, platformDriver);
     }
 
     /**
      * Calls date item builder for each date in line and stores them as collection.
      */
+    @SuppressWarnings("try")
     public List<DateItem> getDates() {
-        DatePicker.this.dates.clear();
-        // Head element of dates container
-        DatePicker.this.pickerHeadElement = DatePicker.this.driver.
-            findElementById("us.moviemates:id/date_list");
-        // Find number of visible dates
-        int dateItemsNumber = DatePicker.this.pickerHeadElement.
-            findElementsById("us.moviemates:id/rl_date_picker_item").size();
-        // Populate collection of date objects
-        for (int dateItemIndex = 0; dateItemIndex < dateItemsNumber; dateItemIndex++) {
-            DatePicker.this.dates.add(new DateItem(dateItemIndex));
+        try (Tracer.Span span = DatePicker.this.platformDriver.getTracer().
+            span("DatePicker.getDates")) {
+            DatePicker.this.dates.clear();
+            // Head element of dates container
+            new Waits(DatePicker.this.platformDriver).until(Waits.present(DatePicker.this.
+                pickerHeadElement), Waits.DEFAULT_TIMEOUT);
+            MobileElement pickerElement = DatePicker.this.pickerHeadElement.getMobileElement();
+            if (pickerElement == null) {
+                throw new NoSuchElementException("Date line not found.");
+            }
+            // Find number of visible dates
+            int dateItemsNumber = pickerElement.
+                findElementsById("us.moviemates:id/rl_date_picker_item").size();
+            // Populate collection of date objects
+            for (int dateItemIndex = 0; dateItemIndex < dateItemsNumber; dateItemIndex++) {
+                DatePicker.this.dates.add(new DateItem(dateItemIndex));
+            }
+            return DatePicker.this.dates;
+        }
+    }
+
+    /**
+     * Reads all tiles in visible portion of date line by one query of the viewport (page source 
+     * snapshot). Tile is complete if its texts are present, its day is a number, and its bounds 
+     * lie within the line and are as wide as the widest tile.
+     * @return  Instance of DateLine.
+     */
+    @SuppressWarnings("try")
+    public DateLine getDateLine() {
+        try (Tracer.Span span = DatePicker.this.platformDriver.getTracer().
+            span("DatePicker.getDateLine")) {
+            new Waits(DatePicker.this.platformDriver).until(Waits.present(DatePicker.this.
+                pickerHeadElement), Waits.DEFAULT_TIMEOUT);
+            PageSnapshot snapshot = DatePicker.this.platformDriver.getSnapshot();
+            int lineNode = snapshot.findNode(Arrays.<By>asList(new By.
+                ById("us.moviemates:id/date_list")));
+            if (lineNode == UiTree.NONE) {
+                throw new NoSuchElementException("Date line not found.");
+            }
+            Bounds lineBounds = snapshot.getBounds(lineNode);
+            int[] tileNodes = snapshot.findNodes(lineNode, new By.
+                ById("us.moviemates:id/rl_date_picker_item"));
+            int tileWidth = 0;
+            for (int tileNode : tileNodes) {
+                Bounds bounds = snapshot.getBounds(tileNode);
+                if (bounds != null) {
+                    tileWidth = Math.max(tileWidth, bounds.getWidth());
+                }
+            }
+            List<DateTile> tiles = new ArrayList<>();
+            for (int tileNode : tileNodes) {
+                String dayName = DatePicker.this.getTileText(snapshot, tileNode, 
+                    "us.moviemates:id/tv_date_picker_day_name");
+                String dayText = DatePicker.this.getTileText(snapshot, tileNode, 
+                    "us.moviemates:id/tv_date_picker_day");
+                String monthName = DatePicker.this.getTileText(snapshot, tileNode, 
+                    "us.moviemates:id/tv_date_picker_month_name");
+                boolean selected = snapshot.findNodes(tileNode, new By.
+                    ById("us.moviemates:id/iv_movie_date_select")).length > 0 || snapshot.
+                    findNodes(tileNode, new By.
+                    ById("us.moviemates:id/iv_movie_date_active_select")).length > 0;
+                boolean active = snapshot.findNodes(tileNode, new By.
+                    ById("us.moviemates:id/iv_orange_background")).length > 0;
+                Bounds bounds = snapshot.getBounds(tileNode);
+                int day = DatePicker.parseDay(dayText);
+                boolean complete = dayName != null && day > 0 && monthName != null && 
+                    bounds != null && bounds.getWidth() == tileWidth && (lineBounds == null || 
+                    (bounds.getLeft() >= lineBounds.getLeft() && bounds.getRight() <= 
+                    lineBounds.getRight()));
+                tiles.add(new DateTile(tiles.size(), dayName, day, monthName, selected, active, 
+                    bounds, complete));
+            }
+            DatePicker.this.dateLine = new DateLine(tiles, lineBounds, tileWidth);
+            return DatePicker.this.dateLine;
         }
-        return DatePicker.this.dates;
+    }
+
+    /**
+     * Parses number of day shown on tile.
+     * @param dayText  Text of day element, null if element is not rendered.
+     * @return  Number of day, 0 if text is missing, empty or cut (ex. on truncated tile).
+     */
+    private static int parseDay(String dayText) {
+        return dayText != null && dayText.trim().matches("\\d{1,2}") ? Integer.parseInt(dayText.
+            trim()) : 0;
+    }
+
+    private String getTileText(PageSnapshot snapshot, int tileNode, String id) {
+        int[] nodes = snapshot.findNodes(tileNode, new By.ById(id));
+        return nodes.length == 0 ? null : snapshot.getText(nodes[0]);
     }
     
     /**
@@ -78,33 +172,90 @@ public class DatePicker {
      * @param direction  LEFT or RIGHT
      * @param steps  Swipe distance measured in number of date items (tiles)
      */
+    @SuppressWarnings("try")
     private void scroll(SwipeElementDirection direction, int steps) {
-        // Do not exceed number of visible dates
-        if (steps <= DatePicker.this.dates.size() - 1) {
-            int centerX = DatePicker.this.pickerHeadElement.getCenter().x;
-            // Obtain width of individual date tile
-            int dateItemWidth = DatePicker.this.dates.get(1).headElement.getSize().width;
-            int startX;
-            int endX;
-            if (direction == SwipeElementDirection.LEFT) {
-                // Move starting point half-way right from line's center
-                startX = centerX + (dateItemWidth * steps / 2);
-                // Swipe ends at half-way left from center
-                endX = startX - (dateItemWidth * steps);
+        try (Tracer.Span span = DatePicker.this.platformDriver.getTracer().
+            span("DatePicker.scroll")) {
+            // Geometry of line is read at once rather than tile by tile
+            DateLine dateLine = DatePicker.this.dateLine != null ? DatePicker.this.dateLine : 
+                DatePicker.this.getDateLine();
+            int tileCount = dateLine.getTiles().size();
+            // Do not exceed number of visible dates
+            if (steps <= tileCount - 1) {
+                int distance = dateLine.getTileWidth() * steps;
+                DatePicker.this.swipe(dateLine, direction == SwipeElementDirection.LEFT ? 
+                    distance : -distance);
             }
             else {
-                startX = centerX - (dateItemWidth * steps / 2);
-                endX = startX + (dateItemWidth * steps);
+                throw new IndexOutOfBoundsException(String.format("Scroll cannot exceed %d steps.", 
+                    tileCount - 1));
+            }
+        }
+    }
+
+    /**
+     * Scrolls date line straight to given date and taps it. Offset of date from current anchor 
+     * tile is converted into pixels by tile width, so the line is moved by one swipe (several if 
+     * the offset is longer than the line), then checked once before tapping.
+     * @param date  Date to select, not earlier than today.
+     * @throws NoSuchElementException  If date cannot be brought into line.
+     */
+    @SuppressWarnings("try")
+    public void selectDate(LocalDate date) {
+        try (Tracer.Span span = DatePicker.this.platformDriver.getTracer().
+            span("DatePicker.selectDate")) {
+            LocalDate today = LocalDate.now();
+            DateLine dateLine = DatePicker.this.getDateLine();
+            for (int attempt = 0; attempt <= DatePicker.MAX_CORRECTIONS; attempt++) {
+                DateTile anchor = dateLine.getAnchor();
+                LocalDate anchorDate = anchor != null ? dateLine.getDate(anchor, today) : null;
+                if (anchorDate == null) {
+                    throw new NoSuchElementException("Date line has no complete date.");
+                }
+                int days = (int) ChronoUnit.DAYS.between(anchorDate, date);
+                int position = anchor.getIndex() + days;
+                List<DateTile> tiles = dateLine.getTiles();
+                if (position >= 0 && position < tiles.size() && tiles.get(position).isComplete()) {
+                    new DateItem(position).headElement.tap();
+                    return;
+                }
+                // Move target tile to center of line
+                int targetX = anchor.getBounds().getCenterX() + days * dateLine.getTileWidth();
+                DatePicker.this.swipe(dateLine, targetX - dateLine.getBounds().getCenterX());
+                dateLine = DatePicker.this.getDateLine();
             }
-            int startY = DatePicker.this.pickerHeadElement.getCenter().y;
-            DatePicker.this.driver.swipe(startX, startY, endX, startY, 500 * steps);
-            // Update set of dates as they have been changed
-            DatePicker.this.getDates();
+            throw new NoSuchElementException("Date not found in date line: " + date);
         }
-        else {
-            throw new IndexOutOfBoundsException(String.format("Scroll cannot exceed %d steps.", 
-                DatePicker.this.dates.size() - 1));
+    }
+
+    /**
+     * Moves content of date line horizontally, by several swipes if distance exceeds the line.
+     * @param dateLine  Current state of date line.
+     * @param distance  Distance (pixels) to move content leftward; negative moves it rightward.
+     */
+    private void swipe(DateLine dateLine, int distance) {
+        Bounds lineBounds = dateLine.getBounds();
+        int tileWidth = dateLine.getTileWidth();
+        SwipeProfile swipeProfile = DatePicker.this.platformDriver.getSwipeProfile();
+        // Keep swipe within line, off its edge tiles
+        int maxDistance = Math.max(tileWidth, lineBounds.getWidth() - tileWidth);
+        int centerX = lineBounds.getCenterX();
+        int startY = lineBounds.getCenterY();
+        for (int remaining = swipeProfile.getSwipeDistance(distance); remaining != 0; ) {
+            int segment = Math.max(-maxDistance, Math.min(maxDistance, remaining));
+            // Start half-way from line's center, end half-way to the other side
+            int startX = centerX + segment / 2;
+            int endX = startX - segment;
+            // As fast as device allows without momentum scrolling
+            int duration = swipeProfile.getDuration(segment, DatePicker.TILE_SWIPE_DURATION * 
+                Math.abs(segment) / tileWidth);
+            DatePicker.this.driver.swipe(startX, startY, endX, startY, duration);
+            remaining -= segment;
         }
+        DatePicker.this.platformDriver.advanceUiEpoch();
+        // Set of dates has been changed; it is read again when needed
+        DatePicker.this.dates.clear();
+        DatePicker.this.dateLine = null;
     }
 
 
@@ -115,7 +266,16 @@ public class DatePicker {
     public class DateItem {
         // android.widget.RelativeLayout[@resource-id="us.moviemates:id/rl_date_picker_item"]
         private String headElementSelector;
-        public MobileElement headElement;
+        public Element headElement;
+        // android.widget.TextView[@resource-id="us.moviemates:id/tv_date_picker_day_name"]
+        private Element dayNameElement;
+        // android.widget.TextView[@resource-id="us.moviemates:id/tv_date_picker_day"]
+        private Element dayElement;
+        // android.widget.TextView[@resource-id="us.moviemates:id/tv_date_picker_month_name"]
+        private Element monthNameElement;
+        // Marks of date having interested movies, and of active date
+        private Element selectedMarkElement;
+        private Element activeMarkElement;
 
         /**
          * @param dateItemIndex  Index of date in line (first - 0).
@@ -124,8 +284,24 @@ public class DatePicker {
             // Ex. android.widget.RelativeLayout[@index=0]
             DateItem.this.headElementSelector = String.format(DatePicker.this.
                 dateItemHeadElementSelector, dateItemIndex);
-            DateItem.this.headElement = DatePicker.this.driver.findElementByXPath(DateItem.this.
-                headElementSelector);
+            // Fastest of equivalent locators on this device, chosen on first use
+            DateItem.this.headElement = new Element(DatePicker.this.platformDriver, Locators.
+                DATE_ITEM, dateItemIndex);
+            DateItem.this.dayNameElement = DateItem.this.headElement.findElement(new By.
+                ById("us.moviemates:id/tv_date_picker_day_name"));
+            DateItem.this.dayElement = DateItem.this.headElement.findElement(new By.
+                ById("us.moviemates:id/tv_date_picker_day"));
+            DateItem.this.monthNameElement = DateItem.this.headElement.findElement(new By.
+                ById("us.moviemates:id/tv_date_picker_month_name"));
+            // XPath workaround. Appium has bug not allowing finding ImageViews by class 
+            // name/ID within element's context.
+            DateItem.this.selectedMarkElement = new Element(DatePicker.this.platformDriver, new 
+                By.ByXPath(DateItem.this.headElementSelector + "//android.widget.ImageView[" + 
+                "@resource-id='us.moviemates:id/iv_movie_date_select' or " + 
+                "@resource-id='us.moviemates:id/iv_movie_date_active_select']"));
+            DateItem.this.activeMarkElement = new Element(DatePicker.this.platformDriver, new By.
+                ByXPath(DateItem.this.headElementSelector + "//android.widget.ImageView[" + 
+                "@resource-id='us.moviemates:id/iv_orange_background']"));
         }
 
         /**
@@ -133,21 +309,8 @@ public class DatePicker {
          * @return  Name of day.
          */
         public String getDayName() {
-            String dayName = "";
-            try {
-                DatePicker.this.driver.manage().timeouts().implicitlyWait(DatePicker.this.
-                        fastImplicitWait, TimeUnit.MILLISECONDS);
-                // android.widget.TextView[@resource-id="us.moviemates:id/tv_date_picker_day_name"]
-                dayName = DateItem.this.headElement.
-                    findElementById("us.moviemates:id/tv_date_picker_day_name").getText();
-            }
-            catch (NoSuchElementException e) {
-            }
-            finally {
-                DatePicker.this.driver.manage().timeouts().implicitlyWait(DatePicker.this.
-                    platformDriver.implicitWait, TimeUnit.MILLISECONDS);
-            }
-            return dayName;
+            String dayName = DateItem.this.dayNameElement.getText();
+            return dayName != null ? dayName : "";
         }
         
         /**
@@ -155,21 +318,7 @@ public class DatePicker {
          * @return  Number of day.
          */
         public int getDay() {
-            int day = 0;
-            try {
-                DatePicker.this.driver.manage().timeouts().implicitlyWait(DatePicker.this.
-                        fastImplicitWait, TimeUnit.MILLISECONDS);
-                // android.widget.TextView[@resource-id="us.moviemates:id/tv_date_picker_day"]
-                day = Integer.parseInt(DateItem.this.headElement.
-                    findElementById("us.moviemates:id/tv_date_picker_day").getText());
-            }
-            catch (NoSuchElementException e) {
-            }
-            finally {
-                DatePicker.this.driver.manage().timeouts().implicitlyWait(DatePicker.this.
-                    platformDriver.implicitWait, TimeUnit.MILLISECONDS);
-            }
-            return day;
+            return DatePicker.parseDay(DateItem.this.dayElement.getText());
         }
 
         /**
@@ -177,21 +326,8 @@ public class DatePicker {
          * @return  Name of month.
          */
         public String getMonthName() {
-            String monthName = "";
-            try {
-                DatePicker.this.driver.manage().timeouts().implicitlyWait(DatePicker.this.
-                        fastImplicitWait, TimeUnit.MILLISECONDS);
-                // android.widget.TextView[@resource-id="us.moviemates:id/tv_date_picker_month_name"]
-                monthName = DateItem.this.headElement.
-                    findElementById("us.moviemates:id/tv_date_picker_month_name").getText();
-            }
-            catch (NoSuchElementException e) {
-            }
-            finally {
-                DatePicker.this.driver.manage().timeouts().implicitlyWait(DatePicker.this.
-                    platformDriver.implicitWait, TimeUnit.MILLISECONDS);
-            }
-            return monthName;
+            String monthName = DateItem.this.monthNameElement.getText();
+            return monthName != null ? monthName : "";
         }
 
         /**
@@ -199,24 +335,7 @@ public class DatePicker {
          * @return  True if marked, false if not.
          */
         public boolean isSelected() {
-            boolean isSelected = false;
-            try {
-                // It's fine to shorten implicit wait time as XML tree is already populated
-                DatePicker.this.driver.manage().timeouts().implicitlyWait(DatePicker.this.
-                    fastImplicitWait, TimeUnit.MILLISECONDS);
-                // XPath workaround. Appium has bug not allowing finding ImageViews by class 
-                // name/ID within element's context.
-                DatePicker.this.driver.findElementByXPath(DateItem.this.headElementSelector + 
-                    "//android.widget.ImageView[@resource-id='us.moviemates:id/iv_movie_date_select' or @resource-id='us.moviemates:id/iv_movie_date_active_select']"); 
-                isSelected = true;
-            }
-            catch (NoSuchElementException e) {
-            }
-            finally {
-                DatePicker.this.driver.manage().timeouts().implicitlyWait(DatePicker.this.
-                    platformDriver.implicitWait, TimeUnit.MILLISECONDS);
-            }
-            return isSelected;
+            return DateItem.this.selectedMarkElement.isPresent();
         }
 
         /**
@@ -224,22 +343,7 @@ public class DatePicker {
          * @return  True if day is active, false if not.
          */
         public boolean isActive() {
-            boolean isActive = false;
-            try {
-                DatePicker.this.driver.manage().timeouts().implicitlyWait(DatePicker.this.
-                    fastImplicitWait, TimeUnit.MILLISECONDS);
-                // android.widget.ImageView[@resource-id="us.moviemates:id/iv_orange_background"]
-                DatePicker.this.driver.findElementByXPath(DateItem.this.headElementSelector + 
-                    "//android.widget.ImageView[@resource-id='us.moviemates:id/iv_orange_background']");
-                isActive = true;
-            }
-            catch (NoSuchElementException e) {
-            }
-            finally {
-                DatePicker.this.driver.manage().timeouts().implicitlyWait(DatePicker.this.
-                    platformDriver.implicitWait, TimeUnit.MILLISECONDS);
-            }
-            return isActive;
+            return DateItem.this.activeMarkElement.isPresent();
         }
 
         /**
@@ -248,11 +352,8 @@ public class DatePicker {
          * @return True if complete, false if not.
          */
         public boolean isComplete() {
-            boolean isComplete = true;
-            if (DateItem.this.getMonthName().equals("") || DateItem.this.getDayName().equals("") || DateItem.this.getDay() == 0) {
-                isComplete = false;
-            }
-            return isComplete;
+            return ! (DateItem.this.getMonthName().equals("") || DateItem.this.getDayName().
+                equals("") || DateItem.this.getDay() == 0);
         }
 
         /**
@@ -260,7 +361,7 @@ public class DatePicker {
          */
         public void select() {
             if (! DateItem.this.isSelected()) {
-                DateItem.this.headElement.tap(1, 0);
+                DateItem.this.headElement.tap();
             }
         }
     }
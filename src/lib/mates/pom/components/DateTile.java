@@ -0,0 +1,105 @@
+package lib.mates.pom.components;
+
+import java.util.Objects;
+import lib.mates.pom.snapshot.Bounds;
+
+
+/**
+ * Immutable state of date tile in visible portion of date line, captured in one query of the
+ * viewport. Unlike DatePicker.DateItem, does not refer to device and issues no commands.
+ */
+public final class DateTile {
+    // Position of tile in visible portion of line (first visible - 0)
+    private final int index;
+    private final String dayName;
+    private final int day;
+    private final String monthName;
+    private final boolean selected;
+    private final boolean active;
+    private final Bounds bounds;
+    private final boolean complete;
+
+    /**
+     * @param index  Position of tile in visible portion of line.
+     * @param dayName  Name of day, null if not rendered.
+     * @param day  Number of day, 0 if not rendered.
+     * @param monthName  Name of month, null if not rendered.
+     * @param selected  True if date is marked as having interested movies.
+     * @param active  True if date is marked active.
+     * @param bounds  Location and size of tile on screen.
+     * @param complete  True if tile is rendered completely within line.
+     */
+    public DateTile(int index, String dayName, int day, String monthName, boolean selected,
+        boolean active, Bounds bounds, boolean complete) {
+        this.index = index;
+        this.dayName = dayName;
+        this.day = day;
+        this.monthName = monthName;
+        this.selected = selected;
+        this.active = active;
+        this.bounds = bounds;
+        this.complete = complete;
+    }
+
+    public int getIndex() {
+        return this.index;
+    }
+
+    public String getDayName() {
+        return this.dayName;
+    }
+
+    public int getDay() {
+        return this.day;
+    }
+
+    public String getMonthName() {
+        return this.monthName;
+    }
+
+    public boolean isSelected() {
+        return this.selected;
+    }
+
+    public boolean isActive() {
+        return this.active;
+    }
+
+    public Bounds getBounds() {
+        return this.bounds;
+    }
+
+    /**
+     * Checks if tile is rendered completely: all texts present and bounds within date line. If
+     * only small portion of tile is on screen, its XML sub-tree is truncated.
+     * @return  True if complete, false if not.
+     */
+    public boolean isComplete() {
+        return this.complete;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof DateTile)) {
+            return false;
+        }
+        DateTile tile = (DateTile) other;
+        return this.index == tile.index && Objects.equals(this.dayName, tile.dayName) && this.
+            day == tile.day && Objects.equals(this.monthName, tile.monthName) && this.selected ==
+            tile.selected && this.active == tile.active && Objects.equals(this.bounds, tile.
+            bounds) && this.complete == tile.complete;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.index, this.dayName, this.day, this.monthName, this.selected,
+            this.active, this.bounds, this.complete);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DateTile[%d, %s, %d, %s, %b, %b, %s, %b]", this.index, this.
+            dayName, this.day, this.monthName, this.selected, this.active, this.bounds, this.
+            complete);
+    }
+}
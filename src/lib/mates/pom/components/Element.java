@@ -2,12 +2,22 @@ package lib.mates.pom.components;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
 import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriverException;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.MobileElement;
 import lib.mates.pom.PlatformDriver;
+import lib.mates.pom.locators.LocatorChain;
+import lib.mates.pom.locators.LocatorRegistry;
+import lib.mates.pom.snapshot.Bounds;
+import lib.mates.pom.snapshot.PageSnapshot;
+import lib.mates.pom.snapshot.UiTree;
+import lib.mates.pom.trace.Tracer;
 
 
 /**
@@ -20,6 +30,17 @@ public class Element {
     public AppiumDriver<? extends MobileElement> driver;
     // List of By.* locators of target element evaluated in specified order. Ex. By.ById("id_1")/By.ByClassName("classname_1")/By...
     public List<By> locators = new ArrayList<>();
+    // Chain of locators compiled into single locator; null if chain cannot be fused
+    private By fusedLocator;
+    // Set when chain has been compiled (or found unfusable)
+    private boolean isCompiled = false;
+    // Logical element of LocatorRegistry heading the chain and its arguments; its locator is 
+    // chosen on first use, then logicalName is null
+    private String logicalName;
+    private Object[] arguments;
+    // MobileElement found at UI epoch mobileElementEpoch, reused until epoch advances
+    private MobileElement mobileElement;
+    private long mobileElementEpoch = -1;
 
     /**
      * Constructs Element by specifying multiple By locators (grandparent/parent/child).  
@@ -44,26 +65,83 @@ public class Element {
     }
 
     /**
-     * Returns underlying MobileElement.
-     * @return  Instance of MobileElement.
+     * Constructs Element headed by logical element of LocatorRegistry. Locator of the fastest 
+     * strategy on device is chosen on first use rather than at construction.
+     * @param platformDriver  Instance of PlatformDriver.
+     * @param logicalName  Name of logical element (Locators.MOVIE_ITEM).
+     * @param arguments  Arguments of locator template (ex. index of item).
+     */
+    public Element(PlatformDriver platformDriver, String logicalName, Object... arguments) {
+        this.platformDriver = platformDriver;
+        this.driver = this.platformDriver.getDriver();
+        this.logicalName = logicalName;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Returns underlying MobileElement. Element found earlier is returned without lookup if no 
+     * gesture has been made since (UI epoch is the same).
+     * @return  Instance of MobileElement, null if element is not present.
      */
     public MobileElement getMobileElement() {
-        this.driver.manage().timeouts().implicitlyWait(0, TimeUnit.MILLISECONDS);
-        MobileElement parentElement;
-        try {
-            parentElement = this.driver.findElement(this.locators.get(0));
-            // Finds child element in grandparent element's context, then child in parent element's 
-            // context and vise versa down the hierarchy.
-            for (int index = 1; index < this.locators.size(); ++index) {
-                parentElement = parentElement.findElement(this.locators.get(index));
-            }
+        long uiEpoch = this.platformDriver.getUiEpoch();
+        if (this.mobileElement == null || this.mobileElementEpoch != uiEpoch) {
+            this.mobileElement = this.findMobileElement();
+            this.mobileElementEpoch = uiEpoch;
         }
-        catch (NoSuchElementException e) {
-            parentElement = null;
+        return this.mobileElement;
+    }
+
+    /**
+     * Taps element and advances UI epoch.
+     * @throws NoSuchElementException  If element is not present.
+     */
+    public void tap() {
+        Boolean tapped = this.query(element -> {
+            element.tap(1, 0);
+            return true;
+        });
+        if (tapped == null) {
+            throw new NoSuchElementException("Element not found: " + this.getLocators());
+        }
+        this.platformDriver.advanceUiEpoch();
+    }
+
+    /**
+     * Looks up underlying MobileElement on device.
+     * @return  Instance of MobileElement, null if element is not present.
+     */
+    @SuppressWarnings("try")
+    private MobileElement findMobileElement() {
+        try (Tracer.Span span = this.platformDriver.getTracer().span("Element.getMobileElement")) {
+            MobileElement parentElement;
+            try (PlatformDriver.ImplicitWait wait = this.platformDriver.withImplicitWait(0)) {
+                By fusedLocator = this.getFusedLocator();
+                if (fusedLocator != null) {
+                    try {
+                        return this.driver.findElement(fusedLocator);
+                    }
+                    catch (NoSuchElementException e) {
+                        return null;
+                    }
+                    catch (WebDriverException e) {
+                        // Fused selector is rejected by driver; walk the chain from now on
+                        this.fusedLocator = null;
+                    }
+                }
+                List<By> locators = this.getLocators();
+                parentElement = this.driver.findElement(locators.get(0));
+                // Finds child element in grandparent element's context, then child in parent 
+                // element's context and vise versa down the hierarchy.
+                for (int index = 1; index < locators.size(); ++index) {
+                    parentElement = parentElement.findElement(locators.get(index));
+                }
+            }
+            catch (NoSuchElementException e) {
+                parentElement = null;
+            }
+            return parentElement;
         }
-        this.driver.manage().timeouts().implicitlyWait(this.platformDriver.implicitWait, TimeUnit.
-            MILLISECONDS);
-        return parentElement;
     }
     
     /**
@@ -74,7 +152,7 @@ public class Element {
     public Element findElement(By locator) {
         List<By> newLocators = new ArrayList<By>(this.locators);
         newLocators.add(locator);
-        return new Element(this.platformDriver, newLocators);
+        return this.newChild(newLocators);
     }
 
     /**
@@ -85,7 +163,7 @@ public class Element {
     public Element findElement(List<By> locators) {
         List<By> newLocators = new ArrayList<By>(this.locators);
         newLocators.addAll(locators);
-        return new Element(this.platformDriver, newLocators);
+        return this.newChild(newLocators);
     }
 
     /**
@@ -93,6 +171,131 @@ public class Element {
      * @return
      */
     public boolean isPresent() {
+        if (this.isResolvedLocally()) {
+            return this.platformDriver.getSnapshot().findNode(this.getLocators()) != UiTree.NONE;
+        }
         return this.getMobileElement() != null ? true : false;
     }
+
+    /**
+     * Returns text of element.
+     * @return  Text of element, null if element is not present.
+     */
+    public String getText() {
+        String text = null;
+        if (this.isResolvedLocally()) {
+            PageSnapshot snapshot = this.platformDriver.getSnapshot();
+            int node = snapshot.findNode(this.getLocators());
+            if (node != UiTree.NONE) {
+                text = snapshot.getText(node);
+            }
+        }
+        else {
+            text = this.query(MobileElement::getText);
+        }
+        return text;
+    }
+
+    /**
+     * Returns location and size of element.
+     * @return  Bounds of element, null if element is not present.
+     */
+    public Bounds getBounds() {
+        Bounds bounds = null;
+        if (this.isResolvedLocally()) {
+            PageSnapshot snapshot = this.platformDriver.getSnapshot();
+            int node = snapshot.findNode(this.getLocators());
+            if (node != UiTree.NONE) {
+                bounds = snapshot.getBounds(node);
+            }
+        }
+        else {
+            bounds = this.query(element -> {
+                Point location = element.getLocation();
+                Dimension size = element.getSize();
+                return new Bounds(location.x, location.y, location.x + size.width, location.y + 
+                    size.height);
+            });
+        }
+        return bounds;
+    }
+
+    /**
+     * Returns value of attribute of element.
+     * @param name  Name of attribute ("selected", "checked"...).
+     * @return  Value of attribute, null if element is not present or has no such attribute.
+     */
+    public String getAttribute(String name) {
+        if (this.isResolvedLocally()) {
+            PageSnapshot snapshot = this.platformDriver.getSnapshot();
+            int node = snapshot.findNode(this.getLocators());
+            return node != UiTree.NONE ? snapshot.getAttribute(node, name) : null;
+        }
+        return this.query(element -> element.getAttribute(name));
+    }
+
+    /**
+     * Runs query on underlying MobileElement. If cached element has gone stale (screen changed 
+     * without gesture made through framework), element is looked up again and query repeated.
+     * @param query  Function of MobileElement.
+     * @return  Result of query, null if element is not present.
+     */
+    private <T> T query(Function<MobileElement, T> query) {
+        MobileElement element = this.getMobileElement();
+        if (element == null) {
+            return null;
+        }
+        try {
+            return query.apply(element);
+        }
+        catch (StaleElementReferenceException e) {
+            this.mobileElement = this.findMobileElement();
+            return this.mobileElement != null ? query.apply(this.mobileElement) : null;
+        }
+    }
+
+    /**
+     * Compiles chain of locators into single locator on first use, so that element is found in 
+     * one command instead of one command per level.
+     * @return  Fused By locator, null if element has single locator or chain cannot be fused.
+     */
+    private By getFusedLocator() {
+        if (! this.isCompiled) {
+            this.fusedLocator = LocatorChain.fuse(this.getLocators(), this.platformDriver.
+                isAndroid());
+            this.isCompiled = true;
+        }
+        return this.fusedLocator;
+    }
+
+    /**
+     * Checks if element is to be resolved against page source snapshot rather than on device.
+     * @return  True if snapshot mode is on and all locators are supported by snapshot.
+     */
+    private boolean isResolvedLocally() {
+        return this.platformDriver.isSnapshotMode() && PageSnapshot.supports(this.getLocators());
+    }
+
+    /**
+     * Returns chain of locators, choosing locator of heading logical element on first call.
+     * @return  List of hierarchical By locators.
+     */
+    private List<By> getLocators() {
+        if (this.logicalName != null) {
+            this.locators.add(0, LocatorRegistry.getInstance().get(this.platformDriver, this.
+                logicalName, this.arguments));
+            this.logicalName = null;
+        }
+        return this.locators;
+    }
+
+    /**
+     * Creates child element sharing heading logical element, if it has not been chosen yet.
+     */
+    private Element newChild(List<By> locators) {
+        Element element = new Element(this.platformDriver, locators);
+        element.logicalName = this.logicalName;
+        element.arguments = this.arguments;
+        return element;
+    }
 }
@@ -0,0 +1,88 @@
+package lib.mates.pom.components;
+
+import java.lang.reflect.Field;
+import org.openqa.selenium.By;
+import lib.mates.pom.PlatformDriver;
+
+
+/**
+ * Fills Element fields of components annotated with Locate. Creating Element issues no command, 
+ * so constructing component costs nothing on device until its elements are used.
+ */
+public class ElementFactory {
+    /**
+     * Creates Element for each field of component (and of its superclasses) annotated with 
+     * Locate. Fields already holding Element are left as they are.
+     * @param component  Instance of component (MoviePicker, TitleSection...).
+     * @param platformDriver  Tailored wrapper of AppiumDriver.
+     */
+    public static void initElements(Object component, PlatformDriver platformDriver) {
+        for (Class<?> type = component.getClass(); type != Object.class; type = type.
+            getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Locate.class)) {
+                    ElementFactory.initElement(component, field, platformDriver);
+                }
+            }
+        }
+    }
+
+    private static Element initElement(Object component, Field field, PlatformDriver 
+        platformDriver) {
+        try {
+            field.setAccessible(true);
+            Element element = (Element) field.get(component);
+            if (element == null) {
+                Locate locate = field.getAnnotation(Locate.class);
+                By locator = ElementFactory.getLocator(locate, field);
+                if (locate.in().isEmpty()) {
+                    element = new Element(platformDriver, locator);
+                }
+                else {
+                    // Parent is filled first if it is annotated itself
+                    Field parentField = ElementFactory.getField(component.getClass(), locate.in());
+                    Element parent = parentField.isAnnotationPresent(Locate.class) ? 
+                        ElementFactory.initElement(component, parentField, platformDriver) : 
+                        (Element) parentField.get(component);
+                    if (parent == null) {
+                        throw new IllegalStateException(String.format("Parent %s of %s is not " + 
+                            "defined.", locate.in(), field.getName()));
+                    }
+                    element = parent.findElement(locator);
+                }
+                field.set(component, element);
+            }
+            return element;
+        }
+        catch (IllegalAccessException | NoSuchFieldException e) {
+            throw new RuntimeException("Element field cannot be initialized: " + field.getName(), 
+                e);
+        }
+    }
+
+    private static By getLocator(Locate locate, Field field) {
+        if (! locate.id().isEmpty()) {
+            return new By.ById(locate.id());
+        }
+        if (! locate.xpath().isEmpty()) {
+            return new By.ByXPath(locate.xpath());
+        }
+        if (! locate.className().isEmpty()) {
+            return new By.ByClassName(locate.className());
+        }
+        throw new IllegalArgumentException("Locator is not given: " + field.getName());
+    }
+
+    private static Field getField(Class<?> type, String name) throws NoSuchFieldException {
+        for (; type != Object.class; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(name);
+                field.setAccessible(true);
+                return field;
+            }
+            catch (NoSuchFieldException e) {
+            }
+        }
+        throw new NoSuchFieldException(name);
+    }
+}
@@ -8,6 +8,7 @@ import org.openqa.selenium.By;
  */
 public class InfoSection extends Section {
     public Element synopsisLabel;
+    @Locate(id = "us.moviemates:id/expandable_text", in = "headElement")
     public Element synopsisText;
 
     public InfoSection(MovieDetails movieDetails) {
@@ -18,7 +19,6 @@ public class InfoSection extends Section {
         this.headElement = new Element(this.movieDetails.platformDriver, new By.ById("us.moviemates:id/llInformation"));
         this.topElement = this.headElement.findElement(new By.ById("us.moviemates:id/tvInformationTitle"));
         this.synopsisLabel = this.topElement;
-        this.synopsisText = this.headElement.findElement(new By.ById("us.moviemates:id/expandable_text"));
     }
 
     /**
@@ -26,6 +26,6 @@ public class InfoSection extends Section {
      * @return  Brief summary of movie.
      */
     public String getSynopsis() {
-        return this.synopsisText.getMobileElement().getText();
+        return this.synopsisText.getText();
     }
 }
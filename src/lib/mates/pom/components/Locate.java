@@ -0,0 +1,29 @@
+package lib.mates.pom.components;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Declares Element field of component by its locator. Fields are filled by 
+ * ElementFactory.initElements() without any command; element is looked up on first access and 
+ * reused until UI epoch advances. Exactly one of id, xpath and className is to be given.
+ * <pre>
+ * &#64;Locate(id = "us.moviemates:id/tvWatch", in = "headElement")
+ * public Element runTimeTextElement;
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Locate {
+    // Resource ID ("us.moviemates:id/tvTitle")
+    String id() default "";
+    // XPath expression
+    String xpath() default "";
+    // Class name ("android.widget.TextView")
+    String className() default "";
+    // Name of Element field of the same component to search within (parent element)
+    String in() default "";
+}
@@ -1,12 +1,12 @@
 package lib.mates.pom.components;
 
-import java.util.concurrent.TimeUnit;
-import org.openqa.selenium.By;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.MobileElement;
 import io.appium.java_client.SwipeElementDirection;
 import lib.mates.pom.PlatformDriver;
+import lib.mates.pom.trace.Tracer;
 import lib.mates.pom.utils.Scroll;
+import lib.mates.pom.utils.Waits;
 
 
 /**
@@ -16,6 +16,7 @@ public class MovieDetails {
     public PlatformDriver platformDriver;
     public AppiumDriver<? extends MobileElement> driver;
     // Frame element enclosing all details content.
+    @Locate(id = "us.moviemates:id/scrollViewContent")
     public Element contentView;
     // Single instance of title section.
     public TitleSection titleSection;
@@ -25,8 +26,7 @@ public class MovieDetails {
     public MovieDetails(PlatformDriver platformDriver) {
         this.platformDriver = platformDriver;
         this.driver = this.platformDriver.getDriver();
-        this.contentView = new Element(this.platformDriver, new By.
-            ById("us.moviemates:id/scrollViewContent"));
+        ElementFactory.initElements(this, this.platformDriver);
         this.defineSections();
     }
 
@@ -41,9 +41,18 @@ public class MovieDetails {
      * @param section  Instance of Section.*
      * @param timeout  Timeout after which to quit scroll if no section found.
      */
+    @SuppressWarnings("try")
     public void scrollToSection(Section section, int timeout) {
-        this.driver.manage().timeouts().implicitlyWait(0, TimeUnit.MILLISECONDS);
-        switch (section.getClass().getSimpleName()) {
+        try (Tracer.Span span = this.platformDriver.getTracer().span("MovieDetails.scrollToSection");
+            PlatformDriver.ImplicitWait wait = this.platformDriver.withImplicitWait(0)) {
+            new Waits(this.platformDriver).until(Waits.present(this.contentView), Waits.
+                DEFAULT_TIMEOUT);
+            this.scrollToSection(section.getClass().getSimpleName(), timeout);
+        }
+    }
+
+    private void scrollToSection(String sectionName, int timeout) {
+        switch (sectionName) {
             case "TitleSection":
                 if (this.titleSection.topElement.isPresent()) {
                     Scroll.alignElement(this.contentView, this.titleSection.topElement);
@@ -85,7 +94,5 @@ public class MovieDetails {
                 }
                 break;
         }
-        this.driver.manage().timeouts().implicitlyWait(this.platformDriver.implicitWait, TimeUnit.
-            MILLISECONDS);
     }
 }
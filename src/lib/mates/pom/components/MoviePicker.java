@@ -2,14 +2,24 @@ package lib.mates.pom.components;
 
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import org.openqa.selenium.By;
 import org.openqa.selenium.NoSuchElementException;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.MobileElement;
 import io.appium.java_client.SwipeElementDirection;
 import lib.mates.pom.PlatformDriver;
+import lib.mates.pom.SwipeProfile;
+import lib.mates.pom.locators.Locators;
+import lib.mates.pom.snapshot.Bounds;
+import lib.mates.pom.snapshot.PageSnapshot;
+import lib.mates.pom.snapshot.UiTree;
+import lib.mates.pom.snapshot.Viewport;
+import lib.mates.pom.trace.Tracer;
 import lib.mates.pom.utils.Convert;
+import lib.mates.pom.utils.UiAutomator;
+import lib.mates.pom.utils.Waits;
 
 
 /**
@@ -21,15 +31,25 @@ public class MoviePicker {
     private PlatformDriver platformDriver;
     private AppiumDriver<? extends MobileElement> driver;
     // Head element of movie list's container
-    private MobileElement pickerHeadElement;
+    @Locate(id = "us.moviemates:id/pagerAdapterFromMovies")
+    private Element pickerHeadElement;
     // XPath workaround. When possible, elements are found by resource ID, though finding 
     // ImageViews by ID gives wrong results within element's context.
     private String movieItemHeadElementSelector = 
         "//android.widget.ListView[@resource-id='us.moviemates:id/listView']/android.widget.RelativeLayout[@index=%d]";
+    // All movie rows in visible portion of list (see movieItemHeadElementSelector)
+    private String movieRowsSelector = 
+        "//android.widget.ListView[@resource-id='us.moviemates:id/listView']/android.widget.RelativeLayout";
     // Collection of movies in visible portion of list
     private ArrayList<MovieItem> movies = new ArrayList<>();
-    // Shorten wait time for better performance when applicable
-    private int fastImplicitWait = 1000;
+    // Values of movie rows in visible portion of list, as of last viewport query
+    private List<MovieRow> rows = new ArrayList<>();
+    // Location and size of movie list's container, as of last viewport query
+    private Bounds pickerBounds;
+    // Max time (milliseconds) for movie row to be rendered
+    private int renderTimeout = 1000;
+    // Max number of swipes device makes in UiScrollable search; client goes on if they run out
+    private int maxSearchSwipes = 100;
 
     /**
      * @param platformDriver  Tailored wrapper of AppiumDriver.
@@ -38,68 +58,162 @@ public class MoviePicker {
         this.platformDriver = platformDriver;
         // Instance of AndroidDriver or IOSDriver
         this.driver = platformDriver.getDriver();
-        // Populates "movies" with movie items
-        this.getMovies();
+        ElementFactory.initElements(this, platformDriver);
     }
 
     /**
      * Calls movie item builder for each movie in list and stores them as collection.
      * @return  Collection of movie items visible in movie list.
      */
+    @SuppressWarnings("try")
     public List<MovieItem> getMovies() {
-        this.movies.clear();
-        // Head element of container
-        this.pickerHeadElement = 
-            this.driver.findElementById("us.moviemates:id/pagerAdapterFromMovies");
-        // Find number of movies in visible list
-        int movieItemsNumber = 
-            this.pickerHeadElement.findElementsById("us.moviemates:id/rlItemFilm").
-            size();
-        // Build movie items
-        for (int movieItemIndex = 0; movieItemIndex < movieItemsNumber; movieItemIndex++) {
-            this.movies.add(new MovieItem(movieItemIndex));
+        try (Tracer.Span span = this.platformDriver.getTracer().span("MoviePicker.getMovies")) {
+            this.movies.clear();
+            // Head element of container
+            new Waits(this.platformDriver).until(Waits.present(this.pickerHeadElement), Waits.
+                DEFAULT_TIMEOUT);
+            MobileElement pickerElement = this.pickerHeadElement.getMobileElement();
+            if (pickerElement == null) {
+                throw new NoSuchElementException("Movie list not found.");
+            }
+            // Find number of movies in visible list
+            int movieItemsNumber = 
+                pickerElement.findElementsById("us.moviemates:id/rlItemFilm").size();
+            // Build movie items
+            for (int movieItemIndex = 0; movieItemIndex < movieItemsNumber; movieItemIndex++) {
+                this.movies.add(new MovieItem(movieItemIndex));
+            }
+            return this.movies;
         }
-        return this.movies;
     }
 
-    public MovieItem findMovie(String name) {
-        String firstMovieName = "";
-        String movieName;
-        while (true) {
-            this.scrollDown(3);
-            movieName = new MovieItem(0).getTitle();
-            if (movieName.equals(firstMovieName)) {
-                break;
+    /**
+     * Reads values of all movie rows in visible portion of list by one query of the viewport 
+     * (page source snapshot).
+     * @return  Collection of movie rows, top to bottom.
+     */
+    @SuppressWarnings("try")
+    public List<MovieRow> getMovieRows() {
+        try (Tracer.Span span = this.platformDriver.getTracer().span("MoviePicker.getMovieRows")) {
+            new Waits(this.platformDriver).until(Waits.present(this.pickerHeadElement), Waits.
+                DEFAULT_TIMEOUT);
+            PageSnapshot snapshot = this.platformDriver.getSnapshot();
+            List<MovieRow> rows = new ArrayList<>();
+            int pickerNode = snapshot.findNode(Arrays.<By>asList(new By.
+                ById("us.moviemates:id/pagerAdapterFromMovies")));
+            if (pickerNode == UiTree.NONE) {
+                throw new NoSuchElementException("Movie list not found.");
             }
-            else {
-                firstMovieName = movieName;
+            this.pickerBounds = snapshot.getBounds(pickerNode);
+            for (int rowNode : snapshot.evaluate(this.movieRowsSelector)) {
+                String title = this.getRowText(snapshot, rowNode, "us.moviemates:id/tvTitle");
+                String runTimeText = this.getRowText(snapshot, rowNode, 
+                    "us.moviemates:id/tvRunTime");
+                String peopleCountText = this.getRowText(snapshot, rowNode, 
+                    "us.moviemates:id/tvPeopleCount");
+                boolean interested = snapshot.findNodes(rowNode, new By.
+                    ById("us.moviemates:id/ivShadow")).length > 0;
+                rows.add(new MovieRow(Integer.parseInt(snapshot.getAttribute(rowNode, 
+                    "index")), title, runTimeText != null ? Convert.parseRunTime(runTimeText) : 
+                    null, peopleCountText != null ? Convert.parsePeopleCount(peopleCountText) : 0, 
+                    interested, snapshot.getBounds(rowNode)));
             }
+            this.rows = rows;
+            return rows;
         }
-        List<MovieItem> movies;
-        String lastMovieName = "";
-        MovieItem result = null;
-        while (true) {
-            movies = this.getMovies();
-            for (MovieItem movie : movies) {
-                if (movie.getTitle().toUpperCase().contains(name.toUpperCase())) {
-                    result = movie;
-                    break;
+    }
+
+    /**
+     * Scrolls list to the top, then downward until movie with specified name is visible. On 
+     * Android, scrolling is done by device in single UiScrollable command; if device stops 
+     * before end of list or its match is not confirmed, client goes on from where device has 
+     * stopped. On iOS, or if the command fails, list is scrolled by client.
+     * @param name  Name of movie, full or partial.
+     * @return  Instance of MovieItem if movie found, null if not.
+     */
+    @SuppressWarnings("try")
+    public MovieItem findMovie(String name) {
+        try (Tracer.Span span = this.platformDriver.getTracer().span("MoviePicker.findMovie")) {
+            if (this.platformDriver.isAndroid()) {
+                String expression = UiAutomator.scrollIntoView("us.moviemates:id/listView", 
+                    "us.moviemates:id/tvTitle", name, this.maxSearchSwipes);
+                // Device has scrolled from the top, so target is not above where it has stopped
+                if (UiAutomator.search(this.platformDriver, expression) != UiAutomator.
+                    SearchResult.FAILED) {
+                    return this.searchDownward(name);
                 }
             }
-            if (result != null) {
-                break;
-            }
-            else {
-                if (movies.get(movies.size() - 1).getTitle().equals(lastMovieName)) {
-                    break;
-                }
-                else {
-                    lastMovieName = movies.get(movies.size() - 1).getTitle();
-                    this.scrollUp(3);
+            return this.findMovieByClient(name);
+        }
+    }
+
+    /**
+     * Scrolls list by client to the top, then downward until movie with specified name is 
+     * visible.
+     * @param name  Name of movie, full or partial.
+     * @return  Instance of MovieItem if movie found, null if not.
+     */
+    private MovieItem findMovieByClient(String name) {
+        // Rewind list to the top
+        List<MovieRow> rows = this.getMovieRows();
+        Viewport viewport = this.getViewport();
+        boolean isAtEnd = false;
+        while (!rows.isEmpty() && !isAtEnd) {
+            int distance = this.scroll(SwipeElementDirection.DOWN, 3);
+            rows = this.getMovieRows();
+            Viewport nextViewport = this.getViewport();
+            isAtEnd = nextViewport.isAtEnd(viewport, distance);
+            viewport = nextViewport;
+        }
+        return this.searchDownward(name);
+    }
+
+    /**
+     * Scrolls list by client downward from its current position until movie with specified name 
+     * is visible. Movie titles are compared using values of rows, one viewport query per scroll. 
+     * End of list is detected from the same query: swipe that moves list less than requested has 
+     * reached it, so no confirming swipe is made.
+     * @param name  Name of movie, full or partial.
+     * @return  Instance of MovieItem if movie found, null if bottom is reached without it.
+     */
+    private MovieItem searchDownward(String name) {
+        List<MovieRow> rows = this.getMovieRows();
+        Viewport viewport = this.getViewport();
+        boolean isAtEnd = false;
+        while (!rows.isEmpty()) {
+            for (MovieRow row : rows) {
+                if (row.matches(name)) {
+                    return new MovieItem(row.getIndex());
                 }
             }
+            if (isAtEnd) {
+                break;
+            }
+            int distance = this.scroll(SwipeElementDirection.UP, 3);
+            rows = this.getMovieRows();
+            Viewport nextViewport = this.getViewport();
+            isAtEnd = nextViewport.isAtEnd(viewport, distance);
+            viewport = nextViewport;
         }
-        return result;
+        return null;
+    }
+
+    /**
+     * Captures fingerprint of visible portion of list from the snapshot rows are read from.
+     * @return  Instance of Viewport.
+     */
+    private Viewport getViewport() {
+        return Viewport.capture(this.platformDriver.getSnapshot(), Arrays.<By>asList(new By.
+            ById("us.moviemates:id/pagerAdapterFromMovies")));
+    }
+
+    /**
+     * Returns text of row's child element found by resource ID.
+     * @return  Text of element, null if element is not rendered.
+     */
+    private String getRowText(PageSnapshot snapshot, int rowNode, String id) {
+        int[] nodes = snapshot.findNodes(rowNode, new By.ById(id));
+        return nodes.length == 0 ? null : snapshot.getText(nodes[0]);
     }
 
     /**
@@ -122,33 +236,45 @@ public class MoviePicker {
      * Swipes list of movies in specified direction
      * @param direction  UP or DOWN
      * @param steps  Swipe distance measured in number of movie items (rows)
+     * @return  Distance (pixels) content is asked to move.
      */
-    private void scroll(SwipeElementDirection direction, int steps) {
-        // Do not exceed number of visible movies
-        if (steps <= this.movies.size() - 1) {
-            int centerY = this.pickerHeadElement.getCenter().y;
-            // Obtain height of one movie row
-            int movieItemHeight = this.movies.get(1).headElement.getSize().height;
-            int startY;
-            int endY;
-            if (direction == SwipeElementDirection.UP) {
-                // Move starting point half-way down from list's center
-                startY = centerY + (movieItemHeight * steps / 2);
-                // Swipe ends at half-way up from center
-                endY = startY - (movieItemHeight * steps);
+    @SuppressWarnings("try")
+    private int scroll(SwipeElementDirection direction, int steps) {
+        try (Tracer.Span span = this.platformDriver.getTracer().span("MoviePicker.scroll")) {
+            if (this.pickerBounds == null) {
+                this.getMovieRows();
+            }
+            // Do not exceed number of visible movies
+            if (steps <= this.rows.size() - 1) {
+                int centerY = this.pickerBounds.getCenterY();
+                // Obtain height of one movie row
+                int movieItemHeight = this.rows.get(1).getBounds().getHeight();
+                SwipeProfile swipeProfile = this.platformDriver.getSwipeProfile();
+                int distance = swipeProfile.getSwipeDistance(movieItemHeight * steps);
+                int startY;
+                int endY;
+                if (direction == SwipeElementDirection.UP) {
+                    // Move starting point half-way down from list's center
+                    startY = centerY + (distance / 2);
+                    // Swipe ends at half-way up from center
+                    endY = startY - distance;
+                }
+                else {
+                    startY = centerY - (distance / 2);
+                    endY = startY + distance;
+                }
+                int startX = this.pickerBounds.getCenterX();
+                this.driver.swipe(startX, startY, startX, endY, swipeProfile.getDuration(distance, 
+                    500 * steps));
+                this.platformDriver.advanceUiEpoch();
+                // Rows have been changed; they are re-read on next query of the viewport
+                this.pickerBounds = null;
+                return movieItemHeight * steps;
             }
             else {
-                startY = centerY - (movieItemHeight * steps / 2);
-                endY = startY + (movieItemHeight * steps);
+                throw new IndexOutOfBoundsException(String.format("Scroll cannot exceed %d steps.", 
+                    this.rows.size() - 1));
             }
-            int startX = this.pickerHeadElement.getCenter().x;
-            this.driver.swipe(startX, startY, startX, endY, 500 * steps);
-            // Update list of movies as they have been changed
-            this.getMovies();
-        }
-        else {
-            throw new IndexOutOfBoundsException(String.format("Scroll cannot exceed %d steps.", 
-                this.movies.size() - 1));
         }
     }
 
@@ -160,7 +286,17 @@ public class MoviePicker {
     public class MovieItem {
         // android.widget.RelativeLayout[@resource-id="us.moviemates:id/rlItemFilm"]
         private String headElementSelector;
-        private MobileElement headElement;
+        private Element headElement;
+        // android.widget.TextView[@resource-id="us.moviemates:id/tvTitle"]
+        private Element titleElement;
+        // android.widget.TextView[@resource-id="us.moviemates:id/tvRunTime"]
+        private Element runTimeElement;
+        // android.widget.TextView[@resource-id="us.moviemates:id/tvPeopleCount"]
+        private Element peopleCountElement;
+        // android.widget.ToggleButton[@resource-id="us.moviemates:id/tbButtonInterested"]
+        private Element interestedButtonElement;
+        // android.widget.ImageView[@resource-id="us.moviemates:id/ivShadow"]
+        private Element shadowElement;
         
         /**
          * @param movieItemIndex  Index of movie in list (first - 0).
@@ -169,8 +305,22 @@ public class MoviePicker {
             // Ex. android.widget.RelativeLayout[@index=0]
             MovieItem.this.headElementSelector = String.format(MoviePicker.this.
                 movieItemHeadElementSelector, movieItemIndex);
-            MovieItem.this.headElement = MoviePicker.this.driver.findElementByXPath(MovieItem.this.
-                headElementSelector);
+            // Fastest of equivalent locators on this device, chosen on first use
+            MovieItem.this.headElement = new Element(MoviePicker.this.platformDriver, Locators.
+                MOVIE_ITEM, movieItemIndex);
+            MovieItem.this.titleElement = MovieItem.this.headElement.findElement(new By.
+                ById("us.moviemates:id/tvTitle"));
+            MovieItem.this.runTimeElement = MovieItem.this.headElement.findElement(new By.
+                ById("us.moviemates:id/tvRunTime"));
+            MovieItem.this.peopleCountElement = MovieItem.this.headElement.findElement(new By.
+                ById("us.moviemates:id/tvPeopleCount"));
+            MovieItem.this.interestedButtonElement = MovieItem.this.headElement.findElement(new 
+                By.ById("us.moviemates:id/tbButtonInterested"));
+            // XPath workaround. Appium has bug not allowing finding ImageViews by class 
+            // name/ID within element's context.
+            MovieItem.this.shadowElement = new Element(MoviePicker.this.platformDriver, new By.
+                ByXPath(MovieItem.this.headElementSelector + 
+                "//android.widget.ImageView[@resource-id='us.moviemates:id/ivShadow']"));
         }
 
         /**
@@ -178,15 +328,7 @@ public class MoviePicker {
          * @return  Movie title.
          */
         public String getTitle() {
-            String title = null;
-            try {
-                // android.widget.TextView[@resource-id="us.moviemates:id/tvTitle"]
-                title = MovieItem.this.headElement.findElementById("us.moviemates:id/tvTitle").
-                    getText();
-            }
-            catch (NoSuchElementException e) {
-            }
-            return title;
+            return MovieItem.this.titleElement.getText();
         }
 
         /**
@@ -194,16 +336,8 @@ public class MoviePicker {
          * @return  Hours (.getHour()) and minutes (.getMinute()).
          */
         public LocalTime getRunTime() {
-            LocalTime runTime = null;
-            try {
-                // android.widget.TextView[@resource-id="us.moviemates:id/tvRunTime"]
-                String elementText = MovieItem.this.headElement.
-                    findElementById("us.moviemates:id/tvRunTime").getText();
-                runTime = Convert.parseRunTime(elementText);
-            }
-            catch (NoSuchElementException e) {
-            }
-            return runTime;
+            String elementText = MovieItem.this.runTimeElement.getText();
+            return elementText != null ? Convert.parseRunTime(elementText) : null;
         }
 
         /**
@@ -211,50 +345,31 @@ public class MoviePicker {
          * @return  Number of people.
          */
         public int getPeopleCount() {
-            int peopleCount = 0;
-            try {
-                // android.widget.TextView[@resource-id="us.moviemates:id/tvPeopleCount"]
-                String elementText = MovieItem.this.headElement.
-                    findElementById("us.moviemates:id/tvPeopleCount").getText();
-                peopleCount = Convert.parsePeopleCount(elementText);
-            }
-            catch (NoSuchElementException e) {
-            }
-            return peopleCount;
+            String elementText = MovieItem.this.peopleCountElement.getText();
+            return elementText != null ? Convert.parsePeopleCount(elementText) : 0;
         }
 
         /**
          * Checks if movie is marked as Interested.
          * @return  True if interested, false if not.
          */
+        @SuppressWarnings("try")
         public boolean isInterested() {
-            boolean isInterested = false;
-            try {
-                // Element marking interest may be found or may not, it's not expected to be.
-                // At this point XML tree is fully rendered, so it's fine to decrease implicit wait 
-                // time for better performance.
-                MoviePicker.this.driver.manage().timeouts().implicitlyWait(MoviePicker.this.
-                    fastImplicitWait, TimeUnit.MILLISECONDS);
-                // XPath workaround. Appium has bug not allowing finding ImageViews by class 
-                // name/ID within element's context.
-                MoviePicker.this.driver.findElementByXPath(MovieItem.this.headElementSelector + 
-                "//android.widget.ImageView[@resource-id='us.moviemates:id/ivShadow']");
-                isInterested = true;
-            }
-            catch (NoSuchElementException e) {
-            }
-            finally {
-                MoviePicker.this.driver.manage().timeouts().implicitlyWait(MoviePicker.this.
-                    platformDriver.implicitWait, TimeUnit.MILLISECONDS);
+            try (Tracer.Span span = MoviePicker.this.platformDriver.getTracer().
+                span("MovieItem.isInterested")) {
+                // Element marking interest may be found or may not, it's not expected to be. 
+                // Answer is known as soon as either the mark or the row without it is on screen.
+                return new Waits(MoviePicker.this.platformDriver).untilFirst(MoviePicker.this.
+                    renderTimeout, Waits.present(MovieItem.this.shadowElement), Waits.present(
+                    MovieItem.this.headElement)) == 0;
             }
-            return isInterested;
         }
 
         /**
          * Opens movie details page by tapping on movie.
          */
         public void select() {
-            MovieItem.this.headElement.tap(1, 0);
+            MovieItem.this.headElement.tap();
         }
 
         /**
@@ -274,9 +389,7 @@ public class MoviePicker {
         private void switchInterest(boolean state) {
             // Perform action only if actual interest state is opposite to required
             if (state != MovieItem.this.isInterested()) {
-                // android.widget.ToggleButton[@resource-id="us.moviemates:id/tbButtonInterested"]
-                MovieItem.this.headElement.findElementById("us.moviemates:id/tbButtonInterested").
-                    tap(1, 0);
+                MovieItem.this.interestedButtonElement.tap();
             }
         }
     }
@@ -0,0 +1,94 @@
+package lib.mates.pom.components;
+
+import java.time.LocalTime;
+import java.util.Objects;
+import lib.mates.pom.snapshot.Bounds;
+
+
+/**
+ * Immutable state of movie row in visible portion of movie list, captured in one query of the
+ * viewport. Unlike MoviePicker.MovieItem, does not refer to device and issues no commands.
+ */
+public final class MovieRow {
+    // Value of @index attribute of row within list (first visible - 0)
+    private final int index;
+    private final String title;
+    private final LocalTime runTime;
+    private final int peopleCount;
+    private final boolean interested;
+    private final Bounds bounds;
+
+    /**
+     * @param index  Index of row in visible portion of list.
+     * @param title  Movie title, null if row is rendered partially.
+     * @param runTime  Run time of movie, null if not shown.
+     * @param peopleCount  Number of people interested in movie.
+     * @param interested  True if movie is marked as interested.
+     * @param bounds  Location and size of row on screen.
+     */
+    public MovieRow(int index, String title, LocalTime runTime, int peopleCount, boolean
+        interested, Bounds bounds) {
+        this.index = index;
+        this.title = title;
+        this.runTime = runTime;
+        this.peopleCount = peopleCount;
+        this.interested = interested;
+        this.bounds = bounds;
+    }
+
+    public int getIndex() {
+        return this.index;
+    }
+
+    public String getTitle() {
+        return this.title;
+    }
+
+    public LocalTime getRunTime() {
+        return this.runTime;
+    }
+
+    public int getPeopleCount() {
+        return this.peopleCount;
+    }
+
+    public boolean isInterested() {
+        return this.interested;
+    }
+
+    public Bounds getBounds() {
+        return this.bounds;
+    }
+
+    /**
+     * Checks if title of movie contains given name, case insensitive.
+     * @param name  Movie name, full or partial.
+     * @return  True if title matches, false if not or row has no title.
+     */
+    public boolean matches(String name) {
+        return this.title != null && this.title.toUpperCase().contains(name.toUpperCase());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof MovieRow)) {
+            return false;
+        }
+        MovieRow row = (MovieRow) other;
+        return this.index == row.index && Objects.equals(this.title, row.title) && Objects.
+            equals(this.runTime, row.runTime) && this.peopleCount == row.peopleCount && this.
+            interested == row.interested && Objects.equals(this.bounds, row.bounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.index, this.title, this.runTime, this.peopleCount, this.
+            interested, this.bounds);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MovieRow[%d, %s, %s, %d, %b, %s]", this.index, this.title, this.
+            runTime, this.peopleCount, this.interested, this.bounds);
+    }
+}
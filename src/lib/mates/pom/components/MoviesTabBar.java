@@ -1,8 +1,10 @@
 package lib.mates.pom.components;
 
+import org.openqa.selenium.By;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.MobileElement;
 import lib.mates.pom.PlatformDriver;
+import lib.mates.pom.locators.Locators;
 
 
 /**
@@ -14,7 +16,9 @@ public class MoviesTabBar {
     private PlatformDriver platformDriver;
     private AppiumDriver<? extends MobileElement> driver;
     // Tab "Profile"
-    public MobileElement profileTab;
+    // android.widget.Button[@resource-id="us.moviemates:id/btnHamburger"]
+    @Locate(id = "us.moviemates:id/llHamburger")
+    public Element profileTab;
     // Tab "Movies"
     public TabItem moviesTab;
     // Tab "Mates"
@@ -29,11 +33,10 @@ public class MoviesTabBar {
         MoviesTabBar.this.platformDriver = platformDriver;
         // Instance of AndroidDriver or IOSDriver
         MoviesTabBar.this.driver = MoviesTabBar.this.platformDriver.getDriver();
-        // android.widget.Button[@resource-id="us.moviemates:id/btnHamburger"]
-        MoviesTabBar.this.profileTab = MoviesTabBar.this.driver.findElementById("us.moviemates:id/llHamburger");
-        MoviesTabBar.this.moviesTab = new TabItem(0);
-        MoviesTabBar.this.matesTab = new TabItem(1);
-        MoviesTabBar.this.chatsTab = new TabItem(2);
+        ElementFactory.initElements(MoviesTabBar.this, platformDriver);
+        MoviesTabBar.this.moviesTab = new TabItem(0, "Movies");
+        MoviesTabBar.this.matesTab = new TabItem(1, "Mates");
+        MoviesTabBar.this.chatsTab = new TabItem(2, "Chats");
     }
     
 
@@ -43,22 +46,27 @@ public class MoviesTabBar {
      */
     public class TabItem {
         // android.support.v7.app.ActionBar$Tab[@index=0]
-        private MobileElement headElement;
-        private MobileElement textElement;
+        private Element headElement;
+        private Element textElement;
 
-        public TabItem(int index) {
-            TabItem.this.headElement = MoviesTabBar.this.driver.findElementByXPath(String.
-                format("//android.support.v7.app.ActionBar.Tab[@index=%d]", index));
+        /**
+         * @param index  Index of tab (first - 0).
+         * @param title  Title of tab, which is its accessibility ID where app sets one.
+         */
+        public TabItem(int index, String title) {
+            // Fastest of equivalent locators on this device, chosen on first use
+            TabItem.this.headElement = new Element(MoviesTabBar.this.platformDriver, Locators.
+                TAB_ITEM, index, title);
             // android.widget.TextView[@resource-id="us.moviemates:id/tvTitle"]
-            TabItem.this.textElement = this.headElement.
-                findElementById("us.moviemates:id/tvTitle");
+            TabItem.this.textElement = this.headElement.findElement(new By.
+                ById("us.moviemates:id/tvTitle"));
         }
 
         /**
          * Selects tab by tapping on it.
          */
         public void select() {
-            TabItem.this.headElement.tap(1, 0);
+            TabItem.this.headElement.tap();
         }
 
         /**
@@ -66,7 +74,7 @@ public class MoviesTabBar {
          * @return  True if active, false if not.
          */
         public boolean isActive() {
-            return TabItem.this.headElement.getAttribute("selected").equals("true") ? true : false;
+            return "true".equals(TabItem.this.headElement.getAttribute("selected"));
         }
 
         /**
@@ -14,6 +14,8 @@ public abstract class Section {
     public Section(MovieDetails movieDetails) {
         this.movieDetails = movieDetails;
         this.defineElements();
+        // Fields left undefined by defineElements() are declared with Locate
+        ElementFactory.initElements(this, movieDetails.platformDriver);
     }
 
     protected abstract void defineElements();
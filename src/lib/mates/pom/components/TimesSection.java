@@ -2,13 +2,17 @@ package lib.mates.pom.components;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
-import java.util.concurrent.TimeUnit;
 import org.openqa.selenium.By;
 import org.openqa.selenium.NoSuchElementException;
-import io.appium.java_client.MobileElement;
 import io.appium.java_client.SwipeElementDirection;
+import lib.mates.pom.PlatformDriver;
+import lib.mates.pom.snapshot.Bounds;
+import lib.mates.pom.snapshot.PageSnapshot;
+import lib.mates.pom.snapshot.Viewport;
+import lib.mates.pom.trace.Tracer;
 import lib.mates.pom.utils.Scroll;
+import lib.mates.pom.utils.UiAutomator;
+import lib.mates.pom.utils.Waits;
 
 
 /**
@@ -17,6 +21,8 @@ import lib.mates.pom.utils.Scroll;
  */
 public class TimesSection extends Section {
     public Element titleTextElement;
+    // Max number of swipes device makes in UiScrollable search; client goes on if they run out
+    private int maxSearchSwipes = 50;
 
     public TimesSection(MovieDetails movieDetails) {
         super(movieDetails);
@@ -33,81 +39,110 @@ public class TimesSection extends Section {
      * @return  Text of section header.
      */
     public String getHeader() {
-        return this.topElement.getMobileElement().getText();
+        return this.topElement.getText();
     }
 
     /**
-     * Scrolls to specified theater among those showing the movie.
-     * @param name  Name of theater, full or partial.
-     * @param timeout  Timeout after which to quit scroll if theater not found.
-     * @return  Instance of Cinema if theater found, null if not.
+     * Reads cards of all theaters in visible portion of section by one query of the viewport 
+     * (page source snapshot).
+     * @return  Collection of theaters, top to bottom.
      */
-    public Cinema findCinema(String name, int timeout) {
-        Cinema result = null;
-        // Used to stop scrolling when last cinema in list is found.
-        String lastName = "";
-        boolean elementAligned = false;
-        long startTime = System.currentTimeMillis();
-        while ((System.currentTimeMillis() - startTime) / 1000 < timeout) {
-            // Iterate over all cinemas shown on on movie details page at the moment.
-            List<MobileElement> cinemas = new ArrayList<>();
-            List<MobileElement> cinemaNames = new ArrayList<>();
-            // Ugly workaround due to bug in Appium (finding within element context)
-            for (int index = 1; index < Integer.MAX_VALUE; index++) {
-                try {
-                    this.movieDetails.driver.manage().timeouts().implicitlyWait(0, TimeUnit.MILLISECONDS);
-                    cinemas.add(this.movieDetails.driver.findElementByXPath(String.
-                        format("//android.widget.LinearLayout[@resource-id='us.moviemates:id/rlBigLayout'][%d]//android.widget.RelativeLayout[@resource-id='us.moviemates:id/rlCard']", 
-                        index)));
-                    try {
-                        cinemaNames.add(this.movieDetails.driver.findElementByXPath(String.
-                            format("//android.widget.LinearLayout[@resource-id='us.moviemates:id/rlBigLayout'][%d]//android.widget.TextView[@resource-id='us.moviemates:id/tvAddress']", 
-                            index)));
-                    }
-                    catch (NoSuchElementException e) {
-                        cinemaNames.add(null);
-                    }
+    @SuppressWarnings("try")
+    public List<Cinema> getCinemas() {
+        try (Tracer.Span span = this.movieDetails.platformDriver.getTracer().
+            span("TimesSection.getCinemas")) {
+            PlatformDriver platformDriver = this.movieDetails.platformDriver;
+            new Waits(platformDriver).until(Waits.present(this.headElement), Waits.
+                DEFAULT_TIMEOUT);
+            PageSnapshot snapshot = platformDriver.getSnapshot();
+            List<Cinema> cinemas = new ArrayList<>();
+            // android.widget.RelativeLayout[@resource-id="us.moviemates:id/rlCard"]
+            for (int cardNode : snapshot.findNodes(new By.ById("us.moviemates:id/rlCard"))) {
+                String name = null;
+                Bounds nameBounds = null;
+                int[] nameNodes = snapshot.findNodes(cardNode, new By.
+                    ById("us.moviemates:id/tvAddress"));
+                if (nameNodes.length > 0) {
+                    name = snapshot.getText(nameNodes[0]);
+                    nameBounds = snapshot.getBounds(nameNodes[0]);
                 }
-                catch (NoSuchElementException e) {
-                    break;
+                List<String> times = new ArrayList<>();
+                List<Bounds> timeBounds = new ArrayList<>();
+                for (int timeNode : snapshot.findNodes(cardNode, new By.
+                    ById("us.moviemates:id/tvTime"))) {
+                    times.add(snapshot.getText(timeNode));
+                    timeBounds.add(snapshot.getBounds(timeNode));
                 }
+                cinemas.add(new Cinema(platformDriver, name, snapshot.getBounds(cardNode), 
+                    nameBounds, times, timeBounds));
             }
-            if (cinemas.isEmpty()) {
-                throw new NoSuchElementException("Cinema elements not found.");
+            return cinemas;
+        }
+    }
+
+    /**
+     * Scrolls to specified theater among those showing the movie. Theater is aligned with top 
+     * border of screen. On Android, device first scrolls to the theater by single UiScrollable 
+     * command; whether it has stopped at the theater, at end of page or after its max number of 
+     * swipes, client goes on from there and confirms either the theater or end of page.
+     * @param name  Name of theater, full or partial.
+     * @param timeout  Timeout (seconds) after which to quit scroll if theater not found; search 
+     *     by device counts towards it.
+     * @return  Instance of Cinema if theater found, null if not.
+     */
+    @SuppressWarnings("try")
+    public Cinema findCinema(String name, int timeout) {
+        try (Tracer.Span span = this.movieDetails.platformDriver.getTracer().
+            span("TimesSection.findCinema")) {
+            long startTime = System.currentTimeMillis();
+            if (this.movieDetails.platformDriver.isAndroid()) {
+                // Outcome is not needed, as client goes on downward from where device has 
+                // stopped: on FOUND the card is on screen, on NOT_FOUND cards above have been 
+                // checked by device, on FAILED content is still where locate() has put it
+                UiAutomator.search(this.movieDetails.platformDriver, UiAutomator.scrollIntoView(
+                    "us.moviemates:id/scrollViewContent", "us.moviemates:id/tvAddress", name, 
+                    this.maxSearchSwipes));
             }
-            String cinemaName = "";
-            Random randomSet = new Random();
-            for (int index = 0; index < cinemas.size(); index++) {
-                if (cinemaNames.get(index) != null) {
-                    cinemaName = cinemaNames.get(index).getText().toLowerCase();
+            boolean elementAligned = false;
+            // Viewport before last swipe and length of the swipe, to detect bottom of content
+            Viewport viewport = null;
+            int distance = 0;
+            while (true) {
+                List<Cinema> cinemas = this.getCinemas();
+                if (cinemas.isEmpty()) {
+                    throw new NoSuchElementException("Cinema elements not found.");
                 }
-                else {
-                    cinemaName = Integer.toString(randomSet.nextInt());
-                }
-                // If name of the cinema found 
-                if (cinemaName.contains(name.toLowerCase())) {
-                    if (! elementAligned) {
-                        // Adjust cinema element on screen with top border
-                        Scroll.alignElement(this.movieDetails.contentView, cinemas.get(index));
-                        elementAligned = true;
+                Cinema match = null;
+                for (Cinema cinema : cinemas) {
+                    if (cinema.matches(name)) {
+                        match = cinema;
+                        break;
                     }
-                    else {
-                        result = new Cinema(cinemas.get(index));
+                }
+                if (match != null) {
+                    int contentTop = this.movieDetails.contentView.getBounds().getTop();
+                    if (elementAligned || match.getBounds().getTop() == contentTop) {
+                        return match;
                     }
-                    break;
+                    // Adjust cinema element on screen with top border, then read it again 
+                    // whatever time is left: theater has been found
+                    Scroll.alignElement(this.movieDetails.contentView, match.getBounds());
+                    elementAligned = true;
+                    continue;
                 }
-            }
-            // If cinema is found or scroll has reached bottom
-            if ((result != null) || (lastName.equals(cinemaName))) {
-                break;
-            }
-            if (! elementAligned) {
-                lastName = cinemaName;
-                Scroll.scrollHalfScreen(this.movieDetails.contentView, SwipeElementDirection.UP);
+                if (elementAligned || (System.currentTimeMillis() - startTime) / 1000 >= 
+                    timeout) {
+                    return null;
+                }
+                // Scroll has reached bottom: last swipe moved content less than requested
+                Viewport nextViewport = Scroll.getViewport(this.movieDetails.contentView);
+                if (viewport != null && nextViewport.isAtEnd(viewport, distance)) {
+                    return null;
+                }
+                viewport = nextViewport;
+                distance = Scroll.scrollHalfScreen(this.movieDetails.contentView, 
+                    SwipeElementDirection.UP);
             }
         }
-        this.movieDetails.driver.manage().timeouts().implicitlyWait(this.movieDetails.
-            platformDriver.implicitWait, TimeUnit.MILLISECONDS);
-        return result;
     }
 }
@@ -10,11 +10,19 @@ import lib.mates.pom.utils.Convert;
  */
 public class TitleSection extends Section {
     public Element titleTextElement;
+    @Locate(id = "us.moviemates:id/tvWatch", in = "headElement")
     public Element runTimeTextElement;
+    @Locate(id = "us.moviemates:id/tvPeopleCount", in = "headElement")
     public Element peopleCountTextElement;
+    @Locate(id = "us.moviemates:id/tvActors", in = "headElement")
     public Element actorsTextElement;
+    @Locate(id = "us.moviemates:id/tvButtonTitle", in = "headElement")
     public Element interestedTextElement;
+    @Locate(id = "us.moviemates:id/ibInterested", in = "headElement")
     public Element interestedButtonElement;
+    // Shadow shown over poster of movie marked as interested
+    @Locate(id = "us.moviemates:id/ivShadowInterested", in = "headElement")
+    private Element interestedShadowElement;
 
     public TitleSection(MovieDetails movieDetails) {
         super(movieDetails);
@@ -24,11 +32,6 @@ public class TitleSection extends Section {
         this.headElement = new Element(this.movieDetails.platformDriver, new By.ById("us.moviemates:id/rlContentMovieDetails"));
         this.topElement = this.headElement.findElement(new By.ById("us.moviemates:id/tvTitleFilm"));
         this.titleTextElement = this.topElement;
-        this.runTimeTextElement = this.headElement.findElement(new By.ById("us.moviemates:id/tvWatch"));
-        this.peopleCountTextElement = this.headElement.findElement(new By.ById("us.moviemates:id/tvPeopleCount"));
-        this.actorsTextElement = this.headElement.findElement(new By.ById("us.moviemates:id/tvActors"));
-        this.interestedTextElement = this.headElement.findElement(new By.ById("us.moviemates:id/tvButtonTitle"));
-        this.interestedButtonElement = this.headElement.findElement(new By.ById("us.moviemates:id/ibInterested"));
     }
 
     /**
@@ -36,7 +39,7 @@ public class TitleSection extends Section {
      * @return  Movie name.
      */
     public String getTitle() {
-        return this.titleTextElement.getMobileElement().getText();
+        return this.titleTextElement.getText();
     }
 
     /**
@@ -45,7 +48,7 @@ public class TitleSection extends Section {
      */
     public LocalTime getRunTime() {
         // android.widget.TextView[@resource-id="us.moviemates:id/tvWatch"]
-        String elementText = this.runTimeTextElement.getMobileElement().getText();
+        String elementText = this.runTimeTextElement.getText();
         return Convert.parseRunTime(elementText);
     }
 
@@ -55,7 +58,7 @@ public class TitleSection extends Section {
      */
     public int getPeopleCount() {
         // android.widget.TextView[@resource-id="us.moviemates:id/tvPeopleCount"]
-        String elementText = this.peopleCountTextElement.getMobileElement().getText();
+        String elementText = this.peopleCountTextElement.getText();
         return Convert.parsePeopleCount(elementText);
     }
 
@@ -65,7 +68,7 @@ public class TitleSection extends Section {
      */
     public String getActors() {
         // android.widget.TextView[@resource-id="us.moviemates:id/tvActors"]
-        return this.actorsTextElement.getMobileElement().getText();
+        return this.actorsTextElement.getText();
     }
 
     /**
@@ -74,7 +77,7 @@ public class TitleSection extends Section {
      */
     public boolean isInterested() {
         boolean isInterested = false;
-        if (this.headElement.findElement(new By.ById("us.moviemates:id/ivShadowInterested")).isPresent()) {
+        if (this.interestedShadowElement.isPresent()) {
             isInterested = true;
         }
         return isInterested;
@@ -102,7 +105,7 @@ public class TitleSection extends Section {
         // Perform action only if actual interest state is negative to required
         if (state != this.isInterested()) {
             // android.widget.ToggleButton[@resource-id="us.moviemates:id/tbButtonInterested"]
-            this.interestedButtonElement.getMobileElement().tap(1, 0);
+            this.interestedButtonElement.tap();
         }
     }
 }
@@ -0,0 +1,60 @@
+package lib.mates.pom.locators;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+
+
+/**
+ * Locates element by chain of resource IDs, each searched in context of match of previous one:
+ * "us.moviemates:id/listView > us.moviemates:id/rlItemFilm[2]". Level without position takes
+ * first match; level with position "[n]" takes match n (first - 0). Chain is resolved on device
+ * by one command per level.
+ */
+public class ByIdChain extends By {
+    // Separator of levels in chain
+    public static final String SEPARATOR = " > ";
+    private String chain;
+    private List<String> ids = new ArrayList<>();
+    private List<Integer> positions = new ArrayList<>();
+
+    /**
+     * @param chain  Resource IDs separated by " > ", optionally followed by position.
+     */
+    public ByIdChain(String chain) {
+        this.chain = chain;
+        for (String level : chain.split(ByIdChain.SEPARATOR)) {
+            level = level.trim();
+            int position = 0;
+            if (level.endsWith("]") && level.contains("[")) {
+                position = Integer.parseInt(level.substring(level.lastIndexOf('[') + 1, level.
+                    length() - 1));
+                level = level.substring(0, level.lastIndexOf('['));
+            }
+            this.ids.add(level);
+            this.positions.add(position);
+        }
+    }
+
+    @Override
+    public List<WebElement> findElements(SearchContext context) {
+        SearchContext parent = context;
+        for (int level = 0; level < this.ids.size(); level++) {
+            List<WebElement> elements = parent.findElements(new By.ById(this.ids.get(level)));
+            int position = this.positions.get(level);
+            if (elements.size() <= position) {
+                return Collections.emptyList();
+            }
+            parent = elements.get(position);
+        }
+        return Collections.singletonList((WebElement) parent);
+    }
+
+    @Override
+    public String toString() {
+        return "By.idChain: " + this.chain;
+    }
+}
@@ -0,0 +1,112 @@
+package lib.mates.pom.locators;
+
+import java.util.List;
+import org.openqa.selenium.By;
+import io.appium.java_client.MobileBy;
+
+
+/**
+ * Helpers for hierarchical chains of By locators (grandparent/parent/child) used by Element.
+ */
+public class LocatorChain {
+    /**
+     * Obtains locator strategy from string representation of By ("By.id: us.moviemates:id/x").
+     * @param locator  By locator.
+     * @return  "id", "xpath", "className" or null if strategy is not one of them.
+     */
+    public static String getStrategy(By locator) {
+        String description = locator.toString();
+        for (String strategy : new String[] {"id", "xpath", "className"}) {
+            if (description.startsWith("By." + strategy + ": ")) {
+                return strategy;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Obtains value of locator from string representation of By.
+     * @param locator  By locator.
+     * @return  Resource ID, XPath or class name.
+     */
+    public static String getValue(By locator) {
+        String description = locator.toString();
+        return description.substring(description.indexOf(": ") + 2);
+    }
+
+    /**
+     * Compiles chain of locators into single equivalent locator, so that target element is found 
+     * in one command instead of one command per level. Chain of full resource IDs is compiled 
+     * into UiSelector on Android; other chains of IDs, class names and relative XPaths into 
+     * XPath. Each level is searched in first match of previous level, as Element does.
+     * @param locators  List of hierarchical By locators.
+     * @param isAndroid  True if session runs on Android.
+     * @return  Single By locator, null if chain cannot be fused.
+     */
+    public static By fuse(List<By> locators, boolean isAndroid) {
+        if (locators.size() < 2) {
+            return null;
+        }
+        if (isAndroid) {
+            String selector = LocatorChain.toUiSelector(locators);
+            if (selector != null) {
+                return MobileBy.AndroidUIAutomator(selector);
+            }
+        }
+        String xpath = LocatorChain.toXPath(locators);
+        return xpath != null ? new By.ByXPath(xpath) : null;
+    }
+
+    /**
+     * Builds nested UiSelector ("new UiSelector().resourceId(a).instance(0).childSelector(...)").
+     * Parent levels are pinned to their first match; otherwise child selector would search under
+     * every match of parent.
+     * @return  UiSelector expression, null if any level is not full resource ID.
+     */
+    private static String toUiSelector(List<By> locators) {
+        String selector = "";
+        for (int index = locators.size() - 1; index >= 0; index--) {
+            By locator = locators.get(index);
+            String value = LocatorChain.getValue(locator);
+            if (! "id".equals(LocatorChain.getStrategy(locator)) || ! value.contains(":id/") || 
+                value.contains("\"")) {
+                return null;
+            }
+            selector = String.format("new UiSelector().resourceId(\"%s\")%s", value, 
+                selector.isEmpty() ? "" : ".instance(0).childSelector(" + selector + ")");
+        }
+        return selector;
+    }
+
+    /**
+     * Builds XPath ("(//*[@resource-id='a'])[1]//*[@resource-id='b']").
+     * @return  XPath expression, null if any level cannot be expressed as relative XPath step.
+     */
+    private static String toXPath(List<By> locators) {
+        String xpath = "";
+        for (int index = 0; index < locators.size(); index++) {
+            By locator = locators.get(index);
+            String strategy = LocatorChain.getStrategy(locator);
+            String value = LocatorChain.getValue(locator);
+            String step;
+            if ("id".equals(strategy) && value.contains(":id/") && ! value.contains("'")) {
+                step = String.format("//*[@resource-id='%s']", value);
+            }
+            else if ("className".equals(strategy)) {
+                step = "//" + value;
+            }
+            else if ("xpath".equals(strategy) && value.startsWith(".//")) {
+                step = value.substring(1);
+            }
+            else if ("xpath".equals(strategy) && value.startsWith("//") && ! value.contains("|")) {
+                step = value;
+            }
+            else {
+                return null;
+            }
+            // Only first match of each parent level is searched, as in Element.getMobileElement()
+            xpath = index == 0 ? step : String.format("(%s)[1]%s", xpath, step);
+        }
+        return xpath;
+    }
+}
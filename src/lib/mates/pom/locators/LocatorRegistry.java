@@ -0,0 +1,276 @@
+package lib.mates.pom.locators;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+import javax.json.JsonWriter;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.WebDriverException;
+import io.appium.java_client.MobileElement;
+import lib.mates.pom.DeviceRegistry;
+import lib.mates.pom.PlatformDriver;
+import lib.mates.pom.snapshot.Bounds;
+import lib.mates.pom.snapshot.PageSnapshot;
+
+
+/**
+ * Registry of logical elements located by several equivalent strategies (ID chain, XPath,
+ * UiSelector, accessibility ID). On first use on given device and OS version, every strategy is
+ * timed on device; the fastest one finding the same element as the reference strategy is chosen
+ * and stored for next runs in ~/.mates/locators.json (path is overridden by property
+ * mates.locatorStore). In snapshot mode nothing is timed: strategy the page snapshot resolves is
+ * used.
+ */
+public class LocatorRegistry {
+    private static LocatorRegistry instance;
+    // File of chosen strategies
+    private Path storePath;
+    // Strategies keyed by name of logical element
+    private Map<String, List<LocatorStrategy>> definitions = new ConcurrentHashMap<>();
+    // Type of chosen strategy keyed by "UDID/OS version", then by name of logical element
+    private Map<String, Map<String, String>> choices = new ConcurrentHashMap<>();
+    // "UDID/OS version name" of logical elements reference strategy found nothing for in this run
+    private Set<String> misses = Collections.newSetFromMap(new ConcurrentHashMap<String, 
+        Boolean>());
+    // Number of timed lookups per strategy
+    private int measurements = 3;
+
+    /**
+     * @param storePath  Path to JSON file of chosen strategies.
+     * @throws IOException
+     */
+    LocatorRegistry(Path storePath) throws IOException {
+        this.storePath = storePath;
+        if (Files.exists(storePath)) {
+            try (Reader reader = Files.newBufferedReader(storePath)) {
+                JsonReader jsonReader = Json.createReader(reader);
+                JsonObject jsonObject = jsonReader.readObject();
+                jsonReader.close();
+                for (String deviceKey : jsonObject.keySet()) {
+                    JsonObject deviceChoices = jsonObject.getJsonObject(deviceKey);
+                    Map<String, String> deviceMap = new ConcurrentHashMap<>();
+                    for (String name : deviceChoices.keySet()) {
+                        deviceMap.put(name, deviceChoices.getString(name));
+                    }
+                    this.choices.put(deviceKey, deviceMap);
+                }
+            }
+        }
+        Locators.define(this);
+    }
+
+    /**
+     * Returns registry backed by file given by property mates.locatorStore, by default
+     * ~/.mates/locators.json, so that choices made on local devices stay out of the source tree.
+     * @return  Instance of LocatorRegistry.
+     */
+    public static synchronized LocatorRegistry getInstance() {
+        if (LocatorRegistry.instance == null) {
+            try {
+                String storePath = System.getProperty("mates.locatorStore");
+                LocatorRegistry.instance = new LocatorRegistry(storePath != null ? Paths.
+                    get(storePath) : Paths.get(System.getProperty("user.home"), ".mates", 
+                    "locators.json"));
+            }
+            catch (IOException e) {
+                throw new RuntimeException("Locator registry cannot be read.", e);
+            }
+        }
+        return LocatorRegistry.instance;
+    }
+
+    /**
+     * Defines logical element. Repeated definition of the same name is ignored.
+     * @param name  Name of logical element ("movieItem").
+     * @param strategies  Equivalent strategies of different types, reference one first.
+     */
+    public void define(String name, LocatorStrategy... strategies) {
+        this.definitions.putIfAbsent(name, new ArrayList<>(Arrays.asList(strategies)));
+    }
+
+    /**
+     * Returns locator of logical element using strategy chosen for device of session. Strategies
+     * are timed on first use; if reference strategy finds nothing at that moment, reference
+     * strategy is used for the rest of the run. In snapshot mode, chosen strategy is used only
+     * if page snapshot resolves it, otherwise the first such strategy.
+     * @param platformDriver  Tailored wrapper of AppiumDriver.
+     * @param name  Name of logical element.
+     * @param arguments  Arguments of locator template (ex. index of item).
+     * @return  By locator.
+     */
+    public By get(PlatformDriver platformDriver, String name, Object... arguments) {
+        List<LocatorStrategy> strategies = this.definitions.get(name);
+        if (strategies == null) {
+            throw new IllegalArgumentException("Logical element is not defined: " + name);
+        }
+        String deviceKey = this.getDeviceKey(platformDriver);
+        Map<String, String> deviceChoices = this.choices.computeIfAbsent(deviceKey, key -> new
+            ConcurrentHashMap<String, String>());
+        LocatorStrategy choice = null;
+        for (LocatorStrategy strategy : strategies) {
+            if (strategy.getType().equals(deviceChoices.get(name))) {
+                choice = strategy;
+            }
+        }
+        if (platformDriver.isSnapshotMode()) {
+            return this.selectForSnapshot(platformDriver, strategies, choice, arguments);
+        }
+        String missKey = deviceKey + " " + name;
+        if (choice == null) {
+            if (this.misses.contains(missKey)) {
+                return strategies.get(0).toBy(arguments);
+            }
+            choice = this.select(platformDriver, strategies, arguments);
+            if (choice == null) {
+                this.misses.add(missKey);
+                return strategies.get(0).toBy(arguments);
+            }
+            deviceChoices.put(name, choice.getType());
+            this.save();
+        }
+        return choice.toBy(arguments);
+    }
+
+    /**
+     * Picks locator page snapshot resolves without device: chosen strategy if snapshot supports
+     * it, otherwise the first supported one in order of definition, otherwise reference one.
+     */
+    private By selectForSnapshot(PlatformDriver platformDriver, List<LocatorStrategy> strategies,
+        LocatorStrategy choice, Object[] arguments) {
+        if (choice != null) {
+            By locator = choice.toBy(arguments);
+            if (PageSnapshot.supports(Collections.singletonList(locator))) {
+                return locator;
+            }
+        }
+        for (LocatorStrategy strategy : strategies) {
+            if (strategy.isSupported(platformDriver)) {
+                By locator = strategy.toBy(arguments);
+                if (PageSnapshot.supports(Collections.singletonList(locator))) {
+                    return locator;
+                }
+            }
+        }
+        return strategies.get(0).toBy(arguments);
+    }
+
+    /**
+     * Times every strategy on device.
+     * @return  Fastest correct strategy, null if reference strategy finds nothing.
+     */
+    @SuppressWarnings("try")
+    private LocatorStrategy select(PlatformDriver platformDriver, List<LocatorStrategy> strategies,
+        Object[] arguments) {
+        Bounds referenceBounds = null;
+        LocatorStrategy choice = null;
+        long fastestTime = Long.MAX_VALUE;
+        try (PlatformDriver.ImplicitWait wait = platformDriver.withImplicitWait(0)) {
+            for (int index = 0; index < strategies.size(); index++) {
+                LocatorStrategy strategy = strategies.get(index);
+                if (! strategy.isSupported(platformDriver)) {
+                    continue;
+                }
+                By locator = strategy.toBy(arguments);
+                long[] times = new long[this.measurements];
+                Bounds bounds = null;
+                try {
+                    for (int measurement = 0; measurement < this.measurements; measurement++) {
+                        long startTime = System.nanoTime();
+                        List<? extends MobileElement> elements = platformDriver.getDriver().
+                            findElements(locator);
+                        times[measurement] = System.nanoTime() - startTime;
+                        if (measurement == 0 && ! elements.isEmpty()) {
+                            bounds = LocatorRegistry.getBounds(elements.get(0));
+                        }
+                    }
+                }
+                catch (WebDriverException e) {
+                    if (index == 0) {
+                        return null;
+                    }
+                    continue;
+                }
+                if (index == 0) {
+                    if (bounds == null) {
+                        return null;
+                    }
+                    referenceBounds = bounds;
+                }
+                else if (! referenceBounds.equals(bounds)) {
+                    // Strategy finds different element, so it is not equivalent
+                    continue;
+                }
+                Arrays.sort(times);
+                long medianTime = times[times.length / 2];
+                if (medianTime < fastestTime) {
+                    fastestTime = medianTime;
+                    choice = strategy;
+                }
+            }
+        }
+        return choice;
+    }
+
+    private String getDeviceKey(PlatformDriver platformDriver) {
+        String platformVersion = "";
+        try {
+            JsonObject deviceInfo = DeviceRegistry.getInstance().getDeviceInfo(platformDriver.
+                getDeviceId());
+            if (deviceInfo != null) {
+                platformVersion = deviceInfo.getString("platformVersion", "");
+            }
+        }
+        catch (IOException e) {
+        }
+        return platformDriver.getDeviceId() + "/" + platformVersion;
+    }
+
+    /**
+     * Writes chosen strategies to file.
+     */
+    private synchronized void save() {
+        JsonObjectBuilder builder = Json.createObjectBuilder();
+        for (Map.Entry<String, Map<String, String>> deviceEntry : this.choices.entrySet()) {
+            JsonObjectBuilder deviceBuilder = Json.createObjectBuilder();
+            for (Map.Entry<String, String> entry : deviceEntry.getValue().entrySet()) {
+                deviceBuilder.add(entry.getKey(), entry.getValue());
+            }
+            builder.add(deviceEntry.getKey(), deviceBuilder);
+        }
+        Path directory = this.storePath.toAbsolutePath().getParent();
+        try {
+            Files.createDirectories(directory);
+            try (Writer writer = Files.newBufferedWriter(this.storePath)) {
+                JsonWriter jsonWriter = Json.createWriter(writer);
+                jsonWriter.writeObject(builder.build());
+                jsonWriter.close();
+            }
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Locator registry cannot be saved.", e);
+        }
+    }
+
+    private static Bounds getBounds(MobileElement element) {
+        Point location = element.getLocation();
+        Dimension size = element.getSize();
+        return new Bounds(location.x, location.y, location.x + size.width, location.y + size.
+            height);
+    }
+}
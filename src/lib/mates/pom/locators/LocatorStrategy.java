@@ -0,0 +1,71 @@
+package lib.mates.pom.locators;
+
+import org.openqa.selenium.By;
+import io.appium.java_client.MobileBy;
+import lib.mates.pom.PlatformDriver;
+
+
+/**
+ * One of equivalent ways to locate logical element. Value may be template with String.format() 
+ * arguments ("//android.widget.RelativeLayout[@index=%d]"); positional ones ("%2$s") let 
+ * strategies of the same element take different arguments.
+ */
+public class LocatorStrategy {
+    // "id", "idchain", "xpath", "uiautomator" or "accessibility"
+    private String type;
+    private String template;
+
+    /**
+     * @param type  Locator type: "id", "idchain" (see ByIdChain), "xpath", "uiautomator" (Android 
+     *     only) or "accessibility".
+     * @param template  Locator value or its template.
+     */
+    public LocatorStrategy(String type, String template) {
+        if (! (type.equals("id") || type.equals("idchain") || type.equals("xpath") || type.
+            equals("uiautomator") || type.equals("accessibility"))) {
+            throw new IllegalArgumentException("Invalid locator type: " + type);
+        }
+        this.type = type;
+        this.template = template;
+    }
+
+    public String getType() {
+        return this.type;
+    }
+
+    /**
+     * Checks if strategy can be used on platform of given session.
+     * @param platformDriver  Tailored wrapper of AppiumDriver.
+     * @return  True if supported, false if not.
+     */
+    public boolean isSupported(PlatformDriver platformDriver) {
+        return ! this.type.equals("uiautomator") || platformDriver.isAndroid();
+    }
+
+    /**
+     * Builds locator.
+     * @param arguments  Arguments of template.
+     * @return  By locator.
+     */
+    public By toBy(Object... arguments) {
+        String value = arguments.length > 0 ? String.format(this.template, arguments) : this.
+            template;
+        switch (this.type) {
+            case "id":
+                return new By.ById(value);
+            case "idchain":
+                return new ByIdChain(value);
+            case "xpath":
+                return new By.ByXPath(value);
+            case "uiautomator":
+                return MobileBy.AndroidUIAutomator(value);
+            default:
+                return MobileBy.AccessibilityId(value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.type + ": " + this.template;
+    }
+}
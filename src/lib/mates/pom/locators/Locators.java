@@ -0,0 +1,37 @@
+package lib.mates.pom.locators;
+
+
+/**
+ * Logical elements located through LocatorRegistry and their equivalent strategies. First 
+ * strategy of each element is the reference one: other strategies are accepted only if they find 
+ * the same element.
+ */
+public class Locators {
+    // Movie row in list of movies; argument - index of row
+    public static final String MOVIE_ITEM = "movieItem";
+    // Date tile in date line; argument - index of tile
+    public static final String DATE_ITEM = "dateItem";
+    // Tab of tab bar; arguments - index of tab, title of tab
+    public static final String TAB_ITEM = "tabItem";
+
+    /**
+     * Defines strategies of all logical elements. Strategy which cannot find the element on 
+     * given platform (ex. accessibility ID of tab while app sets no content description on 
+     * Android) is rejected when strategies are timed.
+     * @param registry  Instance of LocatorRegistry.
+     */
+    static void define(LocatorRegistry registry) {
+        registry.define(Locators.MOVIE_ITEM, 
+            new LocatorStrategy("xpath", "//android.widget.ListView[@resource-id='us.moviemates:id/listView']/android.widget.RelativeLayout[@index=%d]"), 
+            new LocatorStrategy("idchain", "us.moviemates:id/listView > us.moviemates:id/rlItemFilm[%d]"), 
+            new LocatorStrategy("uiautomator", "new UiSelector().resourceId(\"us.moviemates:id/listView\").childSelector(new UiSelector().className(\"android.widget.RelativeLayout\").index(%d))"));
+        registry.define(Locators.DATE_ITEM, 
+            new LocatorStrategy("xpath", "//android.support.v7.widget.RecyclerView/android.widget.RelativeLayout[@index=%d]"), 
+            new LocatorStrategy("idchain", "us.moviemates:id/date_list > us.moviemates:id/rl_date_picker_item[%d]"), 
+            new LocatorStrategy("uiautomator", "new UiSelector().resourceId(\"us.moviemates:id/date_list\").childSelector(new UiSelector().resourceId(\"us.moviemates:id/rl_date_picker_item\").index(%d))"));
+        registry.define(Locators.TAB_ITEM, 
+            new LocatorStrategy("xpath", "//android.support.v7.app.ActionBar.Tab[@index=%1$d]"), 
+            new LocatorStrategy("uiautomator", "new UiSelector().className(\"android.support.v7.app.ActionBar$Tab\").index(%1$d)"), 
+            new LocatorStrategy("accessibility", "%2$s"));
+    }
+}
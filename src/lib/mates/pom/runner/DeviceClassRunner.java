@@ -0,0 +1,103 @@
+package lib.mates.pom.runner;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.rules.TestRule;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.Statement;
+import lib.mates.pom.PlatformDriver;
+import lib.mates.pom.SessionPool;
+import lib.mates.pom.budget.BudgetRule;
+import lib.mates.pom.trace.TraceRule;
+
+
+/**
+ * Runs test class on single device. Leases PlatformDriver from SessionPool before first test of 
+ * the class, passes it to constructor of test class and returns session to pool after last test. 
+ * Test class must declare single constructor accepting PlatformDriver.
+ */
+public class DeviceClassRunner extends BlockJUnit4ClassRunner {
+    private String deviceId;
+    private DeviceSettings settings;
+    private int port;
+    // Session of the device; leased for duration of the class
+    private volatile PlatformDriver platformDriver;
+
+    /**
+     * @param testClass  Class of tests.
+     * @param deviceId  Universal Device ID of device under test.
+     * @param settings  Appium Server settings.
+     * @param port  Port of Appium Server serving the device.
+     * @throws InitializationError
+     */
+    public DeviceClassRunner(Class<?> testClass, String deviceId, DeviceSettings settings, int port) 
+        throws InitializationError {
+        super(testClass);
+        this.deviceId = deviceId;
+        this.settings = settings;
+        this.port = port;
+    }
+
+    /**
+     * Returns UDID of device the runner is bound to.
+     * @return  Universal Device ID.
+     */
+    public String getDeviceId() {
+        return this.deviceId;
+    }
+
+    @Override
+    protected String getName() {
+        return String.format("[%s]", this.deviceId);
+    }
+
+    @Override
+    protected String testName(FrameworkMethod method) {
+        // Names must be unique across devices to keep results apart
+        return String.format("%s[%s]", method.getName(), this.deviceId);
+    }
+
+    @Override
+    protected void validateConstructor(List<Throwable> errors) {
+        this.validateOnlyOneConstructor(errors);
+    }
+
+    @Override
+    protected Object createTest() throws Exception {
+        return this.getTestClass().getOnlyConstructor().newInstance(this.platformDriver);
+    }
+
+    @Override
+    protected List<TestRule> getTestRules(Object target) {
+        List<TestRule> rules = new ArrayList<>(super.getTestRules(target));
+        rules.add(new BudgetRule(this.platformDriver));
+        // Outermost rule, so that trace covers @Rule and @Before code of test class too
+        rules.add(new TraceRule(this.platformDriver));
+        return rules;
+    }
+
+    @Override
+    protected Statement classBlock(RunNotifier notifier) {
+        final Statement statement = super.classBlock(notifier);
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                SessionPool sessionPool = SessionPool.getInstance();
+                DeviceClassRunner.this.platformDriver = sessionPool.lease(DeviceClassRunner.this.
+                    deviceId, DeviceClassRunner.this.settings.protocol(), DeviceClassRunner.this.
+                    settings.host(), DeviceClassRunner.this.port, DeviceClassRunner.this.settings.
+                    file(), DeviceClassRunner.this.settings.implicitWait());
+                try {
+                    statement.evaluate();
+                }
+                finally {
+                    sessionPool.release(DeviceClassRunner.this.platformDriver);
+                    DeviceClassRunner.this.platformDriver = null;
+                }
+            }
+        };
+    }
+}
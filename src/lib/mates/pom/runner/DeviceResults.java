@@ -0,0 +1,77 @@
+package lib.mates.pom.runner;
+
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+
+/**
+ * Aggregates test results per device. Device is recognized by "[UDID]" suffix of test name 
+ * given by DeviceClassRunner.
+ */
+public class DeviceResults extends RunListener {
+    // Counters of started, failed and ignored tests keyed by UDID
+    private Map<String, int[]> counters = new TreeMap<>();
+
+    @Override
+    public void testStarted(Description description) {
+        this.count(description, 0);
+    }
+
+    @Override
+    public void testFailure(Failure failure) {
+        this.count(failure.getDescription(), 1);
+    }
+
+    @Override
+    public void testAssumptionFailure(Failure failure) {
+        this.count(failure.getDescription(), 2);
+    }
+
+    @Override
+    public void testIgnored(Description description) {
+        this.count(description, 2);
+    }
+
+    /**
+     * Returns counters of given device.
+     * @param deviceId  Universal Device ID.
+     * @return  Number of run, failed and ignored tests.
+     */
+    public synchronized int[] getCounters(String deviceId) {
+        int[] deviceCounters = this.counters.get(deviceId);
+        return deviceCounters != null ? deviceCounters.clone() : new int[3];
+    }
+
+    /**
+     * Returns summary of results, one line per device.
+     * @return  Text of summary.
+     */
+    public synchronized String getSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (Map.Entry<String, int[]> entry : this.counters.entrySet()) {
+            int[] deviceCounters = entry.getValue();
+            summary.append(String.format("%s: run %d, failed %d, ignored %d%n", entry.getKey(), 
+                deviceCounters[0], deviceCounters[1], deviceCounters[2]));
+        }
+        return summary.toString();
+    }
+
+    private synchronized void count(Description description, int counter) {
+        String name = description.getDisplayName();
+        int start = name.lastIndexOf('[');
+        int end = name.indexOf(']', start);
+        if (start < 0 || end < 0) {
+            return;
+        }
+        String deviceId = name.substring(start + 1, end);
+        int[] deviceCounters = this.counters.get(deviceId);
+        if (deviceCounters == null) {
+            deviceCounters = new int[3];
+            this.counters.put(deviceId, deviceCounters);
+        }
+        deviceCounters[counter]++;
+    }
+}
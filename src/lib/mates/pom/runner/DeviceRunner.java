@@ -0,0 +1,118 @@
+package lib.mates.pom.runner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.runner.Runner;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.Suite;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerScheduler;
+import lib.mates.pom.DeviceRegistry;
+
+
+/**
+ * Runs test class on all mounted devices listed in src/data/devices.json at the same time. Each 
+ * device gets own DeviceClassRunner with own PlatformDriver, Appium Server port ("appiumPort") 
+ * and UiAutomator2 system port ("systemPort"). Results are reported per device and summarized 
+ * after the run.
+ * <pre>
+ * &#64;RunWith(DeviceRunner.class)
+ * public class MoviesPageBasicTest {
+ *     public MoviesPageBasicTest(PlatformDriver driver) {...}
+ * }
+ * </pre>
+ */
+public class DeviceRunner extends Suite {
+    private DeviceResults results = new DeviceResults();
+
+    /**
+     * @param testClass  Class of tests annotated with &#64;RunWith(DeviceRunner.class).
+     * @throws InitializationError
+     */
+    public DeviceRunner(Class<?> testClass) throws InitializationError {
+        super(testClass, DeviceRunner.createRunners(testClass));
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        // Devices run concurrently, tests of each device run in sequence
+        this.setScheduler(new RunnerScheduler() {
+            @Override
+            public void schedule(Runnable childStatement) {
+                executor.submit(childStatement);
+            }
+
+            @Override
+            public void finished() {
+                executor.shutdown();
+                try {
+                    executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                }
+                catch (InterruptedException e) {
+                    executor.shutdownNow();
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void run(RunNotifier notifier) {
+        notifier.addListener(this.results);
+        try {
+            super.run(notifier);
+        }
+        finally {
+            notifier.removeListener(this.results);
+            System.out.print(this.results.getSummary());
+        }
+    }
+
+    /**
+     * Returns results of last run aggregated per device.
+     * @return  Instance of DeviceResults.
+     */
+    public DeviceResults getResults() {
+        return this.results;
+    }
+
+    /**
+     * Builds runner for each device of data sheet discoverable by adb.
+     */
+    private static List<Runner> createRunners(Class<?> testClass) throws InitializationError {
+        DeviceSettings settings = testClass.getAnnotation(DeviceSettings.class);
+        if (settings == null) {
+            settings = Default.class.getAnnotation(DeviceSettings.class);
+        }
+        List<Runner> runners = new ArrayList<>();
+        try {
+            DeviceRegistry registry = DeviceRegistry.getInstance();
+            for (String deviceId : registry.getDeviceIds()) {
+                // Simulated devices take part only in offline runs (-Dmates.simulate=true)
+                if (registry.isMounted(deviceId) && (! registry.isSimulated(deviceId) || Boolean.
+                    getBoolean("mates.simulate"))) {
+                    int port = registry.getDeviceInfo(deviceId).getInt("appiumPort", settings.
+                        port());
+                    runners.add(new DeviceClassRunner(testClass, deviceId, settings, port));
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new InitializationError(e);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InitializationError(e);
+        }
+        if (runners.isEmpty()) {
+            throw new InitializationError("No device of data sheet is mounted.");
+        }
+        return runners;
+    }
+
+    // Holder of default settings for classes without @DeviceSettings
+    @DeviceSettings
+    private static class Default {
+    }
+}
@@ -0,0 +1,26 @@
+package lib.mates.pom.runner;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Appium Server settings shared by all devices of test class run by DeviceRunner. Port of Appium 
+ * Server is taken from "appiumPort" of device's entry in src/data/devices.json.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface DeviceSettings {
+    // Protocol ("http", "https")
+    String protocol() default "http";
+    // Running Appium Servers' host name
+    String host() default "127.0.0.1";
+    // File name on the host
+    String file() default "/wd/hub";
+    // Port used for devices without "appiumPort" in data sheet
+    int port() default 4723;
+    // Default implicit wait time (milliseconds); components await elements explicitly by Waits
+    int implicitWait() default 0;
+}
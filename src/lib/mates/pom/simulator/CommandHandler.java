@@ -0,0 +1,478 @@
+package lib.mates.pom.simulator;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonValue;
+import lib.mates.pom.snapshot.Bounds;
+
+
+/**
+ * Handles JSON Wire Protocol commands of Appium java-client against SimulatedDevice, one device
+ * per session. Every command is delayed by fixed latency to imitate round trip to real device.
+ */
+public class CommandHandler {
+    private ScreenSet screenSet;
+    // Delay (milliseconds) of every command
+    private int latency;
+    private Map<String, Session> sessions = new ConcurrentHashMap<>();
+    // Number of handled commands, keyed by command ("POST /element")
+    private Map<String, AtomicInteger> commandCounts = new ConcurrentHashMap<>();
+    // Number of handled commands in total, never reset
+    private AtomicLong commandCount = new AtomicLong();
+
+    /**
+     * @param screenSet  Recorded screens of app.
+     * @param latency  Delay (milliseconds) of every command.
+     */
+    public CommandHandler(ScreenSet screenSet, int latency) {
+        this.screenSet = screenSet;
+        this.latency = latency;
+    }
+
+    /**
+     * Handles command.
+     * @param method  HTTP method.
+     * @param path  Path of request ("/wd/hub/session/:sessionId/element").
+     * @param content  Body of request, JSON or empty.
+     * @return  Response with JSON body {"sessionId", "status", "value"}.
+     */
+    public Response handle(String method, String path, byte[] content) {
+        if (this.latency > 0) {
+            try {
+                Thread.sleep(this.latency);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("\\?")[0].split("/")) {
+            if (! segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        // Skip base path of server ("/wd/hub")
+        while (! segments.isEmpty() && ! "session".equals(segments.get(0)) && ! "status".equals(
+            segments.get(0))) {
+            segments.remove(0);
+        }
+        JsonObject body = CommandHandler.parse(content);
+        String sessionId = null;
+        try {
+            if (segments.isEmpty()) {
+                throw new SimulatorException(SimulatorException.UNKNOWN_COMMAND,
+                    "Unknown command: " + method + " " + path);
+            }
+            if ("status".equals(segments.get(0))) {
+                return this.respond(null, 0, CommandHandler.map("build", CommandHandler.map(
+                    "version", "simulator")));
+            }
+            if (segments.size() == 1) {
+                if ("POST".equals(method)) {
+                    return this.createSession(body);
+                }
+                throw new SimulatorException(SimulatorException.UNKNOWN_COMMAND,
+                    "Unknown command: " + method + " " + path);
+            }
+            sessionId = segments.get(1);
+            Session session = this.sessions.get(sessionId);
+            if (session == null) {
+                throw new SimulatorException(SimulatorException.NO_SUCH_SESSION,
+                    "Session does not exist: " + sessionId);
+            }
+            String command = method + " /" + String.join("/", segments.subList(2, segments.
+                size())).replaceAll("element/[^/]+", "element/:id").replaceAll(
+                "attribute/[^/]+", "attribute/:name");
+            this.commandCounts.computeIfAbsent(command, key -> new AtomicInteger()).
+                incrementAndGet();
+            this.commandCount.incrementAndGet();
+            return this.respond(sessionId, 0, this.execute(session, command, segments, body));
+        }
+        catch (SimulatorException e) {
+            return this.respond(sessionId, e.getStatus(), CommandHandler.map("message", e.
+                getMessage()));
+        }
+        catch (RuntimeException e) {
+            return this.respond(sessionId, SimulatorException.UNKNOWN_ERROR, CommandHandler.map(
+                "message", String.valueOf(e)));
+        }
+    }
+
+    /**
+     * Returns number of handled commands.
+     * @return  Counts keyed by command ("POST /element", "GET /element/:id/text").
+     */
+    public Map<String, Integer> getCommandCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, AtomicInteger> entry : this.commandCounts.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().get());
+        }
+        return counts;
+    }
+
+    /**
+     * Returns number of commands handled since server start.
+     * @return  Number of commands of all sessions.
+     */
+    public long getCommandCount() {
+        return this.commandCount.get();
+    }
+
+    public void resetCommandCounts() {
+        this.commandCounts.clear();
+    }
+
+    /**
+     * Returns device of session.
+     * @param sessionId  ID of session.
+     * @return  Simulated device, null if there is no such session.
+     */
+    public SimulatedDevice getDevice(String sessionId) {
+        Session session = this.sessions.get(sessionId);
+        return session != null ? session.device : null;
+    }
+
+    private Response createSession(JsonObject body) {
+        String sessionId = UUID.randomUUID().toString();
+        this.sessions.put(sessionId, new Session(new SimulatedDevice(this.screenSet)));
+        Map<String, Object> capabilities = new LinkedHashMap<>();
+        JsonObject desiredCapabilities = body.getJsonObject("desiredCapabilities");
+        if (desiredCapabilities != null) {
+            for (String name : desiredCapabilities.keySet()) {
+                JsonValue value = desiredCapabilities.get(name);
+                capabilities.put(name, value.getValueType() == JsonValue.ValueType.STRING ?
+                    desiredCapabilities.getString(name) : value.toString());
+            }
+        }
+        capabilities.put("platformName", "Android");
+        return this.respond(sessionId, 0, capabilities);
+    }
+
+    private Object execute(Session session, String command, List<String> segments, JsonObject
+        body) {
+        SimulatedDevice device = session.device;
+        // ID of element the command is addressed to ("/element/:id/...")
+        String elementId = segments.size() > 3 && "element".equals(segments.get(2)) ? segments.
+            get(3) : null;
+        switch (command) {
+            case "DELETE /":
+                this.sessions.remove(segments.get(1));
+                return null;
+            case "GET /":
+                return CommandHandler.map("platformName", "Android");
+            case "GET /source":
+                return device.getPageSource();
+            case "POST /element":
+                return this.findElement(session, null, body);
+            case "POST /elements":
+                return this.findElements(session, null, body);
+            case "POST /element/:id/element":
+                return this.findElement(session, elementId, body);
+            case "POST /element/:id/elements":
+                return this.findElements(session, elementId, body);
+            case "GET /element/:id/text":
+                String text = device.getAttribute(elementId, "text");
+                return text != null ? text : "";
+            case "GET /element/:id/attribute/:name":
+                return device.getAttribute(elementId, segments.get(5));
+            case "GET /element/:id/displayed":
+                device.getBounds(elementId);
+                return true;
+            case "GET /element/:id/enabled":
+                return ! "false".equals(device.getAttribute(elementId, "enabled"));
+            case "GET /element/:id/selected":
+                return "true".equals(device.getAttribute(elementId, "selected"));
+            case "GET /element/:id/location":
+            case "GET /element/:id/location_in_view":
+                Bounds bounds = device.getBounds(elementId);
+                return CommandHandler.map("x", bounds.getLeft(), "y", bounds.getTop());
+            case "GET /element/:id/size":
+                bounds = device.getBounds(elementId);
+                return CommandHandler.map("width", bounds.getWidth(), "height", bounds.
+                    getHeight());
+            case "POST /element/:id/click":
+                device.tapElement(elementId);
+                return null;
+            case "POST /touch/perform":
+                this.perform(device, body.getJsonArray("actions"));
+                return null;
+            case "POST /touch/multi/perform":
+                JsonArray chains = body.getJsonArray("actions");
+                if (chains != null && ! chains.isEmpty()) {
+                    // Single finger is simulated
+                    this.perform(device, chains.getJsonArray(0));
+                }
+                return null;
+            case "POST /timeouts/implicit_wait":
+                session.implicitWait = body.getJsonNumber("ms").intValue();
+                return null;
+            case "POST /timeouts":
+                if ("implicit".equals(body.getString("type", ""))) {
+                    session.implicitWait = body.getJsonNumber("ms").intValue();
+                }
+                return null;
+            case "GET /context":
+                return session.context;
+            case "GET /contexts":
+                List<Object> contexts = new ArrayList<>();
+                contexts.add("NATIVE_APP");
+                return contexts;
+            case "POST /context":
+                session.context = body.getString("name", "NATIVE_APP");
+                return null;
+            case "GET /orientation":
+                return "PORTRAIT";
+            case "GET /window/:id/size":
+            case "GET /window/current/size":
+                bounds = device.getScreenBounds();
+                return CommandHandler.map("width", bounds.getWidth(), "height", bounds.
+                    getHeight());
+            case "POST /back":
+                device.back();
+                return null;
+            case "POST /appium/app/launch":
+            case "POST /appium/app/reset":
+                device.launchApp();
+                return null;
+            case "POST /appium/app/close":
+                device.closeApp();
+                return null;
+            case "GET /appium/device/current_activity":
+                return "." + device.getScreenName();
+            default:
+                throw new SimulatorException(SimulatorException.UNKNOWN_COMMAND,
+                    "Command is not simulated: " + command);
+        }
+    }
+
+    private Object findElement(Session session, String contextId, JsonObject body) {
+        List<String> elementIds = this.find(session, contextId, body);
+        if (elementIds.isEmpty()) {
+            throw new SimulatorException(SimulatorException.NO_SUCH_ELEMENT,
+                "An element could not be located on the page using the given search parameters.");
+        }
+        return CommandHandler.map("ELEMENT", elementIds.get(0));
+    }
+
+    private Object findElements(Session session, String contextId, JsonObject body) {
+        List<Object> elements = new ArrayList<>();
+        for (String elementId : this.find(session, contextId, body)) {
+            elements.add(CommandHandler.map("ELEMENT", elementId));
+        }
+        return elements;
+    }
+
+    /**
+     * Finds elements, waiting implicit wait once if none is found. Screen of simulator does not
+     * change by itself, so single retry gives the same result as polling would.
+     */
+    private List<String> find(Session session, String contextId, JsonObject body) {
+        String strategy = body.getString("using");
+        String value = body.getString("value");
+        List<String> elementIds = session.device.findElements(contextId, strategy, value);
+        if (elementIds.isEmpty() && session.implicitWait > 0) {
+            try {
+                Thread.sleep(session.implicitWait);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            elementIds = session.device.findElements(contextId, strategy, value);
+        }
+        return elementIds;
+    }
+
+    /**
+     * Performs chain of touch actions: press (or tap) followed by moveTo is swipe, otherwise tap.
+     */
+    private void perform(SimulatedDevice device, JsonArray actions) {
+        int[] start = null;
+        int[] end = null;
+        for (int index = 0; index < actions.size(); index++) {
+            JsonObject action = actions.getJsonObject(index);
+            JsonObject options = action.getJsonObject("options");
+            switch (action.getString("action")) {
+                case "press":
+                case "longPress":
+                case "tap":
+                    start = this.getPoint(device, options);
+                    end = start;
+                    break;
+                case "moveTo":
+                    end = this.getPoint(device, options);
+                    break;
+            }
+        }
+        if (start == null) {
+            return;
+        }
+        if (start[0] == end[0] && start[1] == end[1]) {
+            device.tap(start[0], start[1]);
+        }
+        else {
+            device.swipe(start[0], start[1], end[0], end[1]);
+        }
+    }
+
+    /**
+     * Returns point of touch action: absolute coordinates, center of element, or offset from
+     * top left corner of element.
+     */
+    private int[] getPoint(SimulatedDevice device, JsonObject options) {
+        boolean hasX = options != null && options.containsKey("x");
+        int x = hasX ? options.getJsonNumber("x").intValue() : 0;
+        int y = hasX ? options.getJsonNumber("y").intValue() : 0;
+        if (options != null && options.containsKey("element")) {
+            Bounds bounds = device.getBounds(options.getString("element"));
+            return hasX ? new int[] {bounds.getLeft() + x, bounds.getTop() + y} : new int[] {
+                bounds.getCenterX(), bounds.getCenterY()};
+        }
+        return new int[] {x, y};
+    }
+
+    private Response respond(String sessionId, int status, Object value) {
+        StringBuilder json = new StringBuilder("{\"sessionId\":");
+        CommandHandler.append(json, sessionId);
+        json.append(",\"status\":").append(status).append(",\"value\":");
+        CommandHandler.append(json, value);
+        json.append("}");
+        // Errors are reported by status of body; HTTP status follows Appium Server
+        int httpStatus = status == 0 ? 200 : (status == SimulatorException.UNKNOWN_COMMAND ? 404 :
+            500);
+        return new Response(httpStatus, json.toString().getBytes(StandardCharsets.
+            UTF_8));
+    }
+
+    private static JsonObject parse(byte[] content) {
+        if (content == null || content.length == 0) {
+            return Json.createObjectBuilder().build();
+        }
+        try (JsonReader jsonReader = Json.createReader(new StringReader(new String(content,
+            StandardCharsets.UTF_8)))) {
+            return jsonReader.readObject();
+        }
+        catch (JsonException e) {
+            return Json.createObjectBuilder().build();
+        }
+    }
+
+    private static Map<String, Object> map(Object... entries) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int index = 0; index < entries.length; index += 2) {
+            map.put((String) entries[index], entries[index + 1]);
+        }
+        return map;
+    }
+
+    /**
+     * Writes value (null, String, Number, Boolean, Map or List of them) as JSON.
+     */
+    private static void append(StringBuilder json, Object value) {
+        if (value == null) {
+            json.append("null");
+        }
+        else if (value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        }
+        else if (value instanceof Map) {
+            json.append("{");
+            String separator = "";
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                json.append(separator);
+                CommandHandler.append(json, String.valueOf(entry.getKey()));
+                json.append(":");
+                CommandHandler.append(json, entry.getValue());
+                separator = ",";
+            }
+            json.append("}");
+        }
+        else if (value instanceof List) {
+            json.append("[");
+            String separator = "";
+            for (Object item : (List<?>) value) {
+                json.append(separator);
+                CommandHandler.append(json, item);
+                separator = ",";
+            }
+            json.append("]");
+        }
+        else {
+            json.append("\"");
+            for (char character : value.toString().toCharArray()) {
+                switch (character) {
+                    case '"':
+                        json.append("\\\"");
+                        break;
+                    case '\\':
+                        json.append("\\\\");
+                        break;
+                    case '\n':
+                        json.append("\\n");
+                        break;
+                    case '\r':
+                        json.append("\\r");
+                        break;
+                    case '\t':
+                        json.append("\\t");
+                        break;
+                    default:
+                        if (character < 0x20) {
+                            json.append(String.format("\\u%04x", (int) character));
+                        }
+                        else {
+                            json.append(character);
+                        }
+                }
+            }
+            json.append("\"");
+        }
+    }
+
+    /**
+     * Response to command: HTTP status and JSON body.
+     */
+    public static class Response {
+        private int status;
+        private byte[] content;
+
+        public Response(int status, byte[] content) {
+            this.status = status;
+            this.content = content;
+        }
+
+        public int getStatus() {
+            return this.status;
+        }
+
+        public byte[] getContent() {
+            return this.content;
+        }
+    }
+
+    /**
+     * State of session: device and settings of client.
+     */
+    private static class Session {
+        private SimulatedDevice device;
+        // Implicit wait (milliseconds) set by client
+        private int implicitWait = 0;
+        private String context = "NATIVE_APP";
+
+        private Session(SimulatedDevice device) {
+            this.device = device;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package lib.mates.pom.simulator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+
+/**
+ * HTTP server speaking JSON Wire Protocol of Appium Server (/wd/hub) on localhost, backed by
+ * recorded screens of app. Lets tests run without device: AndroidDriver connects to it as to
+ * real Appium Server.
+ * <pre>
+ * java lib.mates.pom.simulator.FakeAppiumServer 4730 src/data/screens/moviemates.json 40
+ * </pre>
+ */
+public class FakeAppiumServer {
+    // Running servers keyed by port
+    private static Map<Integer, FakeAppiumServer> servers = new HashMap<>();
+    private HttpServer httpServer;
+    private ExecutorService executor;
+    private CommandHandler commandHandler;
+
+    /**
+     * @param port  Port to listen on.
+     * @param commandHandler  Handler of commands.
+     * @throws IOException
+     */
+    public FakeAppiumServer(int port, CommandHandler commandHandler) throws IOException {
+        this.commandHandler = commandHandler;
+        this.httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.httpServer.createContext("/", exchange -> this.handle(exchange));
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-appium-" + port);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpServer.setExecutor(this.executor);
+        this.httpServer.start();
+    }
+
+    /**
+     * Starts server on port unless it is already running there.
+     * @param port  Port to listen on.
+     * @param manifestPath  Path to manifest of recorded screens.
+     * @param latency  Delay (milliseconds) of every command.
+     * @return  Running server.
+     * @throws IOException
+     */
+    public static synchronized FakeAppiumServer start(int port, Path manifestPath, int latency)
+        throws IOException {
+        FakeAppiumServer server = FakeAppiumServer.servers.get(port);
+        if (server == null) {
+            server = new FakeAppiumServer(port, new CommandHandler(ScreenSet.load(manifestPath),
+                latency));
+            FakeAppiumServer.servers.put(port, server);
+        }
+        return server;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 4730;
+        Path manifestPath = args.length > 1 ? Paths.get(args[1]) : Paths.get(System.getProperty(
+            "user.dir"), "src", "data", "screens", "moviemates.json");
+        int latency = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        new FakeAppiumServer(port, new CommandHandler(ScreenSet.load(manifestPath), latency));
+        System.out.println("Fake Appium Server is listening on http://127.0.0.1:" + port +
+            "/wd/hub");
+    }
+
+    public CommandHandler getCommandHandler() {
+        return this.commandHandler;
+    }
+
+    /**
+     * Stops server.
+     */
+    public void stop() {
+        synchronized (FakeAppiumServer.class) {
+            FakeAppiumServer.servers.values().remove(this);
+        }
+        this.httpServer.stop(0);
+        this.executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] content;
+        try (InputStream input = exchange.getRequestBody()) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            for (int count = input.read(chunk); count >= 0; count = input.read(chunk)) {
+                buffer.write(chunk, 0, count);
+            }
+            content = buffer.toByteArray();
+        }
+        CommandHandler.Response response = this.commandHandler.handle(exchange.getRequestMethod(),
+            exchange.getRequestURI().getPath(), content);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.getStatus(), response.getContent().length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(response.getContent());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package lib.mates.pom.simulator;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+
+
+/**
+ * HTTP client of AppiumDriver handing requests straight to CommandHandler of simulated device, 
+ * without server, sockets or serialization beyond JSON of the protocol. Makes AndroidDriver 
+ * evaluate locators and gestures against recorded screens at CPU speed.
+ */
+public class InMemoryHttpClient implements HttpClient {
+    // Handlers of simulated devices keyed by UDID, shared by all sessions of device
+    private static Map<String, CommandHandler> commandHandlers = new HashMap<>();
+    private CommandHandler commandHandler;
+
+    /**
+     * @param commandHandler  Handler of commands of simulated device.
+     */
+    public InMemoryHttpClient(CommandHandler commandHandler) {
+        this.commandHandler = commandHandler;
+    }
+
+    /**
+     * Returns handler of simulated device, creating it on first call.
+     * @param deviceId  Universal Device ID of simulated device.
+     * @param manifestPath  Path to manifest of recorded screens.
+     * @param latency  Delay (milliseconds) of every command.
+     * @return  Handler shared by all in-process sessions of device.
+     * @throws IOException
+     */
+    public static synchronized CommandHandler getCommandHandler(String deviceId, Path manifestPath, 
+        int latency) throws IOException {
+        CommandHandler commandHandler = InMemoryHttpClient.commandHandlers.get(deviceId);
+        if (commandHandler == null) {
+            commandHandler = new CommandHandler(ScreenSet.load(manifestPath), latency);
+            InMemoryHttpClient.commandHandlers.put(deviceId, commandHandler);
+        }
+        return commandHandler;
+    }
+
+    /**
+     * Replaces handler of simulated device, so that following sessions of device run against
+     * other screens (ex. generated by SyntheticScreens).
+     * @param deviceId  Universal Device ID of simulated device.
+     * @param commandHandler  Handler of commands.
+     */
+    public static synchronized void setCommandHandler(String deviceId, CommandHandler
+        commandHandler) {
+        InMemoryHttpClient.commandHandlers.put(deviceId, commandHandler);
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request, boolean followRedirects) throws IOException {
+        CommandHandler.Response response = this.commandHandler.handle(request.getMethod().name(), 
+            request.getUri(), request.getContent());
+        HttpResponse httpResponse = new HttpResponse();
+        httpResponse.setStatus(response.getStatus());
+        httpResponse.setHeader("Content-Type", "application/json; charset=utf-8");
+        httpResponse.setContent(response.getContent());
+        return httpResponse;
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+
+
+    /**
+     * Creates in-memory clients bound to handler of simulated device.
+     */
+    public static class Factory implements HttpClient.Factory {
+        private CommandHandler commandHandler;
+
+        /**
+         * @param commandHandler  Handler of commands of simulated device.
+         */
+        public Factory(CommandHandler commandHandler) {
+            this.commandHandler = commandHandler;
+        }
+
+        @Override
+        public HttpClient createClient(URL url) {
+            return new InMemoryHttpClient(this.commandHandler);
+        }
+    }
+}
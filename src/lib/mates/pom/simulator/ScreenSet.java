@@ -0,0 +1,270 @@
+package lib.mates.pom.simulator;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+
+/**
+ * Set of recorded screens of app replayed by SimulatedDevice, described by JSON manifest
+ * (src/data/screens/moviemates.json). Each screen is page source of whole screen with scrollable
+ * content laid out in full, as if the screen were tall (or wide) enough to show all of it:
+ * <pre>
+ * {
+ *     "start": "movies",
+ *     "touchSlop": 16,
+ *     "screens": {
+ *         "movies": {
+ *             "source": "movies.xml",
+ *             "scrollables": {"us.moviemates:id/listView": "vertical"},
+ *             "taps": [{"id": "us.moviemates:id/rlItemFilm", "screen": "details"}]
+ *         }
+ *     }
+ * }
+ * </pre>
+ * Nodes with attribute sim-visible="false" are not rendered until toggled by tap. Attribute
+ * values "{{date+N:PATTERN}}" are replaced with date N days from today formatted by
+ * DateTimeFormatter pattern in upper case ("{{date+1:EEEE}}" -> "FRIDAY").
+ */
+public class ScreenSet {
+    private static final Pattern DATE_PLACEHOLDER = Pattern.compile(
+        "\\{\\{date([+-]\\d+)?:([^}]+)\\}\\}");
+    // Screen shown on app launch
+    private String startScreen;
+    // Distance (pixels) finger moves before content starts scrolling
+    private int touchSlop;
+    private Map<String, Screen> screens = new LinkedHashMap<>();
+
+    /**
+     * @param startScreen  Name of screen shown on app launch.
+     * @param touchSlop  Distance (pixels) finger moves before content starts scrolling.
+     */
+    public ScreenSet(String startScreen, int touchSlop) {
+        this.startScreen = startScreen;
+        this.touchSlop = touchSlop;
+    }
+
+    /**
+     * Reads manifest and page sources of screens it refers to.
+     * @param manifestPath  Path to JSON manifest; sources are resolved against its directory.
+     * @return  Instance of ScreenSet.
+     * @throws IOException
+     */
+    public static ScreenSet load(Path manifestPath) throws IOException {
+        JsonObject manifest;
+        try (Reader reader = Files.newBufferedReader(manifestPath)) {
+            JsonReader jsonReader = Json.createReader(reader);
+            manifest = jsonReader.readObject();
+            jsonReader.close();
+        }
+        ScreenSet screenSet = new ScreenSet(manifest.getString("start"), manifest.getInt(
+            "touchSlop", 0));
+        JsonObject screens = manifest.getJsonObject("screens");
+        for (String name : screens.keySet()) {
+            JsonObject screenInfo = screens.getJsonObject(name);
+            Screen screen = new Screen(name, ScreenSet.parse(manifestPath.resolveSibling(
+                screenInfo.getString("source"))));
+            JsonObject scrollables = screenInfo.getJsonObject("scrollables");
+            if (scrollables != null) {
+                for (String id : scrollables.keySet()) {
+                    screen.addScrollable(id, "vertical".equals(scrollables.getString(id)));
+                }
+            }
+            if (screenInfo.containsKey("taps")) {
+                for (JsonObject tap : screenInfo.getJsonArray("taps").getValuesAs(JsonObject.
+                    class)) {
+                    screen.addTapAction(new TapAction(tap.getString("id"), tap.getString(
+                        "screen", null), tap.getString("toggle", null), tap.getBoolean("select",
+                        false)));
+                }
+            }
+            screenSet.addScreen(screen);
+        }
+        return screenSet;
+    }
+
+    /**
+     * Parses page source of screen and resolves date placeholders.
+     * @param sourcePath  Path to XML file.
+     * @return  DOM document.
+     * @throws IOException
+     */
+    public static Document parse(Path sourcePath) throws IOException {
+        Document document;
+        try (Reader reader = Files.newBufferedReader(sourcePath)) {
+            document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new InputSource(
+                reader));
+        }
+        catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Screen cannot be parsed: " + sourcePath, e);
+        }
+        ScreenSet.resolvePlaceholders(document.getDocumentElement(), LocalDate.now());
+        return document;
+    }
+
+    /**
+     * Returns value of attribute of element of recorded screen.
+     * @param node  Node of element.
+     * @param name  Name of attribute ("resource-id", "bounds"...).
+     * @return  Value of attribute, null if not present.
+     */
+    public static String getAttribute(Node node, String name) {
+        NamedNodeMap attributes = node.getAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Node attribute = attributes.getNamedItem(name);
+        return attribute != null ? attribute.getNodeValue() : null;
+    }
+
+    public void addScreen(Screen screen) {
+        this.screens.put(screen.getName(), screen);
+    }
+
+    public String getStartScreen() {
+        return this.startScreen;
+    }
+
+    public int getTouchSlop() {
+        return this.touchSlop;
+    }
+
+    /**
+     * @param name  Name of screen.
+     * @return  Screen, null if not defined.
+     */
+    public Screen getScreen(String name) {
+        return this.screens.get(name);
+    }
+
+    private static void resolvePlaceholders(Element element, LocalDate today) {
+        NamedNodeMap attributes = element.getAttributes();
+        for (int index = 0; index < attributes.getLength(); index++) {
+            Node attribute = attributes.item(index);
+            Matcher matcher = ScreenSet.DATE_PLACEHOLDER.matcher(attribute.getNodeValue());
+            if (matcher.find()) {
+                StringBuffer value = new StringBuffer();
+                do {
+                    int days = matcher.group(1) != null ? Integer.parseInt(matcher.group(1).
+                        replace("+", "")) : 0;
+                    matcher.appendReplacement(value, Matcher.quoteReplacement(today.plusDays(days).
+                        format(DateTimeFormatter.ofPattern(matcher.group(2), Locale.ENGLISH)).
+                        toUpperCase(Locale.ENGLISH)));
+                } while (matcher.find());
+                matcher.appendTail(value);
+                attribute.setNodeValue(value.toString());
+            }
+        }
+        NodeList children = element.getChildNodes();
+        for (int index = 0; index < children.getLength(); index++) {
+            if (children.item(index).getNodeType() == Node.ELEMENT_NODE) {
+                ScreenSet.resolvePlaceholders((Element) children.item(index), today);
+            }
+        }
+    }
+
+
+    /**
+     * Recorded screen: page source, scrollable containers and reactions to taps.
+     */
+    public static class Screen {
+        private String name;
+        private Document document;
+        // Orientation (true - vertical) keyed by resource ID of scrollable container
+        private Map<String, Boolean> scrollables = new LinkedHashMap<>();
+        private List<TapAction> tapActions = new ArrayList<>();
+
+        /**
+         * @param name  Name of screen ("movies").
+         * @param document  Page source with scrollable content laid out in full.
+         */
+        public Screen(String name, Document document) {
+            this.name = name;
+            this.document = document;
+        }
+
+        public void addScrollable(String id, boolean isVertical) {
+            this.scrollables.put(id, isVertical);
+        }
+
+        public void addTapAction(TapAction tapAction) {
+            this.tapActions.add(tapAction);
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public Document getDocument() {
+            return this.document;
+        }
+
+        public Map<String, Boolean> getScrollables() {
+            return Collections.unmodifiableMap(this.scrollables);
+        }
+
+        public List<TapAction> getTapActions() {
+            return Collections.unmodifiableList(this.tapActions);
+        }
+    }
+
+
+    /**
+     * Reaction to tap on element with given resource ID (or on its descendant).
+     */
+    public static class TapAction {
+        private String id;
+        // Screen to navigate to, null if tap does not navigate
+        private String screen;
+        // Resource ID of node next to tapped element shown or hidden by tap
+        private String toggle;
+        // If set, tapped element becomes the only selected one of its kind
+        private boolean select;
+
+        public TapAction(String id, String screen, String toggle, boolean select) {
+            this.id = id;
+            this.screen = screen;
+            this.toggle = toggle;
+            this.select = select;
+        }
+
+        public String getId() {
+            return this.id;
+        }
+
+        public String getScreen() {
+            return this.screen;
+        }
+
+        public String getToggle() {
+            return this.toggle;
+        }
+
+        public boolean isSelect() {
+            return this.select;
+        }
+    }
+}
@@ -0,0 +1,802 @@
+package lib.mates.pom.simulator;
+
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import lib.mates.pom.snapshot.Bounds;
+
+
+/**
+ * Device replaying recorded screens of ScreenSet. Scrollable containers show window (viewport)
+ * of their content moved by swipes; nodes outside viewport are not rendered and nodes crossing
+ * its border are clipped together with their descendants, the way UiAutomator truncates partially
+ * visible items. Taps navigate between screens or toggle nodes as set in manifest.
+ */
+public class SimulatedDevice {
+    // Key of user data linking rendered node to node of working copy
+    private static final String ORIGIN = "origin";
+    private ScreenSet screenSet;
+    // Working copies of screens, changed by taps; keyed by name of screen
+    private Map<String, Document> documents = new HashMap<>();
+    // Name of current screen, null if app is closed
+    private String screenName;
+    // Screens to return to by "back"
+    private Deque<String> history = new ArrayDeque<>();
+    // Scroll offset (pixels) keyed by "screen/resource ID" of container
+    private Map<String, Integer> offsets = new HashMap<>();
+    // Max scroll offset (pixels) keyed by "screen/resource ID", as of last render
+    private Map<String, Integer> maxOffsets = new HashMap<>();
+    // Rendered current screen, null if stale
+    private Document rendered;
+    private String renderedSource;
+    // Rendered node keyed by node of working copy it is rendered from
+    private Map<Node, Node> renderedNodes = new IdentityHashMap<>();
+    // Rendered scrollable containers in document order
+    private List<Node> renderedScrollables = new ArrayList<>();
+    // Parsed bounds and content end of nodes of working copies; geometry never changes
+    private Map<Node, Bounds> bounds = new IdentityHashMap<>();
+    private Map<Node, Integer> contentEnds = new IdentityHashMap<>();
+    // Layout of children of scrollable containers of working copies
+    private Map<Node, Layout> layouts = new IdentityHashMap<>();
+    // Nodes of working copies keyed by element ID given to client, and back
+    private Map<String, Node> elements = new HashMap<>();
+    private Map<Node, String> elementIds = new IdentityHashMap<>();
+    private int nextElementId = 1;
+    // Number of swipes made by client and by device itself (UiScrollable)
+    private int swipeCount = 0;
+    private XPath xpath = XPathFactory.newInstance().newXPath();
+    private Transformer transformer;
+
+    /**
+     * @param screenSet  Recorded screens of app.
+     */
+    public SimulatedDevice(ScreenSet screenSet) {
+        this.screenSet = screenSet;
+        this.launchApp();
+    }
+
+    /**
+     * Starts app from scratch: start screen, no scroll, recorded state of toggles.
+     */
+    public synchronized void launchApp() {
+        this.documents.clear();
+        this.history.clear();
+        this.offsets.clear();
+        this.elements.clear();
+        this.elementIds.clear();
+        this.screenName = this.screenSet.getStartScreen();
+        this.invalidate();
+    }
+
+    /**
+     * Closes app; empty hierarchy is rendered until app is launched.
+     */
+    public synchronized void closeApp() {
+        this.screenName = null;
+        this.invalidate();
+    }
+
+    /**
+     * Returns to previous screen, if any.
+     */
+    public synchronized void back() {
+        if (! this.history.isEmpty()) {
+            this.screenName = this.history.pop();
+            this.invalidate();
+        }
+    }
+
+    public synchronized String getScreenName() {
+        return this.screenName;
+    }
+
+    /**
+     * Returns number of swipes made on device so far, by client or by UiScrollable.
+     * @return  Number of swipes.
+     */
+    public synchronized int getSwipeCount() {
+        return this.swipeCount;
+    }
+
+    /**
+     * Returns page source of current state of screen.
+     * @return  XML as returned by Appium Server.
+     */
+    public synchronized String getPageSource() {
+        if (this.renderedSource == null) {
+            this.render();
+            try {
+                if (this.transformer == null) {
+                    this.transformer = TransformerFactory.newInstance().newTransformer();
+                }
+                StringWriter writer = new StringWriter();
+                this.transformer.transform(new DOMSource(this.rendered), new StreamResult(writer));
+                this.renderedSource = writer.toString();
+            }
+            catch (TransformerException e) {
+                throw new SimulatorException(SimulatorException.UNKNOWN_ERROR, e.getMessage());
+            }
+        }
+        return this.renderedSource;
+    }
+
+    /**
+     * Returns size of screen.
+     * @return  Bounds of root element of screen.
+     */
+    public synchronized Bounds getScreenBounds() {
+        this.render();
+        Node root = SimulatedDevice.getFirstElement(this.rendered.getDocumentElement());
+        return root != null ? Bounds.parse(ScreenSet.getAttribute(root, "bounds")) : new
+            Bounds(0, 0, 0, 0);
+    }
+
+    /**
+     * Finds elements on screen.
+     * @param contextId  ID of element to search within, null for whole screen.
+     * @param strategy  "id", "xpath", "class name", "accessibility id" or "-android uiautomator".
+     * @param value  Locator.
+     * @return  IDs of found elements in document order, empty if none.
+     */
+    public synchronized List<String> findElements(String contextId, String strategy, String value) {
+        this.render();
+        Node context = contextId != null ? this.resolve(contextId) : this.rendered;
+        List<Node> nodes = new ArrayList<>();
+        switch (strategy) {
+            case "id":
+                this.collect(context, "resource-id", value, nodes);
+                break;
+            case "class name":
+                this.collect(context, "class", value, nodes);
+                break;
+            case "accessibility id":
+                this.collect(context, "content-desc", value, nodes);
+                break;
+            case "xpath":
+                for (Node node : this.evaluate(value)) {
+                    if (context == this.rendered || SimulatedDevice.isDescendant(node, context)) {
+                        nodes.add(node);
+                    }
+                }
+                break;
+            case "-android uiautomator":
+                UiSelector selector;
+                try {
+                    selector = UiSelector.parse(value);
+                }
+                catch (IllegalArgumentException e) {
+                    throw new SimulatorException(SimulatorException.INVALID_SELECTOR, e.
+                        getMessage());
+                }
+                if (selector.getScrollTarget() != null) {
+                    Node node = this.scrollIntoView(selector);
+                    if (node != null) {
+                        nodes.add(node);
+                    }
+                }
+                else {
+                    nodes.addAll(this.select(context, selector));
+                }
+                break;
+            default:
+                throw new SimulatorException(SimulatorException.INVALID_SELECTOR,
+                    "Unsupported locator strategy: " + strategy);
+        }
+        List<String> ids = new ArrayList<>();
+        for (Node node : nodes) {
+            ids.add(this.getElementId(node));
+        }
+        return ids;
+    }
+
+    /**
+     * Returns attribute of element. Names used by Appium ("resourceId", "className", "name",
+     * "contentDescription") are mapped to attributes of page source.
+     * @param elementId  ID of element.
+     * @param name  Name of attribute.
+     * @return  Value of attribute, null if element has no such attribute.
+     */
+    public synchronized String getAttribute(String elementId, String name) {
+        Node node = this.resolve(elementId);
+        switch (name) {
+            case "resourceId":
+                name = "resource-id";
+                break;
+            case "className":
+                name = "class";
+                break;
+            case "name":
+            case "contentDescription":
+                name = "content-desc";
+                break;
+        }
+        return ScreenSet.getAttribute(node, name);
+    }
+
+    /**
+     * Returns location and size of element as rendered now.
+     * @param elementId  ID of element.
+     * @return  Bounds of element.
+     */
+    public synchronized Bounds getBounds(String elementId) {
+        return Bounds.parse(ScreenSet.getAttribute(this.resolve(elementId), "bounds"));
+    }
+
+    /**
+     * Taps element in its center.
+     * @param elementId  ID of element.
+     */
+    public synchronized void tapElement(String elementId) {
+        Bounds bounds = this.getBounds(elementId);
+        this.tap(bounds.getCenterX(), bounds.getCenterY());
+    }
+
+    /**
+     * Taps screen. Reaction is taken from tap action of the innermost tapped element having one.
+     * @param x  X coordinate.
+     * @param y  Y coordinate.
+     */
+    public synchronized void tap(int x, int y) {
+        this.render();
+        ScreenSet.Screen screen = this.screenSet.getScreen(this.screenName);
+        for (Node node = this.hitTest(this.rendered, x, y); node != null && node.getNodeType() ==
+            Node.ELEMENT_NODE; node = node.getParentNode()) {
+            String id = ScreenSet.getAttribute(node, "resource-id");
+            for (ScreenSet.TapAction tapAction : screen.getTapActions()) {
+                if (tapAction.getId().equals(id)) {
+                    this.perform(tapAction, (Element) node.getUserData(SimulatedDevice.ORIGIN));
+                    this.invalidate();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Swipes screen. Innermost scrollable container under start point scrolled along the swipe
+     * moves its content by swipe distance less touch slop, within bounds of content.
+     * @param startX  X coordinate of start point.
+     * @param startY  Y coordinate of start point.
+     * @param endX  X coordinate of end point.
+     * @param endY  Y coordinate of end point.
+     */
+    public synchronized void swipe(int startX, int startY, int endX, int endY) {
+        this.render();
+        this.swipeCount++;
+        boolean isVertical = Math.abs(endY - startY) >= Math.abs(endX - startX);
+        Node container = null;
+        for (Node node : this.getScrollables()) {
+            Bounds bounds = Bounds.parse(ScreenSet.getAttribute(node, "bounds"));
+            if (SimulatedDevice.contains(bounds, startX, startY) && this.isVertical(node) ==
+                isVertical) {
+                // Scrollables are in document order, so the last one is the innermost
+                container = node;
+            }
+        }
+        if (container == null) {
+            return;
+        }
+        int distance = isVertical ? startY - endY : startX - endX;
+        int slop = this.screenSet.getTouchSlop();
+        distance = Math.abs(distance) <= slop ? 0 : distance - Integer.signum(distance) * slop;
+        String key = this.getOffsetKey(container);
+        this.setOffset(key, this.getOffset(key) + distance);
+        this.invalidate();
+    }
+
+    /**
+     * Makes scrollable container of UiScrollable show target element: container is scrolled to
+     * the beginning, then forward by 80% of its size until target is rendered.
+     * @return  Rendered node of target, null if end of content is reached without finding it.
+     */
+    private Node scrollIntoView(UiSelector selector) {
+        List<Node> containers = this.select(this.rendered, selector);
+        if (containers.isEmpty()) {
+            return null;
+        }
+        List<Node> targets = this.select(containers.get(0), selector.getScrollTarget());
+        if (! targets.isEmpty()) {
+            return targets.get(0);
+        }
+        Node origin = (Node) containers.get(0).getUserData(SimulatedDevice.ORIGIN);
+        String key = this.getOffsetKey(containers.get(0));
+        if (! this.maxOffsets.containsKey(key)) {
+            // Container is not scrollable
+            return null;
+        }
+        this.setOffset(key, 0);
+        for (int swipe = 0; swipe <= selector.getMaxSearchSwipes(); swipe++) {
+            if (swipe > 0) {
+                Bounds bounds = Bounds.parse(ScreenSet.getAttribute(containers.get(0),
+                    "bounds"));
+                int step = (this.isVertical(containers.get(0)) ? bounds.getHeight() : bounds.
+                    getWidth()) * 4 / 5;
+                int offset = this.getOffset(key);
+                this.setOffset(key, offset + step);
+                if (this.getOffset(key) == offset) {
+                    break;
+                }
+                this.swipeCount++;
+            }
+            this.invalidate();
+            this.render();
+            Node container = this.renderedNodes.get(origin);
+            if (container == null) {
+                return null;
+            }
+            containers.set(0, container);
+            targets = this.select(container, selector.getScrollTarget());
+            if (! targets.isEmpty()) {
+                return targets.get(0);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Evaluates UiSelector in context of node.
+     */
+    private List<Node> select(Node context, UiSelector selector) {
+        List<Node> matches = new ArrayList<>();
+        this.collect(context, selector, matches);
+        if (selector.getInstance() >= 0) {
+            matches = selector.getInstance() < matches.size() ? new ArrayList<>(matches.subList(
+                selector.getInstance(), selector.getInstance() + 1)) : new ArrayList<Node>();
+        }
+        if (selector.getChildSelector() == null) {
+            return matches;
+        }
+        Set<Node> children = new LinkedHashSet<>();
+        for (Node match : matches) {
+            children.addAll(this.select(match, selector.getChildSelector()));
+        }
+        return new ArrayList<>(children);
+    }
+
+    private void collect(Node context, UiSelector selector, List<Node> matches) {
+        NodeList children = context.getChildNodes();
+        for (int index = 0; index < children.getLength(); index++) {
+            Node child = children.item(index);
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                if (selector.matches(child)) {
+                    matches.add(child);
+                }
+                this.collect(child, selector, matches);
+            }
+        }
+    }
+
+    private void collect(Node context, String attributeName, String value, List<Node> nodes) {
+        NodeList children = context.getChildNodes();
+        for (int index = 0; index < children.getLength(); index++) {
+            Node child = children.item(index);
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                String attributeValue = ScreenSet.getAttribute(child, attributeName);
+                // Appium prefixes short IDs with package name ("tvTitle" -> "us.moviemates:id/tvTitle")
+                if (attributeValue != null && (attributeValue.equals(value) || ("resource-id".
+                    equals(attributeName) && ! value.contains(":") && attributeValue.endsWith(
+                    ":id/" + value)))) {
+                    nodes.add(child);
+                }
+                this.collect(child, attributeName, value, nodes);
+            }
+        }
+    }
+
+    private List<Node> evaluate(String expression) {
+        List<Node> nodes = new ArrayList<>();
+        try {
+            NodeList nodeList = (NodeList) this.xpath.evaluate(expression, this.rendered,
+                XPathConstants.NODESET);
+            for (int index = 0; index < nodeList.getLength(); index++) {
+                nodes.add(nodeList.item(index));
+            }
+        }
+        catch (XPathExpressionException e) {
+            throw new SimulatorException(SimulatorException.INVALID_SELECTOR, "Invalid XPath: " +
+                expression);
+        }
+        return nodes;
+    }
+
+    private void perform(ScreenSet.TapAction tapAction, Element origin) {
+        if (tapAction.getToggle() != null) {
+            // Nearest ancestor holding toggled node (ex. movie row for its "interested" shadow)
+            for (Node ancestor = origin.getParentNode(); ancestor instanceof Element; ancestor =
+                ancestor.getParentNode()) {
+                List<Node> toggled = new ArrayList<>();
+                this.collectAll((Element) ancestor, tapAction.getToggle(), toggled);
+                if (! toggled.isEmpty()) {
+                    for (Node node : toggled) {
+                        Element element = (Element) node;
+                        element.setAttribute("sim-visible", "false".equals(element.getAttribute(
+                            "sim-visible")) ? "true" : "false");
+                    }
+                    origin.setAttribute("checked", "true".equals(origin.getAttribute("checked")) ?
+                        "false" : "true");
+                    break;
+                }
+            }
+        }
+        if (tapAction.isSelect()) {
+            List<Node> nodes = new ArrayList<>();
+            this.collectAll(origin.getOwnerDocument().getDocumentElement(), tapAction.getId(),
+                nodes);
+            for (Node node : nodes) {
+                ((Element) node).setAttribute("selected", node == origin ? "true" : "false");
+            }
+        }
+        if (tapAction.getScreen() != null) {
+            this.history.push(this.screenName);
+            this.screenName = tapAction.getScreen();
+            // Screen opens scrolled to the top
+            this.offsets.keySet().removeIf(key -> key.startsWith(this.screenName + "/"));
+        }
+    }
+
+    /**
+     * Collects nodes of working copy with given resource ID, including hidden ones.
+     */
+    private void collectAll(Element element, String id, List<Node> nodes) {
+        NodeList children = element.getChildNodes();
+        for (int index = 0; index < children.getLength(); index++) {
+            Node child = children.item(index);
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                if (id.equals(((Element) child).getAttribute("resource-id"))) {
+                    nodes.add(child);
+                }
+                this.collectAll((Element) child, id, nodes);
+            }
+        }
+    }
+
+    /**
+     * Renders current state of screen, unless already rendered. Only nodes intersecting viewports
+     * of their scrollable containers are copied, so cost of rendering depends on size of screen
+     * rather than on length of lists.
+     */
+    private void render() {
+        if (this.rendered != null) {
+            return;
+        }
+        this.renderedNodes.clear();
+        this.renderedScrollables.clear();
+        try {
+            this.rendered = DocumentBuilderFactory.newInstance().newDocumentBuilder().
+                newDocument();
+        }
+        catch (ParserConfigurationException e) {
+            throw new SimulatorException(SimulatorException.UNKNOWN_ERROR, e.getMessage());
+        }
+        this.rendered.setXmlStandalone(true);
+        if (this.screenName == null) {
+            this.rendered.appendChild(this.rendered.createElement("hierarchy"));
+            return;
+        }
+        Element root = this.copy(this.getDocument(this.screenName).getDocumentElement(), 0, 0,
+            null, null);
+        this.rendered.appendChild(root);
+    }
+
+    /**
+     * Copies node of working copy to rendered document.
+     * @param origin  Node of working copy.
+     * @param dx  Horizontal shift of node by scrolling of enclosing containers.
+     * @param dy  Vertical shift of node by scrolling of enclosing containers.
+     * @param viewport  Visible area of the innermost enclosing container, null if not scrolled.
+     * @param axis  True if the innermost enclosing container scrolls vertically, false if
+     *     horizontally, null if there is no such container.
+     * @return  Rendered node, null if node is hidden or outside viewport.
+     */
+    private Element copy(Element origin, int dx, int dy, Bounds viewport, Boolean axis) {
+        if ("false".equals(origin.getAttribute("sim-visible"))) {
+            return null;
+        }
+        Bounds bounds = this.getOriginBounds(origin);
+        String renderedBounds = null;
+        if (bounds != null) {
+            int left = bounds.getLeft() + dx;
+            int top = bounds.getTop() + dy;
+            int right = bounds.getRight() + dx;
+            int bottom = bounds.getBottom() + dy;
+            if (viewport != null) {
+                left = Math.max(left, viewport.getLeft());
+                top = Math.max(top, viewport.getTop());
+                right = Math.min(right, viewport.getRight());
+                bottom = Math.min(bottom, viewport.getBottom());
+                if (left >= right || top >= bottom) {
+                    return null;
+                }
+            }
+            if (dx != 0 || dy != 0 || viewport != null) {
+                renderedBounds = String.format("[%d,%d][%d,%d]", left, top, right, bottom);
+            }
+        }
+        Element element = (Element) this.rendered.importNode(origin, false);
+        element.removeAttribute("sim-visible");
+        if (renderedBounds != null) {
+            element.setAttribute("bounds", renderedBounds);
+        }
+        element.setUserData(SimulatedDevice.ORIGIN, origin, null);
+        this.renderedNodes.put(origin, element);
+        Boolean isVertical = this.screenSet.getScreen(this.screenName).getScrollables().get(
+            origin.getAttribute("resource-id"));
+        if (isVertical != null && bounds != null) {
+            this.renderedScrollables.add(element);
+            String key = this.getOffsetKey(element);
+            // Content may extend beyond container by this much
+            int contentEnd = this.getContentEnd(origin, isVertical);
+            this.maxOffsets.put(key, Math.max(0, contentEnd - (isVertical ? bounds.getBottom() :
+                bounds.getRight())));
+            this.setOffset(key, this.getOffset(key));
+            int offset = this.getOffset(key);
+            dx -= isVertical ? 0 : offset;
+            dy -= isVertical ? offset : 0;
+            viewport = Bounds.parse(element.getAttribute("bounds"));
+            axis = isVertical;
+        }
+        else {
+            isVertical = null;
+        }
+        if (axis == null) {
+            for (Node child = origin.getFirstChild(); child != null; child = child.
+                getNextSibling()) {
+                if (child.getNodeType() == Node.ELEMENT_NODE) {
+                    Element childElement = this.copy((Element) child, dx, dy, viewport, null);
+                    if (childElement != null) {
+                        element.appendChild(childElement);
+                    }
+                }
+            }
+            return element;
+        }
+        // Only items near viewport are visited, so long lists render as fast as short ones
+        Layout layout = this.getLayout(origin, axis);
+        int viewportStart = axis ? viewport.getTop() - dy : viewport.getLeft() - dx;
+        int viewportEnd = axis ? viewport.getBottom() - dy : viewport.getRight() - dx;
+        // Lists recycle item views, so items of scrolled list are indexed from first visible one
+        int itemIndex = 0;
+        for (int index = layout.getFirstIndex(viewportStart); index < layout.children.size() && (
+            ! layout.isSorted || layout.starts[index] < viewportEnd); index++) {
+            Element childElement = this.copy(layout.children.get(index), dx, dy, viewport, axis);
+            if (childElement != null) {
+                if (isVertical != null) {
+                    childElement.setAttribute("index", String.valueOf(itemIndex++));
+                }
+                element.appendChild(childElement);
+            }
+        }
+        return element;
+    }
+
+    /**
+     * Returns layout of children of node of working copy along scroll axis.
+     */
+    private Layout getLayout(Element container, boolean isVertical) {
+        Layout layout = this.layouts.get(container);
+        if (layout == null) {
+            layout = new Layout();
+            for (Node child = container.getFirstChild(); child != null; child = child.
+                getNextSibling()) {
+                if (child.getNodeType() == Node.ELEMENT_NODE) {
+                    layout.children.add((Element) child);
+                }
+            }
+            int count = layout.children.size();
+            layout.starts = new int[count];
+            layout.maxEnds = new int[count];
+            for (int index = 0; index < count; index++) {
+                Bounds bounds = this.getOriginBounds(layout.children.get(index));
+                // Item without geometry is always rendered
+                int start = bounds == null ? Integer.MIN_VALUE : (isVertical ? bounds.getTop() :
+                    bounds.getLeft());
+                int end = bounds == null ? Integer.MAX_VALUE : (isVertical ? bounds.getBottom() :
+                    bounds.getRight());
+                layout.starts[index] = start;
+                layout.maxEnds[index] = index > 0 ? Math.max(layout.maxEnds[index - 1], end) : end;
+                layout.isSorted &= index == 0 || start >= layout.starts[index - 1];
+            }
+            this.layouts.put(container, layout);
+        }
+        return layout;
+    }
+
+    private void invalidate() {
+        this.rendered = null;
+        this.renderedSource = null;
+    }
+
+    private Document getDocument(String screenName) {
+        Document document = this.documents.get(screenName);
+        if (document == null) {
+            ScreenSet.Screen screen = this.screenSet.getScreen(screenName);
+            if (screen == null) {
+                throw new SimulatorException(SimulatorException.UNKNOWN_ERROR,
+                    "Screen is not defined: " + screenName);
+            }
+            document = (Document) screen.getDocument().cloneNode(true);
+            this.documents.put(screenName, document);
+        }
+        return document;
+    }
+
+    /**
+     * Returns rendered scrollable containers of current screen in document order.
+     */
+    private List<Node> getScrollables() {
+        return this.renderedScrollables;
+    }
+
+    private boolean isVertical(Node container) {
+        Boolean isVertical = this.screenSet.getScreen(this.screenName).getScrollables().get(
+            ScreenSet.getAttribute(container, "resource-id"));
+        return isVertical == null || isVertical;
+    }
+
+    private String getOffsetKey(Node container) {
+        return this.screenName + "/" + ScreenSet.getAttribute(container, "resource-id");
+    }
+
+    private int getOffset(String key) {
+        Integer offset = this.offsets.get(key);
+        return offset != null ? offset : 0;
+    }
+
+    private void setOffset(String key, int offset) {
+        Integer maxOffset = this.maxOffsets.get(key);
+        this.offsets.put(key, Math.max(0, maxOffset != null ? Math.min(offset, maxOffset) :
+            offset));
+    }
+
+    private String getElementId(Node renderedNode) {
+        Node origin = (Node) renderedNode.getUserData(SimulatedDevice.ORIGIN);
+        String elementId = this.elementIds.get(origin);
+        if (elementId == null) {
+            elementId = String.valueOf(this.nextElementId++);
+            this.elementIds.put(origin, elementId);
+            this.elements.put(elementId, origin);
+        }
+        return elementId;
+    }
+
+    /**
+     * Returns rendered node of element.
+     * @throws SimulatorException  If element is not rendered now (stale).
+     */
+    private Node resolve(String elementId) {
+        this.render();
+        Node origin = this.elements.get(elementId);
+        Node node = origin != null ? this.renderedNodes.get(origin) : null;
+        if (node == null) {
+            throw new SimulatorException(SimulatorException.STALE_ELEMENT_REFERENCE,
+                "Element is no longer attached to the page: " + elementId);
+        }
+        return node;
+    }
+
+    private Node hitTest(Node node, int x, int y) {
+        Node hit = null;
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                Bounds bounds = Bounds.parse(ScreenSet.getAttribute(child, "bounds"));
+                if (bounds == null || SimulatedDevice.contains(bounds, x, y)) {
+                    Node childHit = this.hitTest(child, x, y);
+                    hit = childHit != null ? childHit : (bounds != null ? child : hit);
+                }
+            }
+        }
+        return hit;
+    }
+
+
+
+    /**
+     * Returns parsed bounds of node of working copy.
+     */
+    private Bounds getOriginBounds(Node origin) {
+        if (! this.bounds.containsKey(origin)) {
+            this.bounds.put(origin, Bounds.parse(ScreenSet.getAttribute(origin, "bounds")));
+        }
+        return this.bounds.get(origin);
+    }
+
+    /**
+     * Returns bottom (or right) edge of the farthest descendant of container of working copy.
+     */
+    private int getContentEnd(Node container, boolean isVertical) {
+        Integer contentEnd = this.contentEnds.get(container);
+        if (contentEnd == null) {
+            contentEnd = Integer.MIN_VALUE;
+            for (Node child = container.getFirstChild(); child != null; child = child.
+                getNextSibling()) {
+                if (child.getNodeType() == Node.ELEMENT_NODE) {
+                    Bounds bounds = this.getOriginBounds(child);
+                    if (bounds != null) {
+                        contentEnd = Math.max(contentEnd, isVertical ? bounds.getBottom() :
+                            bounds.getRight());
+                    }
+                    contentEnd = Math.max(contentEnd, this.getContentEnd(child, isVertical));
+                }
+            }
+            this.contentEnds.put(container, contentEnd);
+        }
+        return contentEnd;
+    }
+
+    private static boolean contains(Bounds bounds, int x, int y) {
+        return x >= bounds.getLeft() && x < bounds.getRight() && y >= bounds.getTop() && y <
+            bounds.getBottom();
+    }
+
+    private static boolean isDescendant(Node node, Node ancestor) {
+        for (Node parent = node.getParentNode(); parent != null; parent = parent.getParentNode()) {
+            if (parent == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Node getFirstElement(Node node) {
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * Children of node inside scrollable container with their positions along scroll axis.
+     */
+    private static class Layout {
+        private List<Element> children = new ArrayList<>();
+        // Start of each child
+        private int[] starts;
+        // Max end of children up to each one; never decreases
+        private int[] maxEnds;
+        // Set if children are ordered by start, as items of lists are
+        private boolean isSorted = true;
+
+        /**
+         * Returns index of first child which may end after given position.
+         */
+        private int getFirstIndex(int position) {
+            int low = 0;
+            int high = this.maxEnds.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (this.maxEnds[middle] <= position) {
+                    low = middle + 1;
+                }
+                else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
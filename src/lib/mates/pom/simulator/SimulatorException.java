@@ -0,0 +1,29 @@
+package lib.mates.pom.simulator;
+
+
+/**
+ * Error of simulated command, reported to client with JSON Wire Protocol status code.
+ */
+public class SimulatorException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    public static final int NO_SUCH_SESSION = 6;
+    public static final int NO_SUCH_ELEMENT = 7;
+    public static final int UNKNOWN_COMMAND = 9;
+    public static final int STALE_ELEMENT_REFERENCE = 10;
+    public static final int UNKNOWN_ERROR = 13;
+    public static final int INVALID_SELECTOR = 32;
+    private int status;
+
+    /**
+     * @param status  JSON Wire Protocol status code.
+     * @param message  Description of error.
+     */
+    public SimulatorException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return this.status;
+    }
+}
@@ -0,0 +1,165 @@
+package lib.mates.pom.simulator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import lib.mates.pom.snapshot.Bounds;
+
+
+/**
+ * Builds screens with movie, date and cinema lists of arbitrary length out of recorded screens, to
+ * measure how navigation scales with length of list. Recorded items are repeated in turn with
+ * their pitch; texts identifying items are numbered (movie i is titled "Movie 0000i", date i is
+ * i days from today).
+ */
+public class SyntheticScreens {
+    public static final String MOVIE_TITLE = "Movie %05d";
+    public static final String CINEMA_NAME = "Cinema %05d";
+    // Prefix of resource IDs of app
+    private static final String ID = "us.moviemates:id/";
+
+    /**
+     * Interface of callback giving texts to generated item.
+     */
+    private interface Labeler {
+        void label(Element item, int index);
+    }
+
+    /**
+     * Loads recorded screens and resizes their lists.
+     * @param manifestPath  Path to manifest of recorded screens (src/data/screens/moviemates.json).
+     * @param movieCount  Number of movies on "movies" screen.
+     * @param dateCount  Number of dates on "movies" screen.
+     * @param cinemaCount  Number of cinemas on "details" screen.
+     * @return  Screens with lists of given length.
+     * @throws IOException
+     */
+    public static ScreenSet create(Path manifestPath, int movieCount, int dateCount, int
+        cinemaCount) throws IOException {
+        ScreenSet screenSet = ScreenSet.load(manifestPath);
+        ScreenSet.Screen movies = screenSet.getScreen("movies");
+        SyntheticScreens.resize(movies, SyntheticScreens.ID + "rlItemFilm", movieCount, (item,
+            index) -> SyntheticScreens.setText(item, "tvTitle", String.format(SyntheticScreens.
+            MOVIE_TITLE, index)));
+        SyntheticScreens.resize(movies, SyntheticScreens.ID + "rl_date_picker_item", dateCount, (
+            item, index) -> {
+            LocalDate date = LocalDate.now().plusDays(index);
+            SyntheticScreens.setText(item, "tv_date_picker_month_name", SyntheticScreens.format(
+                date, "MMM"));
+            SyntheticScreens.setText(item, "tv_date_picker_day", SyntheticScreens.format(date,
+                "d"));
+            SyntheticScreens.setText(item, "tv_date_picker_day_name", SyntheticScreens.format(
+                date, "EEEE"));
+        });
+        SyntheticScreens.resize(screenSet.getScreen("details"), SyntheticScreens.ID + "rlCard",
+            cinemaCount, (item, index) -> SyntheticScreens.setText(item, "tvAddress", String.
+            format(SyntheticScreens.CINEMA_NAME, index)));
+        return screenSet;
+    }
+
+    /**
+     * Makes list of items with given resource ID hold given number of items. Enclosing layouts up
+     * to scrollable container grow (or shrink) with the list and nodes following them move.
+     */
+    private static void resize(ScreenSet.Screen screen, String itemId, int count, Labeler labeler) {
+        List<Element> items = new ArrayList<>();
+        SyntheticScreens.collect(screen.getDocument().getDocumentElement(), itemId, items);
+        if (items.size() < 2) {
+            throw new IllegalArgumentException("List needs two recorded items at least: " +
+                itemId);
+        }
+        Bounds first = Bounds.parse(items.get(0).getAttribute("bounds"));
+        Bounds second = Bounds.parse(items.get(1).getAttribute("bounds"));
+        boolean isVertical = second.getTop() != first.getTop();
+        int pitch = isVertical ? second.getTop() - first.getTop() : second.getLeft() - first.
+            getLeft();
+        int recordedCount = items.size();
+        Node list = items.get(0).getParentNode();
+        Node next = items.get(recordedCount - 1).getNextSibling();
+        for (int index = count; index < recordedCount; index++) {
+            list.removeChild(items.get(index));
+        }
+        for (int index = 0; index < count; index++) {
+            Element item;
+            if (index < recordedCount) {
+                item = items.get(index);
+            }
+            else {
+                item = (Element) items.get(index % recordedCount).cloneNode(true);
+                int distance = (index - index % recordedCount) * pitch;
+                SyntheticScreens.shift(item, isVertical ? 0 : distance, isVertical ? distance : 0);
+                item.setAttribute("index", String.valueOf(index));
+                list.insertBefore(item, next);
+            }
+            labeler.label(item, index);
+        }
+        // Layouts between list and scrollable container take size of their content
+        int growth = (count - recordedCount) * pitch;
+        Map<String, Boolean> scrollables = screen.getScrollables();
+        for (Node node = list; node instanceof Element && ! scrollables.containsKey(((Element)
+            node).getAttribute("resource-id")); node = node.getParentNode()) {
+            Element layout = (Element) node;
+            Bounds bounds = Bounds.parse(layout.getAttribute("bounds"));
+            layout.setAttribute("bounds", String.format("[%d,%d][%d,%d]", bounds.getLeft(), bounds.
+                getTop(), bounds.getRight() + (isVertical ? 0 : growth), bounds.getBottom() +
+                (isVertical ? growth : 0)));
+            for (Node sibling = layout.getNextSibling(); sibling != null; sibling = sibling.
+                getNextSibling()) {
+                if (sibling instanceof Element) {
+                    SyntheticScreens.shift((Element) sibling, isVertical ? 0 : growth, isVertical ?
+                        growth : 0);
+                }
+            }
+        }
+    }
+
+    private static void collect(Element element, String id, List<Element> items) {
+        NodeList children = element.getChildNodes();
+        for (int index = 0; index < children.getLength(); index++) {
+            if (children.item(index) instanceof Element) {
+                Element child = (Element) children.item(index);
+                if (id.equals(child.getAttribute("resource-id"))) {
+                    items.add(child);
+                }
+                else {
+                    SyntheticScreens.collect(child, id, items);
+                }
+            }
+        }
+    }
+
+    private static void setText(Element item, String id, String text) {
+        List<Element> elements = new ArrayList<>();
+        SyntheticScreens.collect(item, SyntheticScreens.ID + id, elements);
+        for (Element element : elements) {
+            element.setAttribute("text", text);
+        }
+    }
+
+    private static void shift(Element element, int dx, int dy) {
+        Bounds bounds = Bounds.parse(element.getAttribute("bounds"));
+        if (bounds != null) {
+            element.setAttribute("bounds", String.format("[%d,%d][%d,%d]", bounds.getLeft() + dx,
+                bounds.getTop() + dy, bounds.getRight() + dx, bounds.getBottom() + dy));
+        }
+        NodeList children = element.getChildNodes();
+        for (int index = 0; index < children.getLength(); index++) {
+            if (children.item(index) instanceof Element) {
+                SyntheticScreens.shift((Element) children.item(index), dx, dy);
+            }
+        }
+    }
+
+    private static String format(LocalDate date, String pattern) {
+        return date.format(DateTimeFormatter.ofPattern(pattern, Locale.ENGLISH)).toUpperCase(
+            Locale.ENGLISH);
+    }
+}
@@ -0,0 +1,274 @@
+package lib.mates.pom.simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.w3c.dom.Node;
+
+
+/**
+ * Subset of UiAutomator selectors evaluated by SimulatedDevice: "new UiSelector()" with
+ * resourceId, resourceIdMatches, className, classNameMatches, text, textMatches, textContains,
+ * textStartsWith, description, descriptionContains, index, instance, scrollable, clickable,
+ * checked, selected and childSelector, and "new UiScrollable(selector)" with setMaxSearchSwipes,
+ * setAsVerticalList, setAsHorizontalList and scrollIntoView.
+ */
+public class UiSelector {
+    private static final Set<String> CRITERIA = new HashSet<>(Arrays.asList("resourceId",
+        "resourceIdMatches", "className", "classNameMatches", "text", "textMatches",
+        "textContains", "textStartsWith", "description", "descriptionContains", "index",
+        "scrollable", "clickable", "checked", "selected"));
+    // Criteria as pairs of method name and argument
+    private List<Object[]> criteria = new ArrayList<>();
+    // Selector of descendants of matched nodes, null if none
+    private UiSelector childSelector;
+    // Number of match to return, -1 for all
+    private int instance = -1;
+    // Set for UiScrollable: this selector matches container, target is to be scrolled into view
+    private UiSelector scrollTarget;
+    private int maxSearchSwipes = 30;
+
+    /**
+     * Parses UiAutomator expression.
+     * @param expression  Expression ("new UiSelector().resourceId(\"id\").index(0)").
+     * @return  Parsed selector.
+     * @throws IllegalArgumentException  If expression is out of supported subset.
+     */
+    public static UiSelector parse(String expression) {
+        Parser parser = new Parser(expression);
+        UiSelector selector;
+        try {
+            selector = parser.parseNew();
+        }
+        catch (IndexOutOfBoundsException | ClassCastException e) {
+            throw new IllegalArgumentException("Malformed UiAutomator expression: " + expression,
+                e);
+        }
+        parser.skipWhitespace();
+        if (parser.position < expression.length()) {
+            throw new IllegalArgumentException("Unexpected input at " + parser.position + ": " +
+                expression);
+        }
+        return selector;
+    }
+
+    /**
+     * Checks if node satisfies criteria of selector (child selector and instance excluded).
+     * @param node  Element node of page source.
+     * @return  True if all criteria are met.
+     */
+    public boolean matches(Node node) {
+        for (Object[] criterion : this.criteria) {
+            if (! UiSelector.matches(node, (String) criterion[0], criterion[1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public UiSelector getChildSelector() {
+        return this.childSelector;
+    }
+
+    public int getInstance() {
+        return this.instance;
+    }
+
+    /**
+     * @return  Selector of element to scroll into view, null if expression is not UiScrollable.
+     */
+    public UiSelector getScrollTarget() {
+        return this.scrollTarget;
+    }
+
+    public int getMaxSearchSwipes() {
+        return this.maxSearchSwipes;
+    }
+
+    private static boolean matches(Node node, String method, Object argument) {
+        switch (method) {
+            case "resourceId":
+                return argument.equals(ScreenSet.getAttribute(node, "resource-id"));
+            case "resourceIdMatches":
+                return UiSelector.matchesPattern(ScreenSet.getAttribute(node, "resource-id"),
+                    argument);
+            case "className":
+                return argument.equals(ScreenSet.getAttribute(node, "class"));
+            case "classNameMatches":
+                return UiSelector.matchesPattern(ScreenSet.getAttribute(node, "class"),
+                    argument);
+            case "text":
+                return argument.equals(ScreenSet.getAttribute(node, "text"));
+            case "textMatches":
+                return UiSelector.matchesPattern(ScreenSet.getAttribute(node, "text"), argument);
+            case "textContains":
+                return String.valueOf(ScreenSet.getAttribute(node, "text")).contains(
+                    (String) argument);
+            case "textStartsWith":
+                return String.valueOf(ScreenSet.getAttribute(node, "text")).startsWith(
+                    (String) argument);
+            case "description":
+                return argument.equals(ScreenSet.getAttribute(node, "content-desc"));
+            case "descriptionContains":
+                return String.valueOf(ScreenSet.getAttribute(node, "content-desc")).contains(
+                    (String) argument);
+            case "index":
+                return String.valueOf(argument).equals(ScreenSet.getAttribute(node, "index"));
+            case "scrollable":
+            case "clickable":
+            case "checked":
+            case "selected":
+                return String.valueOf(argument).equals(ScreenSet.getAttribute(node, method));
+            default:
+                throw new IllegalArgumentException("Unsupported UiSelector method: " + method);
+        }
+    }
+
+    private static boolean matchesPattern(String value, Object pattern) {
+        return value != null && Pattern.compile((String) pattern).matcher(value).matches();
+    }
+
+
+    /**
+     * Recursive descent parser of "new Class(argument).method(argument)..." chains.
+     */
+    private static class Parser {
+        private String input;
+        private int position = 0;
+
+        Parser(String input) {
+            this.input = input;
+        }
+
+        UiSelector parseNew() {
+            this.expect("new");
+            String className = this.parseIdentifier();
+            this.expect("(");
+            Object argument = this.parseArgument();
+            this.expect(")");
+            UiSelector selector;
+            if ("UiSelector".equals(className) && argument == null) {
+                selector = new UiSelector();
+            }
+            else if ("UiScrollable".equals(className) && argument instanceof UiSelector) {
+                selector = (UiSelector) argument;
+                // Scrollable without scrollIntoView() behaves as its container
+                selector.scrollTarget = null;
+            }
+            else {
+                throw new IllegalArgumentException("Unsupported constructor: " + className);
+            }
+            boolean isScrollable = "UiScrollable".equals(className);
+            while (this.peek('.')) {
+                this.expect(".");
+                String method = this.parseIdentifier();
+                this.expect("(");
+                argument = this.parseArgument();
+                this.expect(")");
+                if (isScrollable) {
+                    switch (method) {
+                        case "scrollIntoView":
+                            selector.scrollTarget = (UiSelector) argument;
+                            break;
+                        case "setMaxSearchSwipes":
+                            selector.maxSearchSwipes = (Integer) argument;
+                            break;
+                        case "setAsVerticalList":
+                        case "setAsHorizontalList":
+                            break;
+                        default:
+                            throw new IllegalArgumentException("Unsupported UiScrollable method: "
+                                + method);
+                    }
+                }
+                else if ("childSelector".equals(method)) {
+                    selector.childSelector = (UiSelector) argument;
+                }
+                else if ("instance".equals(method)) {
+                    selector.instance = (Integer) argument;
+                }
+                else if (UiSelector.CRITERIA.contains(method)) {
+                    selector.criteria.add(new Object[] {method, argument});
+                }
+                else {
+                    throw new IllegalArgumentException("Unsupported UiSelector method: " + method);
+                }
+            }
+            return selector;
+        }
+
+        private Object parseArgument() {
+            this.skipWhitespace();
+            char character = this.input.charAt(this.position);
+            if (character == ')') {
+                return null;
+            }
+            if (character == '"') {
+                StringBuilder value = new StringBuilder();
+                this.position++;
+                while (this.input.charAt(this.position) != '"') {
+                    if (this.input.charAt(this.position) == '\\') {
+                        this.position++;
+                    }
+                    value.append(this.input.charAt(this.position++));
+                }
+                this.position++;
+                return value.toString();
+            }
+            if (Character.isDigit(character) || character == '-') {
+                int start = this.position++;
+                while (Character.isDigit(this.input.charAt(this.position))) {
+                    this.position++;
+                }
+                return Integer.parseInt(this.input.substring(start, this.position));
+            }
+            if (this.input.startsWith("new", this.position)) {
+                return this.parseNew();
+            }
+            String identifier = this.parseIdentifier();
+            if ("true".equals(identifier) || "false".equals(identifier)) {
+                return Boolean.valueOf(identifier);
+            }
+            throw new IllegalArgumentException("Unsupported argument: " + identifier);
+        }
+
+        private String parseIdentifier() {
+            this.skipWhitespace();
+            int start = this.position;
+            while (this.position < this.input.length() && Character.isJavaIdentifierPart(this.
+                input.charAt(this.position))) {
+                this.position++;
+            }
+            if (start == this.position) {
+                throw new IllegalArgumentException("Identifier expected at " + start + ": " +
+                    this.input);
+            }
+            return this.input.substring(start, this.position);
+        }
+
+        private void expect(String token) {
+            this.skipWhitespace();
+            if (! this.input.startsWith(token, this.position)) {
+                throw new IllegalArgumentException(String.format("'%s' expected at %d: %s", token,
+                    this.position, this.input));
+            }
+            this.position += token.length();
+        }
+
+        private boolean peek(char character) {
+            this.skipWhitespace();
+            return this.position < this.input.length() && this.input.charAt(this.position) ==
+                character;
+        }
+
+        private void skipWhitespace() {
+            while (this.position < this.input.length() && Character.isWhitespace(this.input.
+                charAt(this.position))) {
+                this.position++;
+            }
+        }
+    }
+}
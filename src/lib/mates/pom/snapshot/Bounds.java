@@ -0,0 +1,101 @@
+package lib.mates.pom.snapshot;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * Immutable rectangle of UI element on screen (pixels).
+ */
+public final class Bounds {
+    // Ex. "[0,96][720,1184]" (Android page source)
+    private static final Pattern boundsPattern = 
+        Pattern.compile("\\[(-?\\d+),(-?\\d+)\\]\\[(-?\\d+),(-?\\d+)\\]");
+    private final int left;
+    private final int top;
+    private final int right;
+    private final int bottom;
+
+    /**
+     * @param left  X of left border.
+     * @param top  Y of top border.
+     * @param right  X of right border.
+     * @param bottom  Y of bottom border.
+     */
+    public Bounds(int left, int top, int right, int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    /**
+     * Parses value of "bounds" attribute of Android page source.
+     * @param text  String representation of bounds ("[0,96][720,1184]").
+     * @return  Instance of Bounds, null if text is not recognized.
+     */
+    public static Bounds parse(String text) {
+        Bounds bounds = null;
+        if (text != null) {
+            Matcher boundsMatcher = Bounds.boundsPattern.matcher(text);
+            if (boundsMatcher.matches()) {
+                bounds = new Bounds(Integer.parseInt(boundsMatcher.group(1)), Integer.
+                    parseInt(boundsMatcher.group(2)), Integer.parseInt(boundsMatcher.group(3)), 
+                    Integer.parseInt(boundsMatcher.group(4)));
+            }
+        }
+        return bounds;
+    }
+
+    public int getLeft() {
+        return this.left;
+    }
+
+    public int getTop() {
+        return this.top;
+    }
+
+    public int getRight() {
+        return this.right;
+    }
+
+    public int getBottom() {
+        return this.bottom;
+    }
+
+    public int getWidth() {
+        return this.right - this.left;
+    }
+
+    public int getHeight() {
+        return this.bottom - this.top;
+    }
+
+    public int getCenterX() {
+        return this.left + this.getWidth() / 2;
+    }
+
+    public int getCenterY() {
+        return this.top + this.getHeight() / 2;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Bounds)) {
+            return false;
+        }
+        Bounds bounds = (Bounds) other;
+        return this.left == bounds.left && this.top == bounds.top && this.right == bounds.right && 
+            this.bottom == bounds.bottom;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((this.left * 31 + this.top) * 31 + this.right) * 31 + this.bottom;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%d,%d][%d,%d]", this.left, this.top, this.right, this.bottom);
+    }
+}
@@ -0,0 +1,196 @@
+package lib.mates.pom.snapshot;
+
+import java.util.Arrays;
+import java.util.List;
+import javax.xml.stream.XMLStreamException;
+import org.openqa.selenium.By;
+import lib.mates.pom.locators.LocatorChain;
+
+
+/**
+ * In-memory copy of XML tree of current screen obtained by single getPageSource() call. Resolves
+ * By.ById, By.xpath and By.className locators (and their hierarchical chains) locally, without
+ * round trip to Appium Server. Snapshot is valid until next gesture re-renders the screen.
+ * Elements are nodes of UiTree (numbers in document order); XPaths are evaluated by UiXPath.
+ */
+public class PageSnapshot {
+    private UiTree tree;
+    // Time (milliseconds) when page source was captured
+    private long captureTime;
+
+    /**
+     * @param pageSource  XML returned by AppiumDriver.getPageSource().
+     */
+    public PageSnapshot(String pageSource) {
+        try {
+            this.tree = UiTree.parse(pageSource);
+        }
+        catch (XMLStreamException e) {
+            throw new RuntimeException("Page source cannot be parsed.", e);
+        }
+        this.captureTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Checks if all locators of chain can be evaluated against snapshot.
+     * @param locators  List of hierarchical By locators.
+     * @return  True if chain is resolvable locally, false if live lookup is required.
+     */
+    public static boolean supports(List<By> locators) {
+        for (By locator : locators) {
+            String strategy = LocatorChain.getStrategy(locator);
+            if (strategy == null || ("xpath".equals(strategy) && ! UiXPath.isSupported(
+                LocatorChain.getValue(locator)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Resolves chain of locators (grandparent/parent/child) the same way as Element does on
+     * device: first match of each locator in context of previous one.
+     * @param locators  List of hierarchical By locators.
+     * @return  Node of target element, UiTree.NONE if not found.
+     */
+    public int findNode(List<By> locators) {
+        int node = UiTree.DOCUMENT;
+        for (By locator : locators) {
+            int[] nodes = this.findNodes(node, locator);
+            if (nodes.length == 0) {
+                return UiTree.NONE;
+            }
+            node = nodes[0];
+        }
+        return node;
+    }
+
+    /**
+     * Finds all elements matching locator on whole screen.
+     * @param locator  By.ById, By.xpath or By.className locator.
+     * @return  Matching nodes in document order, empty if none.
+     */
+    public int[] findNodes(By locator) {
+        return this.findNodes(UiTree.DOCUMENT, locator);
+    }
+
+    /**
+     * Finds all elements matching locator in context of given node.
+     * @param context  Node to search within (UiTree.DOCUMENT for whole screen).
+     * @param locator  By.ById, By.xpath or By.className locator.
+     * @return  Matching nodes in document order, empty if none.
+     */
+    public int[] findNodes(int context, By locator) {
+        String strategy = LocatorChain.getStrategy(locator);
+        if (strategy == null) {
+            throw new UnsupportedOperationException("Locator cannot be resolved in snapshot: " +
+                locator);
+        }
+        String value = LocatorChain.getValue(locator);
+        switch (strategy) {
+            case "id":
+                return this.collect(context, this.tree.getResourceIdSymbols(value), true);
+            case "className":
+                int symbol = this.tree.getSymbol(value);
+                return this.collect(context, symbol != UiTree.NONE ? new int[] {symbol} : new
+                    int[0], false);
+            default:
+                UiXPath xpath = UiXPath.compile(value);
+                if (value.startsWith(".")) {
+                    return xpath.evaluate(this.tree, context);
+                }
+                int[] nodes = xpath.evaluate(this.tree, UiTree.DOCUMENT);
+                if (context == UiTree.DOCUMENT) {
+                    return nodes;
+                }
+                // Restrict result to descendants of context, as Appium does
+                int count = 0;
+                for (int node : nodes) {
+                    if (this.tree.isDescendant(node, context)) {
+                        nodes[count++] = node;
+                    }
+                }
+                return Arrays.copyOf(nodes, count);
+        }
+    }
+
+    /**
+     * Evaluates XPath expression against whole snapshot.
+     * @param expression  XPath expression ("//android.widget.TextView[@index=0]").
+     * @return  Matching nodes in document order.
+     * @throws IllegalArgumentException  If expression is not in subset supported by UiXPath.
+     */
+    public int[] evaluate(String expression) {
+        return UiXPath.compile(expression).evaluate(this.tree, UiTree.DOCUMENT);
+    }
+
+    /**
+     * Returns text of element ("text" on Android, "value" on iOS).
+     * @param node  Node of element.
+     * @return  Text of element, empty string if element has no text.
+     */
+    public String getText(int node) {
+        String text = this.tree.getText(node);
+        return text != null ? text : "";
+    }
+
+    /**
+     * Returns location and size of element.
+     * @param node  Node of element.
+     * @return  Bounds of element, null if page source has no geometry for it.
+     */
+    public Bounds getBounds(int node) {
+        return this.tree.getBounds(node);
+    }
+
+    /**
+     * Returns value of attribute of element.
+     * @param node  Node of element.
+     * @param name  Name of attribute ("resource-id", "selected"...).
+     * @return  Value of attribute, null if not present.
+     */
+    public String getAttribute(int node, String name) {
+        return this.tree.getAttribute(node, name);
+    }
+
+    /**
+     * Returns tree of UI elements of snapshot.
+     * @return  Instance of UiTree.
+     */
+    public UiTree getTree() {
+        return this.tree;
+    }
+
+    /**
+     * Returns time when page source was captured.
+     * @return  Milliseconds since epoch.
+     */
+    public long getCaptureTime() {
+        return this.captureTime;
+    }
+
+    /**
+     * Collects descendants of context whose resource ID (or class name) is one of symbols.
+     */
+    private int[] collect(int context, int[] symbols, boolean isResourceId) {
+        if (symbols.length == 0) {
+            return new int[0];
+        }
+        int count = 0;
+        int[] nodes = new int[8];
+        for (int node = context + 1; node < this.tree.getEnd(context); node++) {
+            int symbol = isResourceId ? this.tree.getResourceId(node) : this.tree.
+                getClassName(node);
+            for (int match : symbols) {
+                if (symbol == match) {
+                    if (count == nodes.length) {
+                        nodes = Arrays.copyOf(nodes, count * 2);
+                    }
+                    nodes[count++] = node;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(nodes, count);
+    }
+}
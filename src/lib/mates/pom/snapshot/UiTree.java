@@ -0,0 +1,388 @@
+package lib.mates.pom.snapshot;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+
+/**
+ * Compact read-only tree of UI elements parsed from page source in one streaming pass. Nodes are
+ * numbered in document order and stored as parallel arrays (struct of arrays) instead of objects:
+ * parent of node, end of its subtree, interned tag, resource ID and class name, "index" and bounds
+ * as numbers. Node 0 is the document itself; descendants of node n are nodes n + 1 to
+ * getEnd(n) - 1, so descendant checks and searches are plain range scans.
+ */
+public class UiTree {
+    // No node (ex. parent of document)
+    public static final int NONE = -1;
+    // Document node, parent of root element
+    public static final int DOCUMENT = 0;
+    private static final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+    // Interned strings (tags, resource IDs, class names, attribute names) and their symbols
+    private List<String> strings = new ArrayList<>();
+    private Map<String, Integer> symbols = new HashMap<>();
+    private int size = 0;
+    private int[] parents;
+    private int[] ends;
+    private int[] tags;
+    private int[] resourceIds;
+    private int[] classNames;
+    // Value of "index" attribute, NONE if absent
+    private int[] indexes;
+    private String[] texts;
+    // Bounds of nodes; hasBounds is false if page source has no geometry for node
+    private boolean[] hasBounds;
+    private int[] lefts;
+    private int[] tops;
+    private int[] rights;
+    private int[] bottoms;
+    // All attributes of node i are attributeNames/attributeValues[attributeStarts[i]] up to
+    // attributeStarts[i + 1]
+    private int[] attributeStarts;
+    private int[] attributeNames;
+    private String[] attributeValues;
+    private int attributeCount = 0;
+
+    private UiTree(int capacity) {
+        this.parents = new int[capacity];
+        this.ends = new int[capacity];
+        this.tags = new int[capacity];
+        this.resourceIds = new int[capacity];
+        this.classNames = new int[capacity];
+        this.indexes = new int[capacity];
+        this.texts = new String[capacity];
+        this.hasBounds = new boolean[capacity];
+        this.lefts = new int[capacity];
+        this.tops = new int[capacity];
+        this.rights = new int[capacity];
+        this.bottoms = new int[capacity];
+        this.attributeStarts = new int[capacity + 1];
+        this.attributeNames = new int[capacity * 8];
+        this.attributeValues = new String[capacity * 8];
+    }
+
+    /**
+     * Parses page source.
+     * @param pageSource  XML returned by AppiumDriver.getPageSource().
+     * @return  Instance of UiTree.
+     * @throws XMLStreamException  If page source is not well-formed XML.
+     */
+    public static UiTree parse(String pageSource) throws XMLStreamException {
+        // Android page source takes about 1 KB per node
+        UiTree tree = new UiTree(Math.max(16, pageSource.length() / 512));
+        tree.addNode(UiTree.NONE);
+        XMLStreamReader reader;
+        synchronized (UiTree.inputFactory) {
+            reader = UiTree.inputFactory.createXMLStreamReader(new StringReader(pageSource));
+        }
+        try {
+            int parent = UiTree.DOCUMENT;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        int node = tree.addNode(parent);
+                        tree.tags[node] = tree.intern(reader.getLocalName());
+                        for (int index = 0; index < reader.getAttributeCount(); index++) {
+                            tree.addAttribute(node, reader.getAttributeLocalName(index), reader.
+                                getAttributeValue(index));
+                        }
+                        tree.attributeStarts[node + 1] = tree.attributeCount;
+                        parent = node;
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        tree.ends[parent] = tree.size;
+                        parent = tree.parents[parent];
+                        break;
+                }
+            }
+        }
+        finally {
+            reader.close();
+        }
+        tree.ends[UiTree.DOCUMENT] = tree.size;
+        return tree;
+    }
+
+    /**
+     * Returns number of nodes, document node included.
+     * @return  Number of nodes.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns symbol of interned string.
+     * @param string  Tag, resource ID, class name or attribute name.
+     * @return  Symbol, NONE if no node uses the string.
+     */
+    public int getSymbol(String string) {
+        Integer symbol = this.symbols.get(string);
+        return symbol != null ? symbol : UiTree.NONE;
+    }
+
+    /**
+     * Finds symbols of resource IDs matching ID the way Appium does: full ID matches itself, short
+     * ID matches IDs of any package ("tvTitle" -> "us.moviemates:id/tvTitle").
+     * @param id  Full or short resource ID.
+     * @return  Symbols of matching resource IDs, empty if none.
+     */
+    public int[] getResourceIdSymbols(String id) {
+        if (id.contains(":")) {
+            int symbol = this.getSymbol(id);
+            return symbol != UiTree.NONE ? new int[] {symbol} : new int[0];
+        }
+        String suffix = ":id/" + id;
+        int[] matches = new int[0];
+        for (int symbol = 0; symbol < this.strings.size(); symbol++) {
+            String string = this.strings.get(symbol);
+            if (string.equals(id) || string.endsWith(suffix)) {
+                matches = Arrays.copyOf(matches, matches.length + 1);
+                matches[matches.length - 1] = symbol;
+            }
+        }
+        return matches;
+    }
+
+    public int getParent(int node) {
+        return this.parents[node];
+    }
+
+    /**
+     * Returns end of subtree of node.
+     * @param node  Node.
+     * @return  First node following node and its descendants in document order.
+     */
+    public int getEnd(int node) {
+        return this.ends[node];
+    }
+
+    /**
+     * Checks if node is in subtree of ancestor.
+     * @param node  Node.
+     * @param ancestor  Possible ancestor.
+     * @return  True if node is descendant of ancestor, false otherwise (node itself included).
+     */
+    public boolean isDescendant(int node, int ancestor) {
+        return node > ancestor && node < this.ends[ancestor];
+    }
+
+    public int getTag(int node) {
+        return this.tags[node];
+    }
+
+    public int getResourceId(int node) {
+        return this.resourceIds[node];
+    }
+
+    public int getClassName(int node) {
+        return this.classNames[node];
+    }
+
+    /**
+     * Returns value of "index" attribute.
+     * @param node  Node.
+     * @return  Index of node among children of its parent, NONE if absent.
+     */
+    public int getIndex(int node) {
+        return this.indexes[node];
+    }
+
+    /**
+     * Returns text of element ("text" on Android, "value" on iOS).
+     * @param node  Node.
+     * @return  Text, null if element has no text attribute.
+     */
+    public String getText(int node) {
+        return this.texts[node];
+    }
+
+    /**
+     * Returns location and size of element.
+     * @param node  Node.
+     * @return  Bounds of element, null if page source has no geometry for it.
+     */
+    public Bounds getBounds(int node) {
+        if (! this.hasBounds[node]) {
+            return null;
+        }
+        return new Bounds(this.lefts[node], this.tops[node], this.rights[node], this.
+            bottoms[node]);
+    }
+
+    /**
+     * Returns string of symbol.
+     * @param symbol  Symbol of interned string.
+     * @return  String, null for NONE.
+     */
+    public String getString(int symbol) {
+        return symbol != UiTree.NONE ? this.strings.get(symbol) : null;
+    }
+
+    /**
+     * Returns value of attribute of element.
+     * @param node  Node.
+     * @param name  Name of attribute ("resource-id", "selected"...).
+     * @return  Value of attribute, null if not present.
+     */
+    public String getAttribute(int node, String name) {
+        int symbol = this.getSymbol(name);
+        if (symbol == UiTree.NONE || node == UiTree.DOCUMENT) {
+            return null;
+        }
+        return this.getAttribute(node, symbol);
+    }
+
+    /**
+     * Returns value of attribute of element.
+     * @param node  Node.
+     * @param symbol  Symbol of name of attribute.
+     * @return  Value of attribute, null if not present.
+     */
+    public String getAttribute(int node, int symbol) {
+        for (int index = this.attributeStarts[node]; index < this.attributeStarts[node + 1];
+            index++) {
+            if (this.attributeNames[index] == symbol) {
+                return this.attributeValues[index];
+            }
+        }
+        return null;
+    }
+
+    private int addNode(int parent) {
+        if (this.size == this.parents.length) {
+            int capacity = this.size * 2;
+            this.parents = Arrays.copyOf(this.parents, capacity);
+            this.ends = Arrays.copyOf(this.ends, capacity);
+            this.tags = Arrays.copyOf(this.tags, capacity);
+            this.resourceIds = Arrays.copyOf(this.resourceIds, capacity);
+            this.classNames = Arrays.copyOf(this.classNames, capacity);
+            this.indexes = Arrays.copyOf(this.indexes, capacity);
+            this.texts = Arrays.copyOf(this.texts, capacity);
+            this.hasBounds = Arrays.copyOf(this.hasBounds, capacity);
+            this.lefts = Arrays.copyOf(this.lefts, capacity);
+            this.tops = Arrays.copyOf(this.tops, capacity);
+            this.rights = Arrays.copyOf(this.rights, capacity);
+            this.bottoms = Arrays.copyOf(this.bottoms, capacity);
+            this.attributeStarts = Arrays.copyOf(this.attributeStarts, capacity + 1);
+        }
+        int node = this.size++;
+        this.parents[node] = parent;
+        this.ends[node] = this.size;
+        this.tags[node] = UiTree.NONE;
+        this.resourceIds[node] = UiTree.NONE;
+        this.classNames[node] = UiTree.NONE;
+        this.indexes[node] = UiTree.NONE;
+        this.attributeStarts[node] = this.attributeCount;
+        this.attributeStarts[node + 1] = this.attributeCount;
+        return node;
+    }
+
+    private void addAttribute(int node, String name, String value) {
+        if (this.attributeCount == this.attributeNames.length) {
+            this.attributeNames = Arrays.copyOf(this.attributeNames, this.attributeCount * 2);
+            this.attributeValues = Arrays.copyOf(this.attributeValues, this.attributeCount * 2);
+        }
+        this.attributeNames[this.attributeCount] = this.intern(name);
+        this.attributeValues[this.attributeCount] = value;
+        this.attributeCount++;
+        switch (name) {
+            case "resource-id":
+                this.resourceIds[node] = this.intern(value);
+                break;
+            case "class":
+                this.classNames[node] = this.intern(value);
+                break;
+            case "index":
+                try {
+                    this.indexes[node] = Integer.parseInt(value);
+                }
+                catch (NumberFormatException e) {
+                }
+                break;
+            case "text":
+                this.texts[node] = value;
+                break;
+            case "value":
+                // iOS stores text as value
+                if (this.texts[node] == null) {
+                    this.texts[node] = value;
+                }
+                break;
+            case "bounds":
+                this.parseBounds(node, value);
+                break;
+            case "x":
+                this.lefts[node] = UiTree.parseInt(value);
+                this.hasBounds[node] = true;
+                break;
+            case "y":
+                this.tops[node] = UiTree.parseInt(value);
+                break;
+            case "width":
+                // iOS attributes come in order x, y, width, height
+                this.rights[node] = this.lefts[node] + UiTree.parseInt(value);
+                break;
+            case "height":
+                this.bottoms[node] = this.tops[node] + UiTree.parseInt(value);
+                break;
+        }
+    }
+
+    /**
+     * Parses "[left,top][right,bottom]" without regular expression.
+     */
+    private void parseBounds(int node, String value) {
+        int[] numbers = new int[4];
+        int count = 0;
+        int start = -1;
+        for (int index = 0; index <= value.length(); index++) {
+            char character = index < value.length() ? value.charAt(index) : ']';
+            if (character == '-' || (character >= '0' && character <= '9')) {
+                if (start < 0) {
+                    start = index;
+                }
+            }
+            else if (start >= 0) {
+                if (count == 4) {
+                    return;
+                }
+                numbers[count++] = Integer.parseInt(value.substring(start, index));
+                start = -1;
+            }
+        }
+        if (count == 4) {
+            this.lefts[node] = numbers[0];
+            this.tops[node] = numbers[1];
+            this.rights[node] = numbers[2];
+            this.bottoms[node] = numbers[3];
+            this.hasBounds[node] = true;
+        }
+    }
+
+    private int intern(String string) {
+        Integer symbol = this.symbols.get(string);
+        if (symbol == null) {
+            symbol = this.strings.size();
+            this.strings.add(string);
+            this.symbols.put(string, symbol);
+        }
+        return symbol;
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return (int) Double.parseDouble(value);
+        }
+        catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,487 @@
+package lib.mates.pom.snapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * XPath expression of the subset used by components, compiled once and evaluated against UiTree
+ * without DOM. Supported: absolute ("/", "//") and relative ("./", ".//") location paths of child
+ * and descendant steps, name tests ("android.widget.TextView", "*"), parenthesized paths
+ * ("(//*[@resource-id='a'])[1]//*"), and predicates: position ("[1]", "[last()]"), attribute
+ * comparison ("[@index=0]", "[@resource-id!='a']"), attribute presence ("[@text]"),
+ * contains() and starts-with() of attribute, joined by "and"/"or" and grouped by parentheses.
+ */
+public class UiXPath {
+    // Compiled expressions shared by all snapshots
+    private static Map<String, UiXPath> expressions = new ConcurrentHashMap<>();
+    private String expression;
+    private Path path;
+    // Position in expression while parsing
+    private int position = 0;
+
+    private UiXPath(String expression) {
+        this.expression = expression;
+        this.path = this.parsePath();
+        this.skipSpaces();
+        if (this.position < expression.length()) {
+            throw this.error();
+        }
+    }
+
+    /**
+     * Compiles expression, or returns one compiled earlier.
+     * @param expression  XPath expression ("//android.widget.TextView[@index=0]").
+     * @return  Instance of UiXPath.
+     * @throws IllegalArgumentException  If expression is not in supported subset.
+     */
+    public static UiXPath compile(String expression) {
+        UiXPath xpath = UiXPath.expressions.get(expression);
+        if (xpath == null) {
+            xpath = new UiXPath(expression);
+            UiXPath.expressions.put(expression, xpath);
+        }
+        return xpath;
+    }
+
+    /**
+     * Checks if expression is in supported subset.
+     * @param expression  XPath expression.
+     * @return  True if expression can be evaluated against UiTree.
+     */
+    public static boolean isSupported(String expression) {
+        try {
+            UiXPath.compile(expression);
+            return true;
+        }
+        catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Evaluates expression.
+     * @param tree  Tree of UI elements.
+     * @param context  Context node of relative path (UiTree.DOCUMENT for whole screen).
+     * @return  Matching nodes in document order.
+     */
+    public int[] evaluate(UiTree tree, int context) {
+        return this.path.evaluate(tree, context);
+    }
+
+    @Override
+    public String toString() {
+        return this.expression;
+    }
+
+    private Path parsePath() {
+        Path path = new Path();
+        this.skipSpaces();
+        if (this.consume("(")) {
+            path.base = this.parsePath();
+            this.expect(")");
+            path.basePredicates = this.parsePredicates();
+            if (! this.lookingAt("/")) {
+                return path;
+            }
+        }
+        else if (this.consume(".")) {
+            path.relative = true;
+            if (! this.lookingAt("/")) {
+                return path;
+            }
+        }
+        else if (! this.lookingAt("/")) {
+            // Relative path starting with name test ("android.widget.TextView")
+            path.relative = true;
+            path.steps.add(this.parseStep(false));
+        }
+        while (this.lookingAt("/")) {
+            boolean descendant = this.consume("//");
+            if (! descendant) {
+                this.expect("/");
+            }
+            path.steps.add(this.parseStep(descendant));
+        }
+        return path;
+    }
+
+    private Step parseStep(boolean descendant) {
+        Step step = new Step();
+        step.descendant = descendant;
+        if (this.consume("*")) {
+            step.name = null;
+        }
+        else {
+            step.name = this.parseName();
+        }
+        step.predicates = this.parsePredicates();
+        return step;
+    }
+
+    private List<Predicate> parsePredicates() {
+        List<Predicate> predicates = new ArrayList<>();
+        this.skipSpaces();
+        while (this.consume("[")) {
+            this.skipSpaces();
+            Predicate predicate = new Predicate();
+            if (this.consume("last()")) {
+                predicate.position = Predicate.LAST;
+            }
+            else if (Character.isDigit(this.peek())) {
+                predicate.position = Integer.parseInt(this.parseNumber());
+            }
+            else {
+                predicate.condition = this.parseOr();
+            }
+            this.skipSpaces();
+            this.expect("]");
+            predicates.add(predicate);
+            this.skipSpaces();
+        }
+        return predicates;
+    }
+
+    private Condition parseOr() {
+        Condition condition = this.parseAnd();
+        while (this.consumeWord("or")) {
+            Condition left = condition;
+            Condition right = this.parseAnd();
+            condition = (tree, node) -> left.test(tree, node) || right.test(tree, node);
+        }
+        return condition;
+    }
+
+    private Condition parseAnd() {
+        Condition condition = this.parseComparison();
+        while (this.consumeWord("and")) {
+            Condition left = condition;
+            Condition right = this.parseComparison();
+            condition = (tree, node) -> left.test(tree, node) && right.test(tree, node);
+        }
+        return condition;
+    }
+
+    private Condition parseComparison() {
+        this.skipSpaces();
+        if (this.consume("(")) {
+            Condition condition = this.parseOr();
+            this.skipSpaces();
+            this.expect(")");
+            return condition;
+        }
+        for (String function : new String[] {"contains", "starts-with"}) {
+            if (this.consume(function + "(")) {
+                String name = this.parseAttributeName();
+                this.skipSpaces();
+                this.expect(",");
+                String value = this.parseLiteral();
+                this.skipSpaces();
+                this.expect(")");
+                if ("contains".equals(function)) {
+                    return (tree, node) -> {
+                        String attributeValue = tree.getAttribute(node, name);
+                        return attributeValue != null && attributeValue.contains(value);
+                    };
+                }
+                return (tree, node) -> {
+                    String attributeValue = tree.getAttribute(node, name);
+                    return attributeValue != null && attributeValue.startsWith(value);
+                };
+            }
+        }
+        String name = this.parseAttributeName();
+        this.skipSpaces();
+        boolean negated = this.consume("!=");
+        if (! negated && ! this.consume("=")) {
+            return (tree, node) -> tree.getAttribute(node, name) != null;
+        }
+        this.skipSpaces();
+        if (Character.isDigit(this.peek()) || this.peek() == '-') {
+            // Number is compared numerically ("[@index=0]")
+            double number = Double.parseDouble(this.parseNumber());
+            if ("index".equals(name)) {
+                return (tree, node) -> tree.getIndex(node) != UiTree.NONE && (tree.getIndex(
+                    node) == number) != negated;
+            }
+            return (tree, node) -> {
+                String attributeValue = tree.getAttribute(node, name);
+                if (attributeValue == null) {
+                    return false;
+                }
+                try {
+                    return (Double.parseDouble(attributeValue) == number) != negated;
+                }
+                catch (NumberFormatException e) {
+                    return negated;
+                }
+            };
+        }
+        String value = this.parseLiteral();
+        if ("resource-id".equals(name) || "class".equals(name)) {
+            // Interned values are compared by symbol
+            boolean isResourceId = "resource-id".equals(name);
+            return (tree, node) -> {
+                int symbol = isResourceId ? tree.getResourceId(node) : tree.getClassName(node);
+                return symbol != UiTree.NONE && (symbol == tree.getSymbol(value)) != negated;
+            };
+        }
+        return (tree, node) -> {
+            String attributeValue = tree.getAttribute(node, name);
+            return attributeValue != null && attributeValue.equals(value) != negated;
+        };
+    }
+
+    private String parseAttributeName() {
+        this.skipSpaces();
+        this.expect("@");
+        return this.parseName();
+    }
+
+    private String parseName() {
+        int start = this.position;
+        while (this.position < this.expression.length()) {
+            char character = this.expression.charAt(this.position);
+            if (! (Character.isLetterOrDigit(character) || character == '.' || character == '_' ||
+                character == '-' || character == '$')) {
+                break;
+            }
+            this.position++;
+        }
+        if (start == this.position) {
+            throw this.error();
+        }
+        return this.expression.substring(start, this.position);
+    }
+
+    private String parseNumber() {
+        int start = this.position;
+        while (this.position < this.expression.length() && (Character.isDigit(this.expression.
+            charAt(this.position)) || this.expression.charAt(this.position) == '.' || (this.
+            position == start && this.expression.charAt(this.position) == '-'))) {
+            this.position++;
+        }
+        return this.expression.substring(start, this.position);
+    }
+
+    private String parseLiteral() {
+        this.skipSpaces();
+        char quote = this.peek();
+        if (quote != '\'' && quote != '"') {
+            throw this.error();
+        }
+        int end = this.expression.indexOf(quote, this.position + 1);
+        if (end < 0) {
+            throw this.error();
+        }
+        String literal = this.expression.substring(this.position + 1, end);
+        this.position = end + 1;
+        return literal;
+    }
+
+    private boolean lookingAt(String text) {
+        this.skipSpaces();
+        return this.expression.startsWith(text, this.position);
+    }
+
+    private boolean consume(String text) {
+        if (this.lookingAt(text)) {
+            this.position += text.length();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Consumes operator word ("and", "or") delimited by spaces.
+     */
+    private boolean consumeWord(String word) {
+        int start = this.position;
+        this.skipSpaces();
+        if (this.position > start && this.expression.startsWith(word + " ", this.position)) {
+            this.position += word.length();
+            return true;
+        }
+        this.position = start;
+        return false;
+    }
+
+    private void expect(String text) {
+        if (! this.consume(text)) {
+            throw this.error();
+        }
+    }
+
+    private char peek() {
+        return this.position < this.expression.length() ? this.expression.charAt(this.position) :
+            0;
+    }
+
+    private void skipSpaces() {
+        while (this.position < this.expression.length() && this.expression.charAt(this.position) ==
+            ' ') {
+            this.position++;
+        }
+    }
+
+    private IllegalArgumentException error() {
+        return new IllegalArgumentException(String.format("XPath is not supported at %d: %s", this.
+            position, this.expression));
+    }
+
+
+    /**
+     * Interface of condition of predicate.
+     */
+    private interface Condition {
+        boolean test(UiTree tree, int node);
+    }
+
+
+    /**
+     * Predicate of step: either position among nodes selected by step for the same parent, or
+     * condition.
+     */
+    private static class Predicate {
+        private static final int LAST = -1;
+        // Position (1-based) or LAST; 0 if predicate is condition
+        private int position = 0;
+        private Condition condition;
+
+        /**
+         * Filters nodes selected for the same parent (or whole parenthesized result).
+         */
+        private int[] filter(UiTree tree, int[] nodes) {
+            if (this.position != 0) {
+                int index = this.position == Predicate.LAST ? nodes.length - 1 : this.position - 1;
+                return index >= 0 && index < nodes.length ? new int[] {nodes[index]} : new int[0];
+            }
+            int count = 0;
+            int[] matches = new int[nodes.length];
+            for (int node : nodes) {
+                if (this.condition.test(tree, node)) {
+                    matches[count++] = node;
+                }
+            }
+            return Arrays.copyOf(matches, count);
+        }
+    }
+
+
+    /**
+     * Step of location path ("//android.widget.TextView[@index=0]").
+     */
+    private static class Step {
+        // True for "//", false for "/"
+        private boolean descendant;
+        // Tag of element, null for "*"
+        private String name;
+        private List<Predicate> predicates;
+
+        /**
+         * Selects nodes of step for each context node.
+         * @param contexts  Context nodes in document order.
+         * @param selected  Set of selected nodes to add to.
+         */
+        private void select(UiTree tree, int[] contexts, BitSet selected) {
+            int tag = UiTree.NONE;
+            if (this.name != null) {
+                tag = tree.getSymbol(this.name);
+                if (tag == UiTree.NONE) {
+                    return;
+                }
+            }
+            for (int context : contexts) {
+                if (this.descendant) {
+                    // Positions of "//x[1]" are counted among children of the same parent
+                    this.selectDescendants(tree, context, tag, selected);
+                }
+                else {
+                    this.selectChildren(tree, context, tag, selected);
+                }
+            }
+        }
+
+        private void selectChildren(UiTree tree, int parent, int tag, BitSet selected) {
+            int count = 0;
+            int[] nodes = new int[8];
+            for (int child = parent + 1; child < tree.getEnd(parent); child = tree.getEnd(child)) {
+                if (this.name == null || tree.getTag(child) == tag) {
+                    if (count == nodes.length) {
+                        nodes = Arrays.copyOf(nodes, count * 2);
+                    }
+                    nodes[count++] = child;
+                }
+            }
+            nodes = Arrays.copyOf(nodes, count);
+            for (Predicate predicate : this.predicates) {
+                nodes = predicate.filter(tree, nodes);
+            }
+            for (int node : nodes) {
+                selected.set(node);
+            }
+        }
+
+        private void selectDescendants(UiTree tree, int context, int tag, BitSet selected) {
+            boolean positional = false;
+            for (Predicate predicate : this.predicates) {
+                positional |= predicate.condition == null;
+            }
+            if (positional) {
+                for (int node = context; node < tree.getEnd(context); node++) {
+                    this.selectChildren(tree, node, tag, selected);
+                }
+                return;
+            }
+            // Without positions, grouping by parent does not matter; test nodes in one pass
+            for (int node = context + 1; node < tree.getEnd(context); node++) {
+                if ((this.name == null || tree.getTag(node) == tag) && this.test(tree, node)) {
+                    selected.set(node);
+                }
+            }
+        }
+
+        private boolean test(UiTree tree, int node) {
+            for (Predicate predicate : this.predicates) {
+                if (! predicate.condition.test(tree, node)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+
+    /**
+     * Location path, optionally starting with parenthesized path filtered by predicates.
+     */
+    private static class Path {
+        private Path base;
+        private List<Predicate> basePredicates;
+        private boolean relative;
+        private List<Step> steps = new ArrayList<>();
+
+        private int[] evaluate(UiTree tree, int context) {
+            int[] nodes;
+            if (this.base != null) {
+                nodes = this.base.evaluate(tree, context);
+                for (Predicate predicate : this.basePredicates) {
+                    nodes = predicate.filter(tree, nodes);
+                }
+            }
+            else {
+                nodes = new int[] {this.relative ? context : UiTree.DOCUMENT};
+            }
+            for (Step step : this.steps) {
+                BitSet selected = new BitSet(tree.size());
+                step.select(tree, nodes, selected);
+                nodes = selected.stream().toArray();
+            }
+            return nodes;
+        }
+    }
+}
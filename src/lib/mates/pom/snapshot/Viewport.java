@@ -0,0 +1,164 @@
+package lib.mates.pom.snapshot;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.openqa.selenium.By;
+
+
+/**
+ * Fingerprint of visible content of scrollable container: hash of resource IDs, texts and bounds
+ * of all its elements, computed from page source snapshot already taken for reading the content.
+ * Equal fingerprints of two viewports mean content has not moved (scroll has reached top or
+ * bottom, or UI has settled). Offset between viewports tells how far content has moved, so
+ * swipe moving content less than requested is known to have hit the end without one more swipe.
+ */
+public final class Viewport {
+    // Offset of viewports having no element in common
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+    // Share of requested distance below which content is taken as stopped at its end
+    private static final double END_RATIO = 0.5;
+    private final long fingerprint;
+    // Resource ID and text of elements having text, with their top coordinates
+    private final String[] keys;
+    private final int[] tops;
+
+    private Viewport(long fingerprint, String[] keys, int[] tops) {
+        this.fingerprint = fingerprint;
+        this.keys = keys;
+        this.tops = tops;
+    }
+
+    /**
+     * Captures viewport of container.
+     * @param snapshot  Snapshot of current screen.
+     * @param locators  Hierarchical locators of container; whole screen if it is not found.
+     * @return  Instance of Viewport.
+     */
+    public static Viewport capture(PageSnapshot snapshot, List<By> locators) {
+        int container = PageSnapshot.supports(locators) ? snapshot.findNode(locators) : UiTree.
+            NONE;
+        return Viewport.capture(snapshot.getTree(), container != UiTree.NONE ? container : UiTree.
+            DOCUMENT);
+    }
+
+    /**
+     * Captures viewport of container node.
+     * @param tree  Tree of current screen.
+     * @param container  Node of scrollable container.
+     * @return  Instance of Viewport.
+     */
+    public static Viewport capture(UiTree tree, int container) {
+        long fingerprint = 17;
+        int count = 0;
+        String[] keys = new String[tree.getEnd(container) - container];
+        int[] tops = new int[keys.length];
+        for (int node = container + 1; node < tree.getEnd(container); node++) {
+            String resourceId = tree.getString(tree.getResourceId(node));
+            String text = tree.getText(node);
+            Bounds bounds = tree.getBounds(node);
+            fingerprint = fingerprint * 31 + (resourceId != null ? resourceId.hashCode() : 0);
+            fingerprint = fingerprint * 31 + (text != null ? text.hashCode() : 0);
+            fingerprint = fingerprint * 31 + (bounds != null ? bounds.hashCode() : 0);
+            if (text != null && ! text.isEmpty() && bounds != null) {
+                keys[count] = resourceId + "\n" + text;
+                tops[count] = bounds.getTop();
+                count++;
+            }
+        }
+        return new Viewport(fingerprint, Arrays.copyOf(keys, count), Arrays.copyOf(tops, count));
+    }
+
+    public long getFingerprint() {
+        return this.fingerprint;
+    }
+
+    /**
+     * Checks if content is the same as in previous viewport (nothing has moved or re-rendered).
+     * @param previous  Viewport captured earlier, may be null.
+     * @return  True if fingerprints match, false if not or no previous viewport.
+     */
+    public boolean isSettled(Viewport previous) {
+        return previous != null && this.fingerprint == previous.fingerprint;
+    }
+
+    /**
+     * Returns distance content of vertical list has moved upward since previous viewport.
+     * Elements are paired by resource ID and text; the offset shared by most pairs is taken. 
+     * Pairs of elements unique in both viewports vote first, so texts repeated in every item of 
+     * list (ex. show times) do not outvote true offset by one shifted by height of item; repeated 
+     * elements vote only if no element is unique.
+     * @param previous  Viewport captured earlier.
+     * @return  Offset (pixels), negative if content has moved downward, UNKNOWN if viewports
+     * have no element in common.
+     */
+    public int getOffset(Viewport previous) {
+        Map<String, int[]> previousTops = previous.getTops();
+        Map<String, int[]> currentTops = this.getTops();
+        int offset = Viewport.vote(previousTops, currentTops, true);
+        return offset != Viewport.UNKNOWN ? offset : Viewport.vote(previousTops, currentTops, 
+            false);
+    }
+
+    /**
+     * Returns top coordinates of elements grouped by resource ID and text.
+     */
+    private Map<String, int[]> getTops() {
+        Map<String, int[]> tops = new HashMap<>();
+        for (int index = 0; index < this.keys.length; index++) {
+            int[] keyTops = tops.get(this.keys[index]);
+            keyTops = keyTops == null ? new int[1] : Arrays.copyOf(keyTops, keyTops.length + 1);
+            keyTops[keyTops.length - 1] = this.tops[index];
+            tops.put(this.keys[index], keyTops);
+        }
+        return tops;
+    }
+
+    /**
+     * Takes offset shared by most pairs of elements having the same key.
+     * @param uniqueOnly  True to pair only elements whose key is unique in both viewports.
+     * @return  Offset (pixels), UNKNOWN if there is no pair.
+     */
+    private static int vote(Map<String, int[]> previousTops, Map<String, int[]> currentTops, 
+        boolean uniqueOnly) {
+        Map<Integer, Integer> votes = new HashMap<>();
+        int offset = Viewport.UNKNOWN;
+        int maxVotes = 0;
+        for (Map.Entry<String, int[]> entry : currentTops.entrySet()) {
+            int[] tops = previousTops.get(entry.getKey());
+            if (tops == null || (uniqueOnly && (tops.length > 1 || entry.getValue().length > 1))) {
+                continue;
+            }
+            for (int currentTop : entry.getValue()) {
+                for (int top : tops) {
+                    int candidate = top - currentTop;
+                    int count = votes.containsKey(candidate) ? votes.get(candidate) + 1 : 1;
+                    votes.put(candidate, count);
+                    if (count > maxVotes) {
+                        maxVotes = count;
+                        offset = candidate;
+                    }
+                }
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Checks if scroll asked to move content by given distance has stopped at top or bottom of
+     * content: content has not moved, or moved much less than requested.
+     * @param previous  Viewport captured before the swipe.
+     * @param distance  Distance (pixels) the swipe is expected to move content, i.e. its length
+     * scaled by swipe profile of device.
+     * @return  True if end of content is reached.
+     */
+    public boolean isAtEnd(Viewport previous, int distance) {
+        if (this.isSettled(previous)) {
+            return true;
+        }
+        int offset = this.getOffset(previous);
+        return offset != Viewport.UNKNOWN && Math.abs(offset) < Math.abs(distance) * Viewport.
+            END_RATIO;
+    }
+}
@@ -0,0 +1,62 @@
+package lib.mates.pom.trace;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.junit.rules.TestRule;
+import lib.mates.pom.PlatformDriver;
+
+
+/**
+ * Writes trace of each test to directory set by system property "mates.traceDir" (default 
+ * "traces" in working directory): "&lt;Class&gt;.&lt;method&gt;.trace.json" in Chrome trace-event 
+ * format and "&lt;Class&gt;.&lt;method&gt;.folded" for flame graphs.
+ */
+public class TraceRule implements TestRule {
+    private PlatformDriver platformDriver;
+
+    /**
+     * @param platformDriver  Session the test runs on.
+     */
+    public TraceRule(PlatformDriver platformDriver) {
+        this.platformDriver = platformDriver;
+    }
+
+    @Override
+    public Statement apply(final Statement base, final Description description) {
+        return new Statement() {
+            @Override
+            @SuppressWarnings("try")
+            public void evaluate() throws Throwable {
+                Tracer tracer = TraceRule.this.platformDriver.getTracer();
+                tracer.reset();
+                try (Tracer.Span span = tracer.span(description.getMethodName())) {
+                    base.evaluate();
+                }
+                finally {
+                    TraceRule.this.write(tracer, description);
+                }
+            }
+        };
+    }
+
+    private void write(Tracer tracer, Description description) {
+        Path directory = Paths.get(System.getProperty("mates.traceDir", Paths.get(System.
+            getProperty("user.dir"), "traces").toString()));
+        String fileName = String.format("%s.%s", description.getTestClass() != null ? description.
+            getTestClass().getSimpleName() : description.getClassName(), description.
+            getMethodName()).replaceAll("[^\\w.\\-\\[\\]]", "_");
+        try {
+            Files.createDirectories(directory);
+            tracer.writeChromeTrace(directory.resolve(fileName + ".trace.json"));
+            tracer.writeFlameSummary(directory.resolve(fileName + ".folded"));
+        }
+        catch (IOException e) {
+            // Trace is diagnostic; test result must not depend on it
+            System.err.println("Trace cannot be written: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package lib.mates.pom.trace;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonWriter;
+
+
+/**
+ * Records Appium commands of one session and nests them under spans of component methods 
+ * (MoviePicker.findMovie -> MoviePicker.scroll -> ...). Spans are opened in try-with-resources:
+ * <pre>
+ * try (Tracer.Span span = platformDriver.getTracer().span("MoviePicker.findMovie")) {
+ *     ...
+ * }
+ * </pre>
+ * Recorded events are written as Chrome trace-event JSON (chrome://tracing, Perfetto) and as 
+ * folded stacks for flame graphs (flamegraph.pl, speedscope).
+ */
+public class Tracer {
+    // Category of spans of component methods
+    public static final String SPAN = "span";
+    // Category of Appium commands
+    public static final String COMMAND = "command";
+    // Events completed since last reset, in order of completion
+    private List<Event> events = new ArrayList<>();
+    // Spans open at the moment, innermost last
+    private Deque<Span> openSpans = new ArrayDeque<>();
+    // Time (nanoseconds) events are measured from
+    private long originTime = System.nanoTime();
+
+    /**
+     * Opens span of component method. Commands and spans started until the span is closed are 
+     * nested under it.
+     * @param name  Name of span ("MoviePicker.findMovie").
+     * @return  Span to be closed.
+     */
+    public synchronized Span span(String name) {
+        Span span = new Span(name, this.getStack(), System.nanoTime());
+        this.openSpans.addLast(span);
+        return span;
+    }
+
+    /**
+     * Records Appium command under currently open span.
+     * @param name  Name of command ("POST /element").
+     * @param startTime  Time (System.nanoTime()) command was sent.
+     * @param duration  Round trip time (nanoseconds).
+     * @param arguments  Details of command (payload sizes, locator strategy...).
+     */
+    public synchronized void recordCommand(String name, long startTime, long duration, Map<String, 
+        Object> arguments) {
+        String stack = this.getStack();
+        this.addEvent(new Event(name, Tracer.COMMAND, stack.isEmpty() ? name : stack + ";" + name, 
+            startTime, duration, duration, arguments));
+    }
+
+    /**
+     * Discards recorded events and sets time origin to now. Open spans are kept.
+     */
+    public synchronized void reset() {
+        this.events.clear();
+        this.originTime = System.nanoTime();
+    }
+
+    /**
+     * Returns events completed since last reset.
+     * @return  Unmodifiable list of events, in order of completion.
+     */
+    public synchronized List<Event> getEvents() {
+        return Collections.unmodifiableList(new ArrayList<>(this.events));
+    }
+
+    /**
+     * Writes recorded events in Chrome trace-event format.
+     * @param path  Path to JSON file.
+     * @throws IOException
+     */
+    public synchronized void writeChromeTrace(Path path) throws IOException {
+        JsonArrayBuilder traceEvents = Json.createArrayBuilder();
+        for (Event event : this.events) {
+            JsonObjectBuilder arguments = Json.createObjectBuilder();
+            for (Map.Entry<String, Object> argument : event.getArguments().entrySet()) {
+                if (argument.getValue() instanceof Number) {
+                    arguments.add(argument.getKey(), ((Number) argument.getValue()).longValue());
+                }
+                else {
+                    arguments.add(argument.getKey(), String.valueOf(argument.getValue()));
+                }
+            }
+            traceEvents.add(Json.createObjectBuilder()
+                .add("name", event.getName())
+                .add("cat", event.getCategory())
+                // Complete event: start and duration in microseconds
+                .add("ph", "X")
+                .add("ts", (event.getStartTime() - this.originTime) / 1000)
+                .add("dur", event.getDuration() / 1000)
+                .add("pid", 1)
+                .add("tid", 1)
+                .add("args", arguments));
+        }
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            JsonWriter jsonWriter = Json.createWriter(writer);
+            jsonWriter.writeObject(Json.createObjectBuilder().add("traceEvents", traceEvents).
+                add("displayTimeUnit", "ms").build());
+            jsonWriter.close();
+        }
+    }
+
+    /**
+     * Writes self time of spans and commands as folded stacks, one line per distinct stack 
+     * ("MoviePicker.findMovie;MoviePicker.scroll;POST /touch/perform 512000").
+     * @param path  Path to text file.
+     * @throws IOException
+     */
+    public synchronized void writeFlameSummary(Path path) throws IOException {
+        Map<String, Long> selfTimes = new TreeMap<>();
+        for (Event event : this.events) {
+            Long selfTime = selfTimes.get(event.getStack());
+            selfTimes.put(event.getStack(), (selfTime != null ? selfTime : 0) + event.
+                getSelfTime() / 1000);
+        }
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            for (Map.Entry<String, Long> entry : selfTimes.entrySet()) {
+                writer.write(String.format("%s %d%n", entry.getKey(), entry.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Returns names of open spans joined by ";" (outermost first).
+     */
+    private String getStack() {
+        StringBuilder stack = new StringBuilder();
+        for (Span span : this.openSpans) {
+            if (stack.length() > 0) {
+                stack.append(';');
+            }
+            stack.append(span.name);
+        }
+        return stack.toString();
+    }
+
+    private void addEvent(Event event) {
+        Span parent = this.openSpans.peekLast();
+        if (parent != null) {
+            parent.childTime += event.getDuration();
+        }
+        this.events.add(event);
+    }
+
+
+    /**
+     * Span of component method. Closing span closes spans nested in it that are still open.
+     */
+    public class Span implements AutoCloseable {
+        private String name;
+        // Names of enclosing spans joined by ";"
+        private String parentStack;
+        private long startTime;
+        // Time (nanoseconds) spent in nested spans and commands
+        private long childTime = 0;
+        private boolean closed = false;
+
+        private Span(String name, String parentStack, long startTime) {
+            this.name = name;
+            this.parentStack = parentStack;
+            this.startTime = startTime;
+        }
+
+        @Override
+        public void close() {
+            synchronized (Tracer.this) {
+                if (this.closed || ! Tracer.this.openSpans.contains(this)) {
+                    return;
+                }
+                while (Tracer.this.openSpans.peekLast() != this) {
+                    Tracer.this.openSpans.peekLast().close();
+                }
+                Tracer.this.openSpans.removeLast();
+                this.closed = true;
+                long duration = System.nanoTime() - this.startTime;
+                Tracer.this.addEvent(new Event(this.name, Tracer.SPAN, this.parentStack.isEmpty() ?
+                    this.name : this.parentStack + ";" + this.name, this.startTime, duration, 
+                    Math.max(0, duration - this.childTime), new LinkedHashMap<String, Object>()));
+            }
+        }
+    }
+
+
+    /**
+     * Completed span or command.
+     */
+    public static class Event {
+        private String name;
+        private String category;
+        private String stack;
+        private long startTime;
+        private long duration;
+        private long selfTime;
+        private Map<String, Object> arguments;
+
+        Event(String name, String category, String stack, long startTime, long duration, long 
+            selfTime, Map<String, Object> arguments) {
+            this.name = name;
+            this.category = category;
+            this.stack = stack;
+            this.startTime = startTime;
+            this.duration = duration;
+            this.selfTime = selfTime;
+            this.arguments = arguments;
+        }
+
+        /**
+         * @return  Name of span or command.
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * @return  Tracer.SPAN or Tracer.COMMAND.
+         */
+        public String getCategory() {
+            return this.category;
+        }
+
+        /**
+         * @return  Names of enclosing spans and of this event joined by ";".
+         */
+        public String getStack() {
+            return this.stack;
+        }
+
+        /**
+         * @return  Start time (System.nanoTime()).
+         */
+        public long getStartTime() {
+            return this.startTime;
+        }
+
+        /**
+         * @return  Duration (nanoseconds).
+         */
+        public long getDuration() {
+            return this.duration;
+        }
+
+        /**
+         * @return  Duration less time of nested events (nanoseconds).
+         */
+        public long getSelfTime() {
+            return this.selfTime;
+        }
+
+        /**
+         * @return  Details of event.
+         */
+        public Map<String, Object> getArguments() {
+            return this.arguments;
+        }
+    }
+}
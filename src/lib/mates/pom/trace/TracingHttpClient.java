@@ -0,0 +1,132 @@
+package lib.mates.pom.trace;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.internal.ApacheHttpClient;
+
+
+/**
+ * HTTP client of AppiumDriver recording every command sent to Appium Server, with its round trip 
+ * time and payload sizes, to Tracer.
+ */
+public class TracingHttpClient implements HttpClient {
+    // "/wd/hub/session/<session ID>/element/<element ID>/click" -> "/element/:id/click"
+    private static final Pattern SESSION_PATH = Pattern.compile("^.*?/session/[^/]+");
+    private static final Pattern ELEMENT_ID = Pattern.compile("/element/[^/]+(?=/)");
+    private HttpClient client;
+    private Tracer tracer;
+
+    /**
+     * @param client  HTTP client performing requests.
+     * @param tracer  Tracer of the session.
+     */
+    public TracingHttpClient(HttpClient client, Tracer tracer) {
+        this.client = client;
+        this.tracer = tracer;
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request, boolean followRedirects) throws IOException {
+        long startTime = System.nanoTime();
+        HttpResponse response = this.client.execute(request, followRedirects);
+        long duration = System.nanoTime() - startTime;
+        Map<String, Object> arguments = new LinkedHashMap<>();
+        byte[] requestContent = request.getContent();
+        byte[] responseContent = response.getContent();
+        arguments.put("requestBytes", requestContent != null ? requestContent.length : 0);
+        arguments.put("responseBytes", responseContent != null ? responseContent.length : 0);
+        arguments.put("status", response.getStatus());
+        String name = TracingHttpClient.getCommandName(request);
+        if ((name.endsWith("/element") || name.endsWith("/elements")) && requestContent != null) {
+            String strategy = TracingHttpClient.getStrategy(requestContent);
+            if (strategy != null) {
+                arguments.put("using", strategy);
+            }
+        }
+        if (name.endsWith("/touch/perform") && requestContent != null) {
+            // swipe() and tap() are both sent as touch actions; only swipe moves the finger
+            arguments.put("gesture", new String(requestContent, StandardCharsets.UTF_8).
+                contains("\"moveTo\"") ? "swipe" : "tap");
+        }
+        this.tracer.recordCommand(name, startTime, duration, arguments);
+        return response;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.client.close();
+    }
+
+    /**
+     * Returns name of command as method and path without session and element IDs.
+     * @param request  HTTP request of command.
+     * @return  Name of command ("POST /element/:id/click").
+     */
+    public static String getCommandName(HttpRequest request) {
+        String path = request.getUri();
+        Matcher matcher = TracingHttpClient.SESSION_PATH.matcher(path);
+        if (matcher.find()) {
+            path = path.substring(matcher.end());
+        }
+        path = TracingHttpClient.ELEMENT_ID.matcher(path).replaceAll("/element/:id");
+        return request.getMethod() + " " + (path.isEmpty() ? "/session/:id" : path);
+    }
+
+    /**
+     * Obtains locator strategy ("id", "xpath", "-android uiautomator"...) of find command.
+     * @return  Strategy, null if request has none.
+     */
+    private static String getStrategy(byte[] content) {
+        try (JsonReader jsonReader = Json.createReader(new StringReader(new String(content, 
+            StandardCharsets.UTF_8)))) {
+            JsonObject jsonObject = jsonReader.readObject();
+            return jsonObject.getString("using", null);
+        }
+        catch (JsonException | ClassCastException e) {
+            return null;
+        }
+    }
+
+
+    /**
+     * Creates tracing HTTP clients for AppiumDriver.
+     */
+    public static class Factory implements HttpClient.Factory {
+        private HttpClient.Factory factory;
+        private Tracer tracer;
+
+        /**
+         * @param tracer  Tracer of the session.
+         */
+        public Factory(Tracer tracer) {
+            this(new ApacheHttpClient.Factory(), tracer);
+        }
+
+        /**
+         * @param factory  Factory of HTTP clients performing requests.
+         * @param tracer  Tracer of the session.
+         */
+        public Factory(HttpClient.Factory factory, Tracer tracer) {
+            this.factory = factory;
+            this.tracer = tracer;
+        }
+
+        @Override
+        public HttpClient createClient(URL url) {
+            return new TracingHttpClient(this.factory.createClient(url), this.tracer);
+        }
+    }
+}
@@ -9,6 +9,12 @@ import java.util.regex.Pattern;
  * Format conversion.
  */
 public class Convert {
+    // Ex. "2hr 34min"
+    private static final Pattern RUN_TIME_PATTERN = Pattern.compile(
+        "([0-2]?\\d)hr\\s([0-5]?\\d)min");
+    // Ex. "2 interested"
+    private static final Pattern PEOPLE_COUNT_PATTERN = Pattern.compile("(\\d*)\\sinterested");
+
     /**
      * Converts string representing time to instance of LocalTime.
      * @param text  String representation of time ("2hr 34min").
@@ -16,9 +22,7 @@ public class Convert {
      */
     public static LocalTime parseRunTime(String text) {
         LocalTime runTime = null;
-        // Ex. "2hr 34min"
-        Pattern runTimePattern = Pattern.compile("([0-2]?\\d)hr\\s([0-5]?\\d)min");
-        Matcher runTimeMatcher = runTimePattern.matcher(text);
+        Matcher runTimeMatcher = Convert.RUN_TIME_PATTERN.matcher(text);
         if (runTimeMatcher.matches()) {
             runTime = LocalTime.of(Integer.parseInt(runTimeMatcher.group(1)), Integer.
                 parseInt(runTimeMatcher.group(2)));
@@ -33,9 +37,7 @@ public class Convert {
      */
     public static int parsePeopleCount(String text) {
         int peopleCount = 0;
-        // Ex. "2 interested"
-        Pattern peopleCountPattern = Pattern.compile("(\\d*)\\sinterested");
-        Matcher peopleCountMatcher = peopleCountPattern.matcher(text);
+        Matcher peopleCountMatcher = Convert.PEOPLE_COUNT_PATTERN.matcher(text);
         if (peopleCountMatcher.matches()) {
             peopleCount = Integer.parseInt(peopleCountMatcher.group(1));
         }
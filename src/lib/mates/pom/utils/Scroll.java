@@ -2,34 +2,51 @@ package lib.mates.pom.utils;
 
 import io.appium.java_client.MobileElement;
 import io.appium.java_client.SwipeElementDirection;
+import lib.mates.pom.SwipeProfile;
 import lib.mates.pom.components.Element;
+import lib.mates.pom.snapshot.Bounds;
+import lib.mates.pom.snapshot.Viewport;
+import lib.mates.pom.trace.Tracer;
 
 
 /**
- *  Helper for list scroll on different pages by utilizing swipe(). 
+ *  Helper for list scroll on different pages by utilizing swipe(). Swipes are as fast and as 
+ *  long as swipe profile of device allows; uncalibrated devices swipe at 0.3 px/millisecond.
  */
 public class Scroll {
     /**
-     * 
+     * Scrolls content until element is visible, then aligns it with top border. Scroll stops 
+     * early once content has reached its end, i.e. swipe has moved it less than requested.
      * @param contentView  Frame element enclosing scrollable content.
      * @param element  Element to be scrolled to.
      * @param direction  Scroll direction: UP or DOWN.
      * @param timeout  Used to quit scroll after specified time (sec) when element not found.
      * @return  True if element found, false if not.
      */
+    @SuppressWarnings("try")
     public static boolean scrollToElement(Element contentView, Element element, SwipeElementDirection direction, int timeout) {
-        boolean result = false;
-        long startTime = System.currentTimeMillis();
-        // Scroll until element found or timeout reached
-        while ((System.currentTimeMillis() - startTime) / 1000 < timeout) {
-            if (element.isPresent()) {
-                Scroll.alignElement(contentView, element);
-                result = true;
-                break;
+        try (Tracer.Span span = contentView.platformDriver.getTracer().
+            span("Scroll.scrollToElement")) {
+            boolean result = false;
+            Viewport viewport = null;
+            int distance = 0;
+            long startTime = System.currentTimeMillis();
+            // Scroll until element found, end of content or timeout reached
+            while ((System.currentTimeMillis() - startTime) / 1000 < timeout) {
+                if (element.isPresent()) {
+                    Scroll.alignElement(contentView, element);
+                    result = true;
+                    break;
+                }
+                Viewport nextViewport = Scroll.getViewport(contentView);
+                if (viewport != null && nextViewport.isAtEnd(viewport, distance)) {
+                    break;
+                }
+                viewport = nextViewport;
+                distance = Scroll.scrollHalfScreen(contentView, direction);
             }
-            Scroll.scrollHalfScreen(contentView, direction);
+            return result;
         }
-        return result;
     }
 
     /**
@@ -38,12 +55,7 @@ public class Scroll {
      * @param element  Element to be aligned with top border.
      */
     public static void alignElement(Element contentView, MobileElement element) {
-        int startX = contentView.getMobileElement().getCenter().x;
-        int startY = element.getLocation().y;
-        int endY = contentView.getMobileElement().getLocation().y;
-        // Swipe rate is 0.3 px/millisecond to avoid momentum scrolling
-        int duration = Math.abs(endY - startY) * 3;
-        contentView.driver.swipe(startX, startY, startX, endY, duration);
+        Scroll.alignElement(contentView, element.getLocation().y);
     }
 
     /**
@@ -52,27 +64,77 @@ public class Scroll {
      * @param element  Element to be aligned with top border.
      */
     public static void alignElement(Element contentView, Element element) {
-        Scroll.alignElement(contentView, element.getMobileElement());
+        Scroll.alignElement(contentView, element.getBounds().getTop());
+    }
+
+    /**
+     * Overloaded to use bounds of element captured earlier (ex. from page source snapshot).
+     * @param contentView  Frame element enclosing scrollable content.
+     * @param bounds  Bounds of element to be aligned with top border.
+     */
+    public static void alignElement(Element contentView, Bounds bounds) {
+        Scroll.alignElement(contentView, bounds.getTop());
+    }
+
+    /**
+     * Scrolls content so that given Y coordinate gets to top border of frame.
+     * @param contentView  Frame element enclosing scrollable content.
+     * @param startY  Y coordinate of content to be aligned with top border.
+     */
+    @SuppressWarnings("try")
+    private static void alignElement(Element contentView, int startY) {
+        try (Tracer.Span span = contentView.platformDriver.getTracer().
+            span("Scroll.alignElement")) {
+            Bounds contentBounds = contentView.getBounds();
+            SwipeProfile swipeProfile = contentView.platformDriver.getSwipeProfile();
+            int startX = contentBounds.getCenterX();
+            // Swipe is lengthened or shortened by the distance device actually scrolls
+            int endY = Math.max(0, startY - swipeProfile.getSwipeDistance(startY - contentBounds.
+                getTop()));
+            // Default swipe rate is 0.3 px/millisecond to avoid momentum scrolling
+            int duration = swipeProfile.getDuration(endY - startY, Math.abs(endY - startY) * 3);
+            contentView.driver.swipe(startX, startY, startX, endY, duration);
+            contentView.platformDriver.advanceUiEpoch();
+        }
     }
 
     /**
      * Scrolls content in frame for 1/2 height in specified direction.
      * @param contentView  Frame element enclosing scrollable content.
      * @param direction  Scroll direction: UP or DOWN.
+     * @return  Distance (pixels) content is expected to move: length of swipe scaled by swipe 
+     *     profile of device.
      */
-    public static void scrollHalfScreen(Element contentView, SwipeElementDirection direction) {
-        MobileElement contentElement = contentView.getMobileElement();
-        int startX = contentElement.getCenter().x;
-        int endY;
-        if (direction == SwipeElementDirection.UP) {
-            endY = contentElement.getLocation().y + 1;
-        }
-        else {
-            endY = contentElement.getLocation().y + contentElement.getSize().height - 1;
+    @SuppressWarnings("try")
+    public static int scrollHalfScreen(Element contentView, SwipeElementDirection direction) {
+        try (Tracer.Span span = contentView.platformDriver.getTracer().
+            span("Scroll.scrollHalfScreen")) {
+            Bounds contentBounds = contentView.getBounds();
+            int startX = contentBounds.getCenterX();
+            int endY;
+            if (direction == SwipeElementDirection.UP) {
+                endY = contentBounds.getTop() + 1;
+            }
+            else {
+                endY = contentBounds.getBottom() - 1;
+            }
+            int startY = contentBounds.getCenterY();
+            SwipeProfile swipeProfile = contentView.platformDriver.getSwipeProfile();
+            // Default swipe rate is 0.3 px/millisecond to avoid momentum scrolling
+            int duration = swipeProfile.getDuration(endY - startY, Math.abs(endY - startY) * 3);
+            contentView.driver.swipe(startX, startY, startX, endY, duration);
+            contentView.platformDriver.advanceUiEpoch();
+            // Compared with distance content has actually moved, so the same scale applies
+            return (int) Math.round(Math.abs(endY - startY) * swipeProfile.getScale());
         }
-        int startY = contentElement.getCenter().y;
-        // Swipe rate is 0.3 px/millisecond to avoid momentum scrolling
-        int duration = Math.abs(endY - startY) * 3;
-        contentView.driver.swipe(startX, startY, startX, endY, duration);
+    }
+
+    /**
+     * Captures fingerprint of visible content of frame.
+     * @param contentView  Frame element enclosing scrollable content.
+     * @return  Instance of Viewport.
+     */
+    public static Viewport getViewport(Element contentView) {
+        return Viewport.capture(contentView.platformDriver.getSnapshot(), contentView.locators);
     }
 }
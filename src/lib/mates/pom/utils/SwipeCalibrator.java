@@ -0,0 +1,164 @@
+package lib.mates.pom.utils;
+
+import java.io.IOException;
+import java.util.List;
+import javax.json.JsonObject;
+import org.openqa.selenium.By;
+import lib.mates.pom.DeviceRegistry;
+import lib.mates.pom.PlatformDriver;
+import lib.mates.pom.SwipeProfile;
+import lib.mates.pom.components.Element;
+import lib.mates.pom.components.MoviePicker;
+import lib.mates.pom.components.MovieRow;
+import lib.mates.pom.snapshot.Bounds;
+import lib.mates.pom.trace.Tracer;
+
+
+/**
+ * Measures swipe profile of device on movie list of "Movies" page. Content distance of swipe at
+ * 0.3 px/millisecond (rate safe on every device) gives scale; then velocity is doubled until
+ * content moves further than at safe rate, i.e. swipe starts momentum scrolling. The last velocity
+ * moving content by the same distance is the fastest non-fling one. Each trial swipe is undone
+ * by swipe at safe rate.
+ * <pre>
+ * java lib.mates.pom.utils.SwipeCalibrator TA0050FCG7
+ * </pre>
+ */
+public class SwipeCalibrator {
+    // Rate (px/ms) used by Scroll on uncalibrated devices
+    private static final double SAFE_VELOCITY = 0.3;
+    // Fastest velocity (px/ms) tried
+    private static final double MAX_VELOCITY = 10;
+    // Relative excess of content distance over safe one taken as momentum scrolling
+    private static final double FLING_TOLERANCE = 0.1;
+    // Max time (milliseconds) for list to settle after swipe
+    private static final int SETTLE_TIMEOUT = 2000;
+    private PlatformDriver platformDriver;
+    private MoviePicker moviePicker;
+    private Element listElement;
+
+    /**
+     * @param platformDriver  Session of device to calibrate, on "Movies" page.
+     */
+    public SwipeCalibrator(PlatformDriver platformDriver) {
+        this.platformDriver = platformDriver;
+        this.moviePicker = new MoviePicker(platformDriver);
+        this.listElement = new Element(platformDriver, new By.
+            ById("us.moviemates:id/pagerAdapterFromMovies"));
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String deviceId = args[0];
+        JsonObject deviceInfo = DeviceRegistry.getInstance().getDeviceInfo(deviceId);
+        PlatformDriver platformDriver = new PlatformDriver(deviceId, "http", "127.0.0.1",
+            deviceInfo.getInt("appiumPort"), "/wd/hub", 0);
+        try {
+            SwipeProfile swipeProfile = new SwipeCalibrator(platformDriver).calibrate();
+            DeviceRegistry.getInstance().saveSwipeProfile(deviceId, swipeProfile);
+            System.out.println(deviceId + ": " + swipeProfile);
+        }
+        finally {
+            platformDriver.quit();
+        }
+    }
+
+    /**
+     * Measures swipe profile and applies it to session.
+     * @return  Measured instance of SwipeProfile.
+     */
+    @SuppressWarnings("try")
+    public SwipeProfile calibrate() {
+        try (Tracer.Span span = this.platformDriver.getTracer().span("SwipeCalibrator.calibrate")) {
+            Bounds listBounds = this.listElement.getBounds();
+            // A third of list keeps reference row on screen after slow swipe
+            int distance = listBounds.getHeight() / 3;
+            int safeDistance = this.measure(listBounds, distance, SwipeCalibrator.SAFE_VELOCITY, 
+                0);
+            if (safeDistance <= 0 || safeDistance == Integer.MAX_VALUE) {
+                throw new RuntimeException("Movie list does not scroll; swipe cannot be " + 
+                    "calibrated.");
+            }
+            double velocity = SwipeCalibrator.SAFE_VELOCITY;
+            for (double trialVelocity = velocity * 2; trialVelocity <= SwipeCalibrator.
+                MAX_VELOCITY; trialVelocity *= 2) {
+                int trialDistance = this.measure(listBounds, distance, trialVelocity, 
+                    safeDistance);
+                if (trialDistance > safeDistance * (1 + SwipeCalibrator.FLING_TOLERANCE)) {
+                    break;
+                }
+                velocity = trialVelocity;
+            }
+            SwipeProfile swipeProfile = new SwipeProfile(velocity, (double) safeDistance /
+                distance);
+            this.platformDriver.setSwipeProfile(swipeProfile);
+            return swipeProfile;
+        }
+    }
+
+    /**
+     * Swipes list upward at given velocity, measures distance content has moved once it has
+     * settled, and swipes it back at safe rate.
+     * @param safeDistance  Content distance of the same swipe at safe rate, 0 if not known yet.
+     * @return  Distance (pixels) content has moved, Integer.MAX_VALUE if reference row has left
+     * the screen.
+     */
+    private int measure(Bounds listBounds, int distance, double velocity, int safeDistance) {
+        MovieRow reference = this.getReference(this.moviePicker.getMovieRows());
+        if (reference == null) {
+            throw new RuntimeException("Movie list has no complete row to measure swipe by.");
+        }
+        this.swipe(listBounds, distance, (int) Math.ceil(distance / velocity));
+        MovieRow moved = null;
+        for (MovieRow row : this.settle()) {
+            if (reference.getTitle().equals(row.getTitle())) {
+                moved = row;
+                break;
+            }
+        }
+        int movedDistance = moved != null ? reference.getBounds().getTop() - moved.getBounds().
+            getTop() : Integer.MAX_VALUE;
+        // Undo swipe at safe rate; content flung off screen is brought back by list height
+        int undoDistance = listBounds.getHeight() - 2;
+        if (moved != null) {
+            undoDistance = Math.min(undoDistance, safeDistance > 0 ? (int) ((long) distance * 
+                movedDistance / safeDistance) : distance);
+        }
+        this.swipe(listBounds, -undoDistance, (int) Math.ceil(undoDistance / SwipeCalibrator.
+            SAFE_VELOCITY));
+        this.settle();
+        return movedDistance;
+    }
+
+    /**
+     * Waits until two consecutive viewports of list have the same fingerprint (momentum 
+     * scrolling has ended).
+     * @return  Rows of settled list.
+     */
+    private List<MovieRow> settle() {
+        new Waits(this.platformDriver).until(Waits.uiStable(this.listElement), SwipeCalibrator.
+            SETTLE_TIMEOUT);
+        return this.moviePicker.getMovieRows();
+    }
+
+    /**
+     * Picks first row with title as reference of measurement.
+     */
+    private MovieRow getReference(List<MovieRow> rows) {
+        for (MovieRow row : rows) {
+            if (row.getTitle() != null && row.getBounds() != null) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Swipes from center of list; positive distance moves content upward.
+     */
+    private void swipe(Bounds listBounds, int distance, int duration) {
+        int startX = listBounds.getCenterX();
+        int startY = listBounds.getCenterY() + distance / 2;
+        this.platformDriver.getDriver().swipe(startX, startY, startX, startY - distance, duration);
+        this.platformDriver.advanceUiEpoch();
+    }
+}
@@ -0,0 +1,85 @@
+package lib.mates.pom.utils;
+
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriverException;
+import io.appium.java_client.MobileBy;
+import lib.mates.pom.PlatformDriver;
+
+
+/**
+ * Builds UiAutomator expressions for MobileBy.AndroidUIAutomator() locator (Android only).
+ */
+public class UiAutomator {
+    /**
+     * Outcome of UiScrollable search made by device.
+     */
+    public enum SearchResult {
+        // Target element has been scrolled into view
+        FOUND,
+        // Device has stopped without target: at end of container, or after max number of swipes
+        NOT_FOUND,
+        // Device could not perform search
+        FAILED
+    }
+
+    /**
+     * Makes device perform UiScrollable search in single command. Device stopping without target
+     * does not mean target is absent: max number of swipes may run out before end of container
+     * is reached, so caller is to confirm end of container by itself.
+     * @param platformDriver  Tailored wrapper of AppiumDriver.
+     * @param expression  Expression built by scrollIntoView().
+     * @return  Outcome of search.
+     */
+    @SuppressWarnings("try")
+    public static SearchResult search(PlatformDriver platformDriver, String expression) {
+        SearchResult result = SearchResult.FOUND;
+        // Device repeats whole search on each retry, so implicit wait must not be applied
+        try (PlatformDriver.ImplicitWait wait = platformDriver.withImplicitWait(0)) {
+            platformDriver.getDriver().findElement(MobileBy.AndroidUIAutomator(expression));
+        }
+        catch (NoSuchElementException e) {
+            result = SearchResult.NOT_FOUND;
+        }
+        catch (WebDriverException e) {
+            result = SearchResult.FAILED;
+        }
+        // Content has been scrolled whatever the outcome
+        platformDriver.advanceUiEpoch();
+        return result;
+    }
+
+    /**
+     * Builds expression which makes device itself scroll container until target element is 
+     * visible. UiScrollable scrolls container to the beginning first, then forward until target 
+     * is found or end of container is reached, all in single command.
+     * @param scrollableId  Resource ID of scrollable container.
+     * @param targetId  Resource ID of target element.
+     * @param text  Text target element contains, case insensitive.
+     * @param maxSearchSwipes  Max number of swipes made in search.
+     * @return  Expression ("new UiScrollable(...).scrollIntoView(...)").
+     */
+    public static String scrollIntoView(String scrollableId, String targetId, String text, int 
+        maxSearchSwipes) {
+        return String.format("new UiScrollable(new UiSelector().resourceId(\"%s\").scrollable(true))" + 
+            ".setMaxSearchSwipes(%d).scrollIntoView(new UiSelector().resourceId(\"%s\")" + 
+            ".textMatches(\"%s\"))", scrollableId, maxSearchSwipes, targetId, UiAutomator.
+            containsPattern(text));
+    }
+
+    /**
+     * Builds case insensitive regular expression matching text which contains given text. 
+     * Characters other than letters, digits and spaces match any character, so that expression 
+     * needs no escaping inside UiAutomator string literal; exact match is to be checked by 
+     * caller.
+     * @param text  Text to look for ("Fifty Shades Darker").
+     * @return  Regular expression ("(?i).*Fifty Shades Darker.*").
+     */
+    public static String containsPattern(String text) {
+        StringBuilder pattern = new StringBuilder("(?i).*");
+        for (char character : text.toCharArray()) {
+            pattern.append(Character.isLetterOrDigit(character) || character == ' ' ? character : 
+                '.');
+        }
+        return pattern.append(".*").toString();
+    }
+}
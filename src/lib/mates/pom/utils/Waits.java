@@ -0,0 +1,198 @@
+package lib.mates.pom.utils;
+
+import java.util.Collections;
+import org.openqa.selenium.By;
+import lib.mates.pom.PlatformDriver;
+import lib.mates.pom.components.Element;
+import lib.mates.pom.snapshot.Viewport;
+import lib.mates.pom.trace.Tracer;
+
+
+/**
+ * Explicit waits for UI conditions, used instead of implicit wait and fixed sleeps. Every tick
+ * takes one page source snapshot and all conditions of the wait are checked against it, so wait
+ * ends as soon as any of them is known. Polling starts fast and backs off while UI stays the
+ * same; any change of UI resets it to the fast interval. Each wait has its own deadline.
+ * <pre>
+ * Waits waits = new Waits(platformDriver);
+ * waits.until(Waits.present(element), 5000);
+ * int first = waits.untilFirst(1000, Waits.present(markElement), Waits.present(rowElement));
+ * </pre>
+ */
+public class Waits {
+    // Timeout (milliseconds) of waits for elements to appear
+    public static final int DEFAULT_TIMEOUT = 15000;
+    // Result of untilFirst() if no condition is met before deadline
+    public static final int TIMED_OUT = -1;
+    // Backoff factor of polling interval
+    private static final double BACKOFF = 1.5;
+    private PlatformDriver platformDriver;
+    // Polling interval (milliseconds) while UI changes, and its limit while UI stays the same
+    private int initialInterval = 50;
+    private int maxInterval = 1000;
+
+    /**
+     * Condition checked once per tick of wait.
+     */
+    public interface Condition {
+        boolean isMet();
+    }
+
+    /**
+     * @param platformDriver  Tailored wrapper of AppiumDriver.
+     */
+    public Waits(PlatformDriver platformDriver) {
+        this.platformDriver = platformDriver;
+    }
+
+    /**
+     * Sets polling intervals.
+     * @param initialInterval  Interval (milliseconds) after UI change.
+     * @param maxInterval  Max interval (milliseconds) polling backs off to.
+     * @return  This instance.
+     */
+    public Waits withPolling(int initialInterval, int maxInterval) {
+        this.initialInterval = initialInterval;
+        this.maxInterval = maxInterval;
+        return this;
+    }
+
+    /**
+     * Waits until condition is met.
+     * @param condition  Condition.
+     * @param timeout  Max time (milliseconds) to wait.
+     * @return  True if condition is met, false if deadline has passed.
+     */
+    public boolean until(Condition condition, int timeout) {
+        return this.untilFirst(timeout, condition) == 0;
+    }
+
+    /**
+     * Waits until any of conditions is met. Conditions are checked in given order against the
+     * same state of UI.
+     * @param timeout  Max time (milliseconds) to wait.
+     * @param conditions  Conditions.
+     * @return  Index of first met condition, TIMED_OUT if deadline has passed.
+     */
+    @SuppressWarnings("try")
+    public int untilFirst(int timeout, Condition... conditions) {
+        try (Tracer.Span span = this.platformDriver.getTracer().span("Waits.untilFirst")) {
+            boolean snapshotMode = this.platformDriver.isSnapshotMode();
+            // Elements of all conditions are resolved against one snapshot per tick
+            if (! snapshotMode) {
+                this.platformDriver.setSnapshotMode(true);
+            }
+            try {
+                long deadline = System.currentTimeMillis() + timeout;
+                long interval = this.initialInterval;
+                Viewport viewport = null;
+                while (true) {
+                    for (int index = 0; index < conditions.length; index++) {
+                        if (conditions[index].isMet()) {
+                            return index;
+                        }
+                    }
+                    long remainingTime = deadline - System.currentTimeMillis();
+                    if (remainingTime <= 0) {
+                        return Waits.TIMED_OUT;
+                    }
+                    // UI still changing is polled fast, UI at rest less and less often
+                    Viewport nextViewport = Waits.getScreen(this.platformDriver);
+                    interval = nextViewport.isSettled(viewport) ? Math.min(this.maxInterval,
+                        (long) (interval * Waits.BACKOFF)) : this.initialInterval;
+                    viewport = nextViewport;
+                    Thread.sleep(Math.min(interval, remainingTime));
+                    // Next tick reads UI afresh
+                    this.platformDriver.advanceUiEpoch();
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Waits.TIMED_OUT;
+            }
+            finally {
+                if (! snapshotMode) {
+                    this.platformDriver.setSnapshotMode(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Element is present on screen.
+     */
+    public static Condition present(Element element) {
+        return element::isPresent;
+    }
+
+    /**
+     * Element is not present on screen.
+     */
+    public static Condition absent(Element element) {
+        return () -> ! element.isPresent();
+    }
+
+    /**
+     * Element is present and has given text.
+     */
+    public static Condition textEquals(Element element, String text) {
+        return () -> text.equals(element.getText());
+    }
+
+    /**
+     * All of conditions are met at the same tick.
+     */
+    public static Condition all(Condition... conditions) {
+        return () -> {
+            for (Condition condition : conditions) {
+                if (! condition.isMet()) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    /**
+     * Content of container is the same as at previous tick (scrolling, animation or loading has
+     * ended). Condition keeps fingerprint of previous tick, so it serves one wait.
+     * @param container  Element enclosing content.
+     * @return  Condition, never met at first tick.
+     */
+    public static Condition uiStable(Element container) {
+        return new Condition() {
+            private Viewport viewport;
+
+            @Override
+            public boolean isMet() {
+                Viewport nextViewport = Scroll.getViewport(container);
+                boolean isSettled = nextViewport.isSettled(this.viewport);
+                this.viewport = nextViewport;
+                return isSettled;
+            }
+        };
+    }
+
+    /**
+     * Whole screen is the same as at previous tick.
+     * @param platformDriver  Tailored wrapper of AppiumDriver.
+     * @return  Condition, never met at first tick.
+     */
+    public static Condition uiStable(PlatformDriver platformDriver) {
+        return new Condition() {
+            private Viewport viewport;
+
+            @Override
+            public boolean isMet() {
+                Viewport nextViewport = Waits.getScreen(platformDriver);
+                boolean isSettled = nextViewport.isSettled(this.viewport);
+                this.viewport = nextViewport;
+                return isSettled;
+            }
+        };
+    }
+
+    private static Viewport getScreen(PlatformDriver platformDriver) {
+        return Viewport.capture(platformDriver.getSnapshot(), Collections.<By>emptyList());
+    }
+}
@@ -0,0 +1,41 @@
+package tests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import lib.mates.pom.snapshot.Bounds;
+
+
+/**
+ * Checks parsing and geometry of Bounds.
+ */
+public class BoundsTest {
+    @Test
+    public void parsesAndroidBounds() {
+        Bounds bounds = Bounds.parse("[0,96][720,1184]");
+        Assert.assertEquals(0, bounds.getLeft());
+        Assert.assertEquals(96, bounds.getTop());
+        Assert.assertEquals(720, bounds.getRight());
+        Assert.assertEquals(1184, bounds.getBottom());
+        Assert.assertEquals(720, bounds.getWidth());
+        Assert.assertEquals(1088, bounds.getHeight());
+        Assert.assertEquals(360, bounds.getCenterX());
+        Assert.assertEquals(640, bounds.getCenterY());
+    }
+
+    @Test
+    public void rejectsUnrecognizedText() {
+        Assert.assertNull(Bounds.parse(null));
+        Assert.assertNull(Bounds.parse(""));
+        Assert.assertNull(Bounds.parse("[0,96][720]"));
+        Assert.assertNull(Bounds.parse("{0,96,720,1184}"));
+    }
+
+    @Test
+    public void comparesByValue() {
+        Bounds bounds = new Bounds(0, 96, 720, 1184);
+        Assert.assertEquals(bounds, Bounds.parse("[0,96][720,1184]"));
+        Assert.assertEquals(bounds.hashCode(), Bounds.parse("[0,96][720,1184]").hashCode());
+        Assert.assertNotEquals(bounds, new Bounds(0, 96, 720, 1183));
+        Assert.assertNotEquals(bounds, null);
+    }
+}
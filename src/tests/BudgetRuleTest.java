@@ -0,0 +1,136 @@
+package tests;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Test;
+import lib.mates.pom.budget.BudgetRule;
+import lib.mates.pom.budget.CommandBudget;
+import lib.mates.pom.trace.Tracer;
+
+
+/**
+ * Checks counting of commands, XPath queries and swipes by BudgetRule against CommandBudget, on
+ * events recorded by Tracer without device.
+ */
+public class BudgetRuleTest {
+    // Duration (nanoseconds) of every recorded command
+    private static final long DURATION = 2000000;
+
+    @Test
+    public void passesWithinBudget() throws Exception {
+        Assert.assertNull(BudgetRule.check(BudgetRuleTest.getBudget("fitting"), BudgetRuleTest.
+            record(), 100));
+    }
+
+    @Test
+    public void takesNegativeLimitsAsNoLimit() throws Exception {
+        Assert.assertNull(BudgetRule.check(BudgetRuleTest.getBudget("unlimited"), BudgetRuleTest.
+            record(), Long.MAX_VALUE));
+    }
+
+    @Test
+    public void reportsExceededLimits() throws Exception {
+        String report = BudgetRule.check(BudgetRuleTest.getBudget("tight"), BudgetRuleTest.
+            record(), 100);
+        Assert.assertNotNull(report);
+        // Spans are not commands; tap is not a swipe; id lookup is not XPath
+        Assert.assertTrue(report, report.contains("  commands: 6 > 5"));
+        Assert.assertTrue(report, report.contains("  XPath queries: 2 > 1"));
+        Assert.assertTrue(report, report.contains("  swipes: 2 > 1"));
+        Assert.assertTrue(report, report.contains("  wall time (ms): 100 > 50"));
+    }
+
+    @Test
+    public void reportsOnlyExceededLimits() throws Exception {
+        String report = BudgetRule.check(BudgetRuleTest.getBudget("swipes"), BudgetRuleTest.
+            record(), 100);
+        Assert.assertNotNull(report);
+        Assert.assertTrue(report, report.contains("  swipes: 2 > 0"));
+        Assert.assertFalse(report, report.contains("commands:"));
+        Assert.assertFalse(report, report.contains("XPath"));
+        Assert.assertFalse(report, report.contains("wall time"));
+    }
+
+    @Test
+    public void breaksDownCommandsByNameAndInnermostSpan() throws Exception {
+        String report = BudgetRule.check(BudgetRuleTest.getBudget("tight"), BudgetRuleTest.
+            record(), 100);
+        String byName = report.substring(report.indexOf("Commands by name:"), report.indexOf(
+            "Commands by component method:"));
+        String bySpan = report.substring(report.indexOf("Commands by component method:"));
+        Map<String, Integer> names = BudgetRuleTest.parseBreakdown(byName);
+        Assert.assertEquals(Integer.valueOf(3), names.get("POST /elements"));
+        Assert.assertEquals(Integer.valueOf(3), names.get("POST /touch/perform"));
+        Map<String, Integer> spans = BudgetRuleTest.parseBreakdown(bySpan);
+        Assert.assertEquals(Integer.valueOf(3), spans.get("MoviePicker.scroll"));
+        Assert.assertEquals(Integer.valueOf(2), spans.get("MoviePicker.findMovie"));
+        // Command sent outside any span
+        Assert.assertEquals(Integer.valueOf(1), spans.get("(test)"));
+        Assert.assertEquals(3, spans.size());
+        // Most frequent first, with total time
+        Assert.assertTrue(bySpan, bySpan.split("\\r?\\n")[1].trim().matches(
+            "3\\s+6 ms\\s+MoviePicker\\.scroll"));
+    }
+
+    /**
+     * Records test of six commands: tap outside spans, then XPath and id lookups under
+     * MoviePicker.findMovie, and XPath lookup and two swipes under nested MoviePicker.scroll.
+     */
+    @SuppressWarnings("try")
+    private static List<Tracer.Event> record() {
+        Tracer tracer = new Tracer();
+        BudgetRuleTest.recordCommand(tracer, "POST /touch/perform", "gesture", "tap");
+        try (Tracer.Span findSpan = tracer.span("MoviePicker.findMovie")) {
+            BudgetRuleTest.recordCommand(tracer, "POST /elements", "using", "xpath");
+            BudgetRuleTest.recordCommand(tracer, "POST /elements", "using", "id");
+            try (Tracer.Span scrollSpan = tracer.span("MoviePicker.scroll")) {
+                BudgetRuleTest.recordCommand(tracer, "POST /elements", "using", "xpath");
+                BudgetRuleTest.recordCommand(tracer, "POST /touch/perform", "gesture", "swipe");
+                BudgetRuleTest.recordCommand(tracer, "POST /touch/perform", "gesture", "swipe");
+            }
+        }
+        return tracer.getEvents();
+    }
+
+    private static void recordCommand(Tracer tracer, String name, String argument, String value) {
+        Map<String, Object> arguments = new HashMap<>();
+        arguments.put(argument, value);
+        tracer.recordCommand(name, System.nanoTime(), BudgetRuleTest.DURATION, arguments);
+    }
+
+    /**
+     * Reads counts of breakdown lines ("      3         6 ms  MoviePicker.scroll").
+     */
+    private static Map<String, Integer> parseBreakdown(String breakdown) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String line : breakdown.split("\\r?\\n")) {
+            String[] fields = line.trim().split("\\s+", 4);
+            if (fields.length == 4 && fields[2].equals("ms")) {
+                counts.put(fields[3], Integer.parseInt(fields[0]));
+            }
+        }
+        return counts;
+    }
+
+    private static CommandBudget getBudget(String method) throws Exception {
+        return BudgetRuleTest.class.getDeclaredMethod(method).getAnnotation(CommandBudget.class);
+    }
+
+    @CommandBudget(max = 6, xpath = 2, swipes = 2, wallTime = 100)
+    private static void fitting() {
+    }
+
+    @CommandBudget
+    private static void unlimited() {
+    }
+
+    @CommandBudget(max = 5, xpath = 1, swipes = 1, wallTime = 50)
+    private static void tight() {
+    }
+
+    @CommandBudget(swipes = 0)
+    private static void swipes() {
+    }
+}
@@ -0,0 +1,126 @@
+package tests;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.openqa.selenium.By;
+import io.appium.java_client.MobileBy;
+import lib.mates.pom.locators.LocatorChain;
+import lib.mates.pom.simulator.ScreenSet;
+import lib.mates.pom.simulator.SimulatedDevice;
+import lib.mates.pom.simulator.UiSelector;
+import lib.mates.pom.snapshot.UiTree;
+import lib.mates.pom.snapshot.UiXPath;
+
+
+/**
+ * Checks fusion of hierarchical locators into single locator, and that fused locators find the
+ * same element as level-by-level search.
+ */
+public class LocatorChainTest {
+    private static final By LIST = new By.ById("us.moviemates:id/listView");
+    private static final By TITLE = new By.ById("us.moviemates:id/tvTitle");
+    // Two cards; only the second one has address
+    private static final String CARDS_SOURCE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+        "<hierarchy rotation=\"0\">" +
+        "<android.widget.FrameLayout index=\"0\" resource-id=\"\" bounds=\"[0,0][720,1280]\">" +
+        "<android.widget.RelativeLayout index=\"0\" resource-id=\"us.moviemates:id/rlCard\" " +
+        "bounds=\"[0,0][720,400]\"/>" +
+        "<android.widget.RelativeLayout index=\"1\" resource-id=\"us.moviemates:id/rlCard\" " +
+        "bounds=\"[0,400][720,800]\">" +
+        "<android.widget.TextView index=\"0\" text=\"AMC Saratoga 14\" " +
+        "resource-id=\"us.moviemates:id/tvAddress\" bounds=\"[20,410][700,450]\"/>" +
+        "</android.widget.RelativeLayout>" +
+        "</android.widget.FrameLayout></hierarchy>";
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsStrategyAndValue() {
+        Assert.assertEquals("id", LocatorChain.getStrategy(LocatorChainTest.LIST));
+        Assert.assertEquals("us.moviemates:id/listView", LocatorChain.getValue(LocatorChainTest.
+            LIST));
+        Assert.assertEquals("className", LocatorChain.getStrategy(new By.
+            ByClassName("android.widget.TextView")));
+        Assert.assertEquals("xpath", LocatorChain.getStrategy(new By.ByXPath("//a")));
+        Assert.assertNull(LocatorChain.getStrategy(MobileBy.AccessibilityId("Movies")));
+    }
+
+    @Test
+    public void fusesResourceIdsIntoUiSelectorOnAndroid() {
+        By locator = LocatorChain.fuse(Arrays.asList(LocatorChainTest.LIST, LocatorChainTest.
+            TITLE), true);
+        Assert.assertEquals(MobileBy.AndroidUIAutomator("new UiSelector().resourceId(" +
+            "\"us.moviemates:id/listView\").instance(0).childSelector(new UiSelector()." +
+            "resourceId(\"us.moviemates:id/tvTitle\"))").toString(), locator.toString());
+        // Simulator understands what client builds
+        Assert.assertNotNull(UiSelector.parse(LocatorChain.getValue(locator)).getChildSelector());
+    }
+
+    @Test
+    public void fusesOtherChainsIntoXPath() {
+        By locator = LocatorChain.fuse(Arrays.asList(LocatorChainTest.LIST, LocatorChainTest.
+            TITLE), false);
+        Assert.assertEquals("(//*[@resource-id='us.moviemates:id/listView'])[1]" +
+            "//*[@resource-id='us.moviemates:id/tvTitle']", LocatorChain.getValue(locator));
+        locator = LocatorChain.fuse(Arrays.asList(LocatorChainTest.LIST, new By.
+            ByClassName("android.widget.RelativeLayout"), new By.ByXPath(".//android.widget." +
+            "TextView[@index=0]")), true);
+        Assert.assertEquals("((//*[@resource-id='us.moviemates:id/listView'])[1]" +
+            "//android.widget.RelativeLayout)[1]//android.widget.TextView[@index=0]", LocatorChain.
+            getValue(locator));
+    }
+
+    @Test
+    public void leavesUnfusableChainsAlone() {
+        Assert.assertNull(LocatorChain.fuse(Arrays.asList(LocatorChainTest.LIST), true));
+        Assert.assertNull(LocatorChain.fuse(Arrays.asList(LocatorChainTest.LIST, MobileBy.
+            AccessibilityId("Movies")), true));
+        Assert.assertNull(LocatorChain.fuse(Arrays.asList(new By.ById("listView"),
+            LocatorChainTest.TITLE), false));
+        Assert.assertNull(LocatorChain.fuse(Arrays.asList(LocatorChainTest.LIST, new By.
+            ByXPath("//a | //b")), false));
+    }
+
+    @Test
+    public void findsSameElementAsLevelByLevelSearch() throws Exception {
+        UiTree tree = UiTree.parse(UiXPathTest.readScreen("movies.xml"));
+        int list = UiXPath.compile("//*[@resource-id='us.moviemates:id/listView']").evaluate(tree,
+            UiTree.DOCUMENT)[0];
+        int item = UiXPath.compile(".//android.widget.RelativeLayout").evaluate(tree, list)[0];
+        int title = UiXPath.compile(".//*[@resource-id='us.moviemates:id/tvTitle']").
+            evaluate(tree, item)[0];
+        By locator = LocatorChain.fuse(Arrays.asList(LocatorChainTest.LIST, new By.
+            ByClassName("android.widget.RelativeLayout"), LocatorChainTest.TITLE), false);
+        int[] nodes = UiXPath.compile(LocatorChain.getValue(locator)).evaluate(tree, UiTree.
+            DOCUMENT);
+        Assert.assertTrue(nodes.length > 0);
+        Assert.assertEquals(title, nodes[0]);
+    }
+
+    @Test
+    public void searchesOnlyFirstMatchOfParent() throws Exception {
+        Path manifestPath = this.folder.getRoot().toPath().resolve("cards.json");
+        Files.write(manifestPath.resolveSibling("cards.xml"), LocatorChainTest.CARDS_SOURCE.
+            getBytes(StandardCharsets.UTF_8));
+        Files.write(manifestPath, ("{\"start\": \"cards\", \"screens\": {\"cards\": " +
+            "{\"source\": \"cards.xml\"}}}").getBytes(StandardCharsets.UTF_8));
+        SimulatedDevice device = new SimulatedDevice(ScreenSet.load(manifestPath));
+        List<By> chain = Arrays.asList(new By.ById("us.moviemates:id/rlCard"), new By.
+            ById("us.moviemates:id/tvAddress"));
+        // Element searches child in first card only, which has none
+        String card = device.findElements(null, "id", "us.moviemates:id/rlCard").get(0);
+        Assert.assertTrue(device.findElements(card, "id", "us.moviemates:id/tvAddress").
+            isEmpty());
+        Assert.assertTrue(device.findElements(null, "-android uiautomator", LocatorChain.
+            getValue(LocatorChain.fuse(chain, true))).isEmpty());
+        Assert.assertTrue(device.findElements(null, "xpath", LocatorChain.getValue(LocatorChain.
+            fuse(chain, false))).isEmpty());
+    }
+}
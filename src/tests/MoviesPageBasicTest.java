@@ -1,30 +1,40 @@
 package tests;
 
-import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Set;
-import org.junit.AfterClass;
 import org.junit.Assert;
-import org.junit.BeforeClass;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.junit.runner.RunWith;
 import io.appium.java_client.MobileElement;
 import lib.mates.pom.PlatformDriver;
 import lib.mates.pom.components.Cinema;
+import lib.mates.pom.components.DateLine;
 import lib.mates.pom.components.DatePicker;
+import lib.mates.pom.components.DateTile;
 import lib.mates.pom.components.MovieDetails;
 import lib.mates.pom.components.MoviePicker;
 import lib.mates.pom.components.MoviePicker.MovieItem;
 import lib.mates.pom.components.MoviesTabBar;
+import lib.mates.pom.runner.DeviceRunner;
+import lib.mates.pom.utils.Waits;
 
 
+/**
+ * Runs on every mounted device of src/data/devices.json in parallel.
+ */
+@RunWith(DeviceRunner.class)
 public class MoviesPageBasicTest {
-    private static PlatformDriver driver;
+    private PlatformDriver driver;
 
-    @BeforeClass
-    public static void suiteSetup() throws IOException, InterruptedException {
-        MoviesPageBasicTest.driver = new PlatformDriver("HT44NWM01874", "http", "127.0.0.1", 4723, "/wd/hub", 15000);
+    /**
+     * @param driver  Session of device under test, provided by DeviceRunner.
+     */
+    public MoviesPageBasicTest(PlatformDriver driver) {
+        this.driver = driver;
+        // Resolve element lookups against page source snapshot
+        this.driver.setSnapshotMode(true);
     }
 
     @Ignore
@@ -40,6 +50,7 @@ public class MoviesPageBasicTest {
             System.out.println(context);
         }
         driver.getDriver().context(contexts.toArray()[1].toString());
+        driver.advanceUiEpoch();
         System.out.println("Context: WEBVIEW_us.moviemates");
         System.out.println("Trying to find edit box...");
         driver.getDriver().findElementById("identifierId").sendKeys("psemyonov");
@@ -51,7 +62,7 @@ public class MoviesPageBasicTest {
      */
     @Test
     public void verifyTabBarPresent() {
-        MoviesTabBar moviesTabBar = new MoviesTabBar(MoviesPageBasicTest.driver);
+        MoviesTabBar moviesTabBar = new MoviesTabBar(this.driver);
         Assert.assertTrue(moviesTabBar.moviesTab.getText().toUpperCase().equals("MOVIES"));
         Assert.assertTrue(moviesTabBar.matesTab.getText().toUpperCase().equals("MATES"));
         Assert.assertTrue(moviesTabBar.chatsTab.getText().toUpperCase().equals("CHATS"));
@@ -62,11 +73,15 @@ public class MoviesPageBasicTest {
      */
     @Test
     public void verifyDatePickerPresent() {
-        DatePicker datePicker = new DatePicker(MoviesPageBasicTest.driver);
+        DatePicker datePicker = new DatePicker(this.driver);
         datePicker.scrollRight(3);
         datePicker.scrollRight(3);
+        // All tiles are read by one query; partially rendered ones are flagged incomplete
+        DateLine dateLine = datePicker.getDateLine();
         LocalDate checkDate = LocalDate.now();
-        for (DatePicker.DateItem date : datePicker.getDates()) {
+        Assert.assertTrue(dateLine.getAnchor() != null);
+        Assert.assertTrue(checkDate.equals(dateLine.getDate(dateLine.getTiles().get(0), checkDate)));
+        for (DateTile date : dateLine.getTiles()) {
             if (date.isComplete()) {
                 String checkMonthName = checkDate.getMonth().toString().substring(0, 3);
                 String checkDayName = checkDate.getDayOfWeek().toString();
@@ -86,12 +101,12 @@ public class MoviesPageBasicTest {
     @Ignore
     @Test
     public void verifyMoviesMarkedInterested() throws InterruptedException {
-        for (DatePicker.DateItem date : new DatePicker(MoviesPageBasicTest.driver).getDates()) {
+        for (DatePicker.DateItem date : new DatePicker(this.driver).getDates()) {
             date.select();
-            new MoviePicker(MoviesPageBasicTest.driver).getMovies().get(0).interest();
+            new MoviePicker(this.driver).getMovies().get(0).interest();
             Assert.assertTrue(date.isSelected());
             Assert.assertTrue(date.isActive());
-            new MoviePicker(MoviesPageBasicTest.driver).getMovies().get(0).uninterest();
+            new MoviePicker(this.driver).getMovies().get(0).uninterest();
             Assert.assertFalse(date.isSelected());
         }
     }
@@ -99,7 +114,7 @@ public class MoviesPageBasicTest {
     @Test
     public void verifyMovieTime() throws InterruptedException {
         String movieName = "Fifty Shades Darker";
-        MoviePicker moviePicker = new MoviePicker(MoviesPageBasicTest.driver);
+        MoviePicker moviePicker = new MoviePicker(this.driver);
 
         System.out.println("Finding movie...");
         MovieItem movie = moviePicker.findMovie(movieName);
@@ -114,7 +129,7 @@ public class MoviesPageBasicTest {
         
         System.out.println("\nSelecting movie...");
         movie.select();
-        MovieDetails movieDetails = new MovieDetails(MoviesPageBasicTest.driver);
+        MovieDetails movieDetails = new MovieDetails(this.driver);
         System.out.println("Locating times section...");
         movieDetails.timesSection.locate();
         String cinemaName = "AMC Saratoga 14";
@@ -130,11 +145,7 @@ public class MoviesPageBasicTest {
         System.out.println("\nSelecting time...");
         Assert.assertTrue(cinema != null);
         cinema.selectTime(movieTime);
-        Thread.sleep(15000);
-    }
-
-    @AfterClass
-    public static void suiteTeardown() {
-        MoviesPageBasicTest.driver.quit();
+        // Let screen opened by time finish loading
+        Assert.assertTrue(new Waits(this.driver).until(Waits.uiStable(this.driver), 15000));
     }
 }
\ No newline at end of file
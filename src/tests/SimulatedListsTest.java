@@ -0,0 +1,123 @@
+package tests;
+
+import java.nio.file.Paths;
+import java.util.List;
+import javax.json.JsonObject;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import lib.mates.pom.DeviceRegistry;
+import lib.mates.pom.PlatformDriver;
+import lib.mates.pom.components.Cinema;
+import lib.mates.pom.components.DateTile;
+import lib.mates.pom.components.DatePicker;
+import lib.mates.pom.components.MovieDetails;
+import lib.mates.pom.components.MoviePicker;
+import lib.mates.pom.simulator.CommandHandler;
+import lib.mates.pom.simulator.InMemoryHttpClient;
+import lib.mates.pom.simulator.SyntheticScreens;
+
+
+/**
+ * Runs list searches of components against simulated device (SIMULATOR-01 of
+ * src/data/devices.json) handled in memory. Lists are generated by SyntheticScreens longer than
+ * device scrolls in one UiScrollable search, so client has to finish every search.
+ */
+public class SimulatedListsTest {
+    private static final String DEVICE_ID = "SIMULATOR-01";
+    // Number of movies, dates and cinemas
+    private static final int SIZE = 500;
+    private static PlatformDriver platformDriver;
+
+    @BeforeClass
+    public static void start() throws Exception {
+        JsonObject deviceInfo = DeviceRegistry.getInstance().getDeviceInfo(SimulatedListsTest.
+            DEVICE_ID);
+        CommandHandler commandHandler = new CommandHandler(SyntheticScreens.create(Paths.get(System.
+            getProperty("user.dir"), deviceInfo.getString("simulator")), SimulatedListsTest.SIZE,
+            SimulatedListsTest.SIZE, SimulatedListsTest.SIZE), 0);
+        InMemoryHttpClient.setCommandHandler(SimulatedListsTest.DEVICE_ID, commandHandler);
+        System.setProperty("mates.inProcess", "true");
+        SimulatedListsTest.platformDriver = new PlatformDriver(SimulatedListsTest.DEVICE_ID,
+            "http", "127.0.0.1", deviceInfo.getInt("appiumPort"), "/wd/hub", 0);
+    }
+
+    @AfterClass
+    public static void stop() {
+        SimulatedListsTest.platformDriver.quit();
+    }
+
+    @Before
+    public void launchApp() {
+        SimulatedListsTest.platformDriver.reset();
+        SimulatedListsTest.platformDriver.setSnapshotMode(true);
+    }
+
+    @Test
+    public void findsMovieAtEndOfList() {
+        String title = String.format(SyntheticScreens.MOVIE_TITLE, SimulatedListsTest.SIZE - 1);
+        MoviePicker.MovieItem movie = new MoviePicker(SimulatedListsTest.platformDriver).
+            findMovie(title);
+        Assert.assertNotNull(movie);
+        Assert.assertEquals(title, movie.getTitle());
+    }
+
+    @Test
+    public void findsMovieAboveCurrentPosition() {
+        MoviePicker moviePicker = new MoviePicker(SimulatedListsTest.platformDriver);
+        String last = String.format(SyntheticScreens.MOVIE_TITLE, SimulatedListsTest.SIZE - 1);
+        Assert.assertNotNull(moviePicker.findMovie(last));
+        String middle = String.format(SyntheticScreens.MOVIE_TITLE, SimulatedListsTest.SIZE / 2);
+        MoviePicker.MovieItem movie = moviePicker.findMovie(middle);
+        Assert.assertNotNull(movie);
+        Assert.assertEquals(middle, movie.getTitle());
+    }
+
+    @Test
+    public void returnsNullForAbsentMovie() {
+        Assert.assertNull(new MoviePicker(SimulatedListsTest.platformDriver).findMovie("No " +
+            "Such Movie"));
+    }
+
+    @Test
+    public void findsCinemaAtEndOfList() {
+        String name = String.format(SyntheticScreens.CINEMA_NAME, SimulatedListsTest.SIZE - 1);
+        Cinema cinema = this.openTimesSection().timesSection.findCinema(name, 120);
+        Assert.assertNotNull(cinema);
+        Assert.assertEquals(name, cinema.getName());
+    }
+
+    @Test
+    public void returnsCinemaFoundWhenTimeoutRunsOut() {
+        // Deadline passes while found card is being aligned; card is returned anyway
+        String name = String.format(SyntheticScreens.CINEMA_NAME, 3);
+        Cinema cinema = this.openTimesSection().timesSection.findCinema(name, 0);
+        Assert.assertNotNull(cinema);
+        Assert.assertEquals(name, cinema.getName());
+    }
+
+    @Test
+    public void returnsNullForAbsentCinema() {
+        Assert.assertNull(this.openTimesSection().timesSection.findCinema("No Such Cinema", 120));
+    }
+
+    @Test
+    public void readsDateTiles() {
+        List<DateTile> tiles = new DatePicker(SimulatedListsTest.platformDriver).getDateLine().
+            getTiles();
+        Assert.assertTrue(tiles.size() > 1);
+        for (DateTile tile : tiles) {
+            // Partially visible tile may have lost its day text; it must be flagged, not parsed
+            Assert.assertTrue(! tile.isComplete() || tile.getDay() > 0);
+        }
+    }
+
+    private MovieDetails openTimesSection() {
+        new MoviePicker(SimulatedListsTest.platformDriver).getMovies().get(0).select();
+        MovieDetails movieDetails = new MovieDetails(SimulatedListsTest.platformDriver);
+        movieDetails.timesSection.locate();
+        return movieDetails;
+    }
+}
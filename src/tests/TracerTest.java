@@ -0,0 +1,90 @@
+package tests;
+
+import java.util.HashMap;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import lib.mates.pom.trace.Tracer;
+
+
+/**
+ * Checks nesting of spans and commands by Tracer and their self times.
+ */
+public class TracerTest {
+    // Round trip time (nanoseconds) of every recorded command
+    private static final long DURATION = 1000000;
+
+    @Test
+    @SuppressWarnings("try")
+    public void nestsCommandsUnderOpenSpans() throws Exception {
+        Tracer tracer = new Tracer();
+        TracerTest.recordCommand(tracer, "POST /session");
+        try (Tracer.Span outer = tracer.span("MoviePicker.findMovie")) {
+            TracerTest.recordCommand(tracer, "POST /elements");
+            try (Tracer.Span inner = tracer.span("MoviePicker.scroll")) {
+                TracerTest.recordCommand(tracer, "POST /touch/perform");
+                Thread.sleep(5);
+            }
+            Thread.sleep(5);
+        }
+        List<Tracer.Event> events = tracer.getEvents();
+        Assert.assertEquals(5, events.size());
+        Assert.assertEquals("POST /session", events.get(0).getStack());
+        Assert.assertEquals("MoviePicker.findMovie;POST /elements", events.get(1).getStack());
+        Assert.assertEquals("MoviePicker.findMovie;MoviePicker.scroll;POST /touch/perform",
+            events.get(2).getStack());
+        Tracer.Event inner = events.get(3);
+        Tracer.Event outer = events.get(4);
+        Assert.assertEquals("MoviePicker.findMovie;MoviePicker.scroll", inner.getStack());
+        Assert.assertEquals(Tracer.SPAN, inner.getCategory());
+        Assert.assertEquals("MoviePicker.findMovie", outer.getStack());
+        // Command is its own self time; span excludes time of what is nested directly in it
+        Assert.assertEquals(TracerTest.DURATION, events.get(2).getSelfTime());
+        Assert.assertEquals(inner.getDuration() - TracerTest.DURATION, inner.getSelfTime());
+        Assert.assertEquals(outer.getDuration() - TracerTest.DURATION - inner.getDuration(),
+            outer.getSelfTime());
+        Assert.assertTrue(outer.getSelfTime() > 0);
+    }
+
+    @Test
+    public void closesInnerSpansWithOuterSpan() throws Exception {
+        Tracer tracer = new Tracer();
+        Tracer.Span outer = tracer.span("TimesSection.findCinema");
+        Tracer.Span inner = tracer.span("TimesSection.scrollHalfScreen");
+        TracerTest.recordCommand(tracer, "POST /touch/perform");
+        Thread.sleep(5);
+        outer.close();
+        // Closing span again, or span already closed by enclosing one, records nothing
+        inner.close();
+        outer.close();
+        TracerTest.recordCommand(tracer, "GET /source");
+        List<Tracer.Event> events = tracer.getEvents();
+        Assert.assertEquals(4, events.size());
+        Assert.assertEquals("TimesSection.findCinema;TimesSection.scrollHalfScreen", events.get(1).
+            getStack());
+        Assert.assertEquals("TimesSection.findCinema", events.get(2).getStack());
+        Assert.assertEquals(events.get(2).getDuration() - events.get(1).getDuration(), events.get(
+            2).getSelfTime());
+        Assert.assertEquals("GET /source", events.get(3).getStack());
+    }
+
+    @Test
+    public void keepsOpenSpansOnReset() {
+        Tracer tracer = new Tracer();
+        Tracer.Span span = tracer.span("MoviePicker.findMovie");
+        TracerTest.recordCommand(tracer, "POST /elements");
+        tracer.reset();
+        TracerTest.recordCommand(tracer, "POST /element/:id/click");
+        span.close();
+        List<Tracer.Event> events = tracer.getEvents();
+        Assert.assertEquals(2, events.size());
+        Assert.assertEquals("MoviePicker.findMovie;POST /element/:id/click", events.get(0).
+            getStack());
+        Assert.assertEquals("MoviePicker.findMovie", events.get(1).getStack());
+    }
+
+    private static void recordCommand(Tracer tracer, String name) {
+        tracer.recordCommand(name, System.nanoTime(), TracerTest.DURATION, new HashMap<String,
+            Object>());
+    }
+}
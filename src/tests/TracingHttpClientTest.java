@@ -0,0 +1,81 @@
+package tests;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import lib.mates.pom.trace.Tracer;
+import lib.mates.pom.trace.TracingHttpClient;
+
+
+/**
+ * Checks naming of commands by TracingHttpClient and details it records with them.
+ */
+public class TracingHttpClientTest {
+    @Test
+    public void stripsSessionAndElementIds() {
+        Assert.assertEquals("POST /element/:id/click", TracingHttpClientTest.getCommandName(
+            HttpMethod.POST, "/wd/hub/session/7f3e-41ab/element/12/click"));
+        Assert.assertEquals("GET /element/:id/attribute/text", TracingHttpClientTest.
+            getCommandName(HttpMethod.GET, "/wd/hub/session/7f3e-41ab/element/12/attribute/text"));
+        Assert.assertEquals("POST /element/:id/elements", TracingHttpClientTest.getCommandName(
+            HttpMethod.POST, "/session/7f3e-41ab/element/12/elements"));
+        Assert.assertEquals("POST /elements", TracingHttpClientTest.getCommandName(HttpMethod.
+            POST, "/wd/hub/session/7f3e-41ab/elements"));
+        // Find command has no element ID
+        Assert.assertEquals("POST /element", TracingHttpClientTest.getCommandName(HttpMethod.POST,
+            "/wd/hub/session/7f3e-41ab/element"));
+        Assert.assertEquals("DELETE /session/:id", TracingHttpClientTest.getCommandName(
+            HttpMethod.DELETE, "/wd/hub/session/7f3e-41ab"));
+        // New session has no session ID yet
+        Assert.assertEquals("POST /wd/hub/session", TracingHttpClientTest.getCommandName(
+            HttpMethod.POST, "/wd/hub/session"));
+    }
+
+    @Test
+    public void recordsStrategyAndGesture() throws IOException {
+        Tracer tracer = new Tracer();
+        HttpClient client = new TracingHttpClient(new HttpClient() {
+            @Override
+            public HttpResponse execute(HttpRequest request, boolean followRedirects) {
+                HttpResponse response = new HttpResponse();
+                response.setContent("{\"status\": 0}".getBytes(StandardCharsets.UTF_8));
+                return response;
+            }
+
+            @Override
+            public void close() {
+            }
+        }, tracer);
+        client.execute(TracingHttpClientTest.createRequest("/session/1/elements", "{\"using\": " +
+            "\"xpath\", \"value\": \"//*\"}"), true);
+        client.execute(TracingHttpClientTest.createRequest("/session/1/touch/perform", "{" +
+            "\"actions\": [{\"action\": \"press\"}, {\"action\": \"moveTo\"}, {\"action\": " +
+            "\"release\"}]}"), true);
+        client.execute(TracingHttpClientTest.createRequest("/session/1/touch/perform", "{" +
+            "\"actions\": [{\"action\": \"tap\"}]}"), true);
+        List<Tracer.Event> events = tracer.getEvents();
+        Assert.assertEquals(3, events.size());
+        Assert.assertEquals("POST /elements", events.get(0).getName());
+        Assert.assertEquals("xpath", events.get(0).getArguments().get("using"));
+        Assert.assertEquals(13, events.get(0).getArguments().get("responseBytes"));
+        Assert.assertEquals("swipe", events.get(1).getArguments().get("gesture"));
+        Assert.assertEquals("tap", events.get(2).getArguments().get("gesture"));
+        Assert.assertNull(events.get(2).getArguments().get("using"));
+    }
+
+    private static String getCommandName(HttpMethod method, String uri) {
+        return TracingHttpClient.getCommandName(new HttpRequest(method, uri));
+    }
+
+    private static HttpRequest createRequest(String uri, String content) {
+        HttpRequest request = new HttpRequest(HttpMethod.POST, uri);
+        request.setContent(content.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
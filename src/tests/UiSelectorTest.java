@@ -0,0 +1,112 @@
+package tests;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import lib.mates.pom.simulator.ScreenSet;
+import lib.mates.pom.simulator.UiSelector;
+import lib.mates.pom.utils.UiAutomator;
+
+
+/**
+ * Checks parsing of UiAutomator expressions by simulator and matching of their criteria against
+ * nodes of recorded "Movies" screen.
+ */
+public class UiSelectorTest {
+    private static List<Node> nodes = new ArrayList<>();
+
+    @BeforeClass
+    public static void loadScreen() throws Exception {
+        Document document = ScreenSet.parse(Paths.get(System.getProperty("user.dir"), "src",
+            "data", "screens", "movies.xml"));
+        UiSelectorTest.collectElements(document.getDocumentElement(), UiSelectorTest.nodes);
+    }
+
+    @Test
+    public void matchesCriteria() {
+        Assert.assertEquals(28, UiSelectorTest.count("new UiSelector().resourceId(" +
+            "\"us.moviemates:id/tvTitle\")"));
+        Assert.assertEquals(168, UiSelectorTest.count("new UiSelector().className(" +
+            "\"android.widget.TextView\")"));
+        Assert.assertEquals(3, UiSelectorTest.count("new UiSelector().scrollable(true)"));
+        Assert.assertEquals(1, UiSelectorTest.count("new UiSelector().resourceId(" +
+            "\"us.moviemates:id/tvTitle\").text(\"Fifty Shades Darker\")"));
+        Assert.assertEquals(1, UiSelectorTest.count("new UiSelector().textMatches(" +
+            "\"(?i).*fifty shades.*\")"));
+        Assert.assertEquals(UiSelectorTest.count("new UiSelector().resourceIdMatches(" +
+            "\".*:id/tvTitle\")"), UiSelectorTest.count("new UiSelector().resourceId(" +
+            "\"us.moviemates:id/tvTitle\")"));
+        Assert.assertEquals(0, UiSelectorTest.count("new UiSelector().resourceId(" +
+            "\"us.moviemates:id/tvTitle\").index(99)"));
+    }
+
+    @Test
+    public void parsesChildSelectorAndInstance() {
+        UiSelector selector = UiSelector.parse("new UiSelector().resourceId(" +
+            "\"us.moviemates:id/listView\").childSelector(new UiSelector().className(" +
+            "\"android.widget.RelativeLayout\").index(2)).instance(0)");
+        Assert.assertEquals(0, selector.getInstance());
+        Assert.assertNotNull(selector.getChildSelector());
+        Assert.assertEquals(-1, selector.getChildSelector().getInstance());
+        Assert.assertNull(selector.getScrollTarget());
+    }
+
+    @Test
+    public void parsesScrollableBuiltByClient() {
+        UiSelector selector = UiSelector.parse(UiAutomator.scrollIntoView(
+            "us.moviemates:id/listView", "us.moviemates:id/tvTitle", "Fifty Shades Darker", 7));
+        Assert.assertEquals(7, selector.getMaxSearchSwipes());
+        Assert.assertNotNull(selector.getScrollTarget());
+        Assert.assertEquals(1, UiSelectorTest.count(selector));
+        int targets = 0;
+        for (Node node : UiSelectorTest.nodes) {
+            if (selector.getScrollTarget().matches(node)) {
+                targets++;
+            }
+        }
+        Assert.assertEquals(1, targets);
+    }
+
+    @Test
+    public void rejectsExpressionsOutOfSubset() {
+        String[] expressions = {"new UiSelector().resourceId(\"a\"",
+            "new UiSelector().focused(true)", "new UiObject(new UiSelector())",
+            "new UiSelector().text(\"a\") trailing"};
+        for (String expression : expressions) {
+            try {
+                UiSelector.parse(expression);
+                Assert.fail("Expression parsed: " + expression);
+            }
+            catch (IllegalArgumentException e) {
+            }
+        }
+    }
+
+    private static int count(String expression) {
+        return UiSelectorTest.count(UiSelector.parse(expression));
+    }
+
+    private static int count(UiSelector selector) {
+        int count = 0;
+        for (Node node : UiSelectorTest.nodes) {
+            if (selector.matches(node)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void collectElements(Node node, List<Node> elements) {
+        if (node.getNodeType() == Node.ELEMENT_NODE) {
+            elements.add(node);
+        }
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            UiSelectorTest.collectElements(child, elements);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package tests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import lib.mates.pom.snapshot.Bounds;
+import lib.mates.pom.snapshot.UiTree;
+
+
+/**
+ * Checks structure and attributes of UiTree parsed from small page source.
+ */
+public class UiTreeTest {
+    // Nodes: 1 - hierarchy, 2 - list, 3 - first item, 4 - its title, 5 - second item, 6 - status
+    private static final String PAGE_SOURCE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+        "<hierarchy rotation=\"0\">" +
+        "<android.widget.ListView index=\"0\" resource-id=\"us.moviemates:id/listView\" " +
+        "class=\"android.widget.ListView\" bounds=\"[0,96][720,1184]\">" +
+        "<android.widget.RelativeLayout index=\"0\" class=\"android.widget.RelativeLayout\" " +
+        "bounds=\"[0,96][720,400]\">" +
+        "<android.widget.TextView index=\"0\" text=\"Fifty Shades Darker\" " +
+        "resource-id=\"us.moviemates:id/tvTitle\" class=\"android.widget.TextView\" " +
+        "selected=\"false\" bounds=\"[20,110][700,150]\"/>" +
+        "</android.widget.RelativeLayout>" +
+        "<android.widget.RelativeLayout index=\"1\" class=\"android.widget.RelativeLayout\"/>" +
+        "</android.widget.ListView>" +
+        "<android.view.View text=\"\" resource-id=\"android:id/statusBarBackground\"/>" +
+        "</hierarchy>";
+
+    @Test
+    public void numbersNodesInDocumentOrder() throws Exception {
+        UiTree tree = UiTree.parse(UiTreeTest.PAGE_SOURCE);
+        Assert.assertEquals(7, tree.size());
+        Assert.assertEquals(UiTree.NONE, tree.getParent(UiTree.DOCUMENT));
+        Assert.assertEquals(UiTree.DOCUMENT, tree.getParent(1));
+        Assert.assertEquals(2, tree.getParent(3));
+        Assert.assertEquals(3, tree.getParent(4));
+        Assert.assertEquals(2, tree.getParent(5));
+        Assert.assertEquals(1, tree.getParent(6));
+        Assert.assertEquals(7, tree.getEnd(UiTree.DOCUMENT));
+        Assert.assertEquals(6, tree.getEnd(2));
+        Assert.assertEquals(5, tree.getEnd(3));
+        Assert.assertEquals(5, tree.getEnd(4));
+    }
+
+    @Test
+    public void checksDescendantsByRange() throws Exception {
+        UiTree tree = UiTree.parse(UiTreeTest.PAGE_SOURCE);
+        Assert.assertTrue(tree.isDescendant(4, 2));
+        Assert.assertTrue(tree.isDescendant(5, 2));
+        Assert.assertFalse(tree.isDescendant(6, 2));
+        Assert.assertFalse(tree.isDescendant(2, 2));
+        Assert.assertFalse(tree.isDescendant(2, 4));
+    }
+
+    @Test
+    public void readsAttributes() throws Exception {
+        UiTree tree = UiTree.parse(UiTreeTest.PAGE_SOURCE);
+        Assert.assertEquals("android.widget.TextView", tree.getString(tree.getTag(4)));
+        Assert.assertEquals("us.moviemates:id/tvTitle", tree.getString(tree.getResourceId(4)));
+        Assert.assertEquals("android.widget.TextView", tree.getString(tree.getClassName(4)));
+        Assert.assertEquals("Fifty Shades Darker", tree.getText(4));
+        Assert.assertEquals("false", tree.getAttribute(4, "selected"));
+        Assert.assertNull(tree.getAttribute(4, "checked"));
+        Assert.assertNull(tree.getAttribute(UiTree.DOCUMENT, "selected"));
+        Assert.assertEquals(1, tree.getIndex(5));
+        Assert.assertEquals(UiTree.NONE, tree.getIndex(6));
+        Assert.assertNull(tree.getText(3));
+        Assert.assertEquals("", tree.getText(6));
+        Assert.assertEquals(new Bounds(20, 110, 700, 150), tree.getBounds(4));
+        Assert.assertNull(tree.getBounds(5));
+    }
+
+    @Test
+    public void matchesShortResourceIdOfAnyPackage() throws Exception {
+        UiTree tree = UiTree.parse(UiTreeTest.PAGE_SOURCE);
+        int[] symbols = tree.getResourceIdSymbols("tvTitle");
+        Assert.assertEquals(1, symbols.length);
+        Assert.assertEquals(tree.getResourceId(4), symbols[0]);
+        Assert.assertEquals(1, tree.getResourceIdSymbols("us.moviemates:id/listView").length);
+        Assert.assertEquals(0, tree.getResourceIdSymbols("us.moviemates:id/tvTitle2").length);
+        Assert.assertEquals(0, tree.getResourceIdSymbols("title").length);
+        Assert.assertEquals(UiTree.NONE, tree.getSymbol("android.widget.Button"));
+    }
+}
@@ -0,0 +1,127 @@
+package tests;
+
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+import lib.mates.pom.snapshot.UiTree;
+import lib.mates.pom.snapshot.UiXPath;
+
+
+/**
+ * Checks UiXPath against javax.xml.xpath on recorded screens of src/data/screens: every
+ * expression of the subset must select the same nodes in the same order.
+ */
+public class UiXPathTest {
+    private static final String[] EXPRESSIONS = {
+        "//android.widget.ListView[@resource-id='us.moviemates:id/listView']/android.widget.RelativeLayout[@index=2]",
+        "//android.widget.ListView[@resource-id='us.moviemates:id/listView']/android.widget.RelativeLayout",
+        "//android.support.v7.widget.RecyclerView/android.widget.RelativeLayout[@index=1]",
+        "//android.widget.ImageView[@resource-id='us.moviemates:id/ivShadow']",
+        "//android.widget.TextView[1]",
+        "//android.widget.TextView[last()]",
+        "//*[@index=0][2]",
+        "(//android.widget.TextView)[1]",
+        "(//android.widget.TextView)[last()]",
+        "(//*[@resource-id='us.moviemates:id/listView'])[1]//android.widget.TextView",
+        "//*[@text]",
+        "//*[contains(@text,'A')]",
+        "//*[starts-with(@resource-id,'us.')]",
+        "//*[@resource-id!='us.moviemates:id/listView']",
+        "//*[@index!=0]",
+        "//android.widget.TextView[@index=0 or @index=1]",
+        "//*[(@index=1 or @index=2) and @clickable='true']",
+        "/hierarchy/*",
+        "/hierarchy//android.widget.TextView[2]",
+        "//*[@index='1']",
+        "//*[@selected='false'][3]",
+        "//android.widget.RelativeLayout//android.widget.TextView[1]",
+        "//*[@resource-id='nope']",
+        "//android.widget.FrameLayout[1]/*[1]/*",
+        "//*[@bounds]"};
+
+    @Test
+    public void matchesJavaxOnMoviesScreen() throws Exception {
+        this.verifyScreen("movies.xml");
+    }
+
+    @Test
+    public void matchesJavaxOnDetailsScreen() throws Exception {
+        this.verifyScreen("details.xml");
+    }
+
+    @Test
+    public void evaluatesRelativePathInContextNode() throws Exception {
+        UiTree tree = UiTree.parse(UiXPathTest.readScreen("movies.xml"));
+        int list = UiXPath.compile("//*[@resource-id='us.moviemates:id/listView']").evaluate(tree,
+            UiTree.DOCUMENT)[0];
+        int[] titles = UiXPath.compile(".//*[@resource-id='us.moviemates:id/tvTitle']").
+            evaluate(tree, list);
+        Assert.assertTrue(titles.length > 0);
+        for (int title : titles) {
+            Assert.assertTrue(tree.isDescendant(title, list));
+        }
+    }
+
+    @Test
+    public void rejectsExpressionsOutOfSubset() {
+        Assert.assertTrue(UiXPath.isSupported("(//*[@resource-id='a'])[1]//*[@index=0]"));
+        Assert.assertFalse(UiXPath.isSupported("//a | //b"));
+        Assert.assertFalse(UiXPath.isSupported("//a/following-sibling::b"));
+        Assert.assertFalse(UiXPath.isSupported("//a[text()='b']"));
+        Assert.assertFalse(UiXPath.isSupported("//a[@index=0"));
+    }
+
+    /**
+     * Evaluates every expression by UiXPath and by javax.xml.xpath and compares node numbers.
+     * Nodes of UiTree are numbered in document order from 1, document node being 0.
+     */
+    private void verifyScreen(String screen) throws Exception {
+        String pageSource = UiXPathTest.readScreen(screen);
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new
+            InputSource(new StringReader(pageSource)));
+        List<Node> elements = new ArrayList<>();
+        UiXPathTest.collectElements(document.getDocumentElement(), elements);
+        UiTree tree = UiTree.parse(pageSource);
+        Assert.assertEquals(elements.size() + 1, tree.size());
+        XPath xpath = XPathFactory.newInstance().newXPath();
+        for (String expression : UiXPathTest.EXPRESSIONS) {
+            NodeList nodes = (NodeList) xpath.evaluate(expression, document, XPathConstants.
+                NODESET);
+            List<Integer> expected = new ArrayList<>();
+            for (int index = 0; index < nodes.getLength(); index++) {
+                expected.add(elements.indexOf(nodes.item(index)) + 1);
+            }
+            List<Integer> actual = new ArrayList<>();
+            for (int node : UiXPath.compile(expression).evaluate(tree, UiTree.DOCUMENT)) {
+                actual.add(node);
+            }
+            Assert.assertEquals(screen + ": " + expression, expected, actual);
+        }
+    }
+
+    private static void collectElements(Node node, List<Node> elements) {
+        if (node.getNodeType() == Node.ELEMENT_NODE) {
+            elements.add(node);
+        }
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            UiXPathTest.collectElements(child, elements);
+        }
+    }
+
+    static String readScreen(String screen) throws Exception {
+        return new String(Files.readAllBytes(Paths.get(System.getProperty("user.dir"), "src",
+            "data", "screens", screen)), "UTF-8");
+    }
+}
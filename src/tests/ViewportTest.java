@@ -0,0 +1,109 @@
+package tests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import lib.mates.pom.snapshot.UiTree;
+import lib.mates.pom.snapshot.Viewport;
+
+
+/**
+ * Checks offset and end-of-content detection of Viewport on lists of cinema cards, each having
+ * unique name and show times repeated in every card.
+ */
+public class ViewportTest {
+    // Height (pixels) of card
+    private static final int CARD_HEIGHT = 400;
+    // Show times of every card
+    private static final String[] TIMES = {"7:00PM", "8:40PM", "10:15PM"};
+
+    @Test
+    public void takesUnchangedContentAsEnd() throws Exception {
+        Viewport previous = ViewportTest.capture(100, 0, 3, true);
+        Viewport current = ViewportTest.capture(100, 0, 3, true);
+        Assert.assertTrue(current.isSettled(previous));
+        Assert.assertEquals(0, current.getOffset(previous));
+        Assert.assertTrue(current.isAtEnd(previous, 500));
+    }
+
+    @Test
+    public void measuresOffsetOfFullSwipe() throws Exception {
+        Viewport previous = ViewportTest.capture(100, 0, 3, true);
+        Viewport current = ViewportTest.capture(100 - 300, 0, 4, true);
+        Assert.assertFalse(current.isSettled(previous));
+        Assert.assertEquals(300, current.getOffset(previous));
+        Assert.assertFalse(current.isAtEnd(previous, 300));
+        // Swipe much longer than content has moved has hit bottom
+        Assert.assertTrue(current.isAtEnd(previous, 1000));
+    }
+
+    @Test
+    public void detectsEndInDownwardScroll() throws Exception {
+        Viewport previous = ViewportTest.capture(100 - 300, 0, 4, true);
+        Viewport current = ViewportTest.capture(100 - 250, 0, 4, true);
+        Assert.assertEquals(-50, current.getOffset(previous));
+        Assert.assertTrue(current.isAtEnd(previous, -300));
+    }
+
+    @Test
+    public void letsUniqueElementsOutvoteRepeatedOnes() throws Exception {
+        // Content moved by exactly one card: repeated times pair with times of the other card
+        // at offset 0 more often than unique names pair at true offset
+        Viewport previous = ViewportTest.capture(100, 0, 2, true);
+        Viewport current = ViewportTest.capture(100, 1, 2, true);
+        Assert.assertEquals(ViewportTest.CARD_HEIGHT, current.getOffset(previous));
+        Assert.assertFalse(current.isAtEnd(previous, ViewportTest.CARD_HEIGHT));
+    }
+
+    @Test
+    public void fallsBackToRepeatedElements() throws Exception {
+        Viewport previous = ViewportTest.capture(100, 0, 2, false);
+        Viewport current = ViewportTest.capture(300, 0, 2, false);
+        Assert.assertEquals(-200, current.getOffset(previous));
+    }
+
+    @Test
+    public void returnsUnknownOffsetWithoutCommonElements() throws Exception {
+        Viewport previous = ViewportTest.capture(100, 0, 2, true);
+        Viewport current = ViewportTest.capture(100, 5, 0, true);
+        Assert.assertEquals(Viewport.UNKNOWN, current.getOffset(previous));
+        Assert.assertFalse(current.isAtEnd(previous, 300));
+    }
+
+    /**
+     * Captures viewport of list of cards.
+     * @param top  Top of first card; cards above 0 are left out, as they are off screen.
+     * @param first  Number of first card.
+     * @param count  Number of cards.
+     * @param named  False to leave names out of cards.
+     */
+    private static Viewport capture(int top, int first, int count, boolean named)
+        throws Exception {
+        StringBuilder pageSource = new StringBuilder("<hierarchy rotation=\"0\">" +
+            "<android.widget.ScrollView index=\"0\" resource-id=\"us.moviemates:id/wsListView\" " +
+            "bounds=\"[0,96][720,1184]\">");
+        for (int card = first; card < first + count; card++) {
+            int cardTop = top + (card - first) * ViewportTest.CARD_HEIGHT;
+            if (cardTop < 0) {
+                continue;
+            }
+            pageSource.append(String.format("<android.widget.RelativeLayout " +
+                "resource-id=\"us.moviemates:id/rlCard\" bounds=\"[0,%d][720,%d]\">", cardTop,
+                cardTop + ViewportTest.CARD_HEIGHT));
+            if (named) {
+                pageSource.append(ViewportTest.text("tvAddress", "Cinema " + card, cardTop + 10));
+            }
+            for (int index = 0; index < ViewportTest.TIMES.length; index++) {
+                pageSource.append(ViewportTest.text("tvTime", ViewportTest.TIMES[index], cardTop +
+                    100 + index * 50));
+            }
+            pageSource.append("</android.widget.RelativeLayout>");
+        }
+        pageSource.append("</android.widget.ScrollView></hierarchy>");
+        return Viewport.capture(UiTree.parse(pageSource.toString()), 2);
+    }
+
+    private static String text(String id, String text, int top) {
+        return String.format("<android.widget.TextView resource-id=\"us.moviemates:id/%s\" " +
+            "text=\"%s\" bounds=\"[20,%d][700,%d]\"/>", id, text, top, top + 40);
+    }
+}